@@ -0,0 +1,23 @@
+#!/bin/bash
+
+# 构建并运行 JMH 压测，结果以 JSON 写入 results/，文件名带上版本号和时间，方便版本间对比
+# 用法: ./run.sh [JMH 参数]，例如 ./run.sh TransactionServiceBenchmark -prof gc
+
+set -e
+
+cd "$(dirname "$0")"
+
+echo "安装 transaction-service..."
+mvn -B -q -f ../pom.xml install -DskipTests
+
+echo "构建 benchmarks.jar..."
+mvn -B -q package
+
+VERSION=$(git describe --tags --always --dirty 2>/dev/null || echo "unknown")
+RESULT_FILE="results/jmh-${VERSION}-$(date +%Y%m%d%H%M%S).json"
+mkdir -p results
+
+java -jar target/benchmarks.jar -rf json -rff "$RESULT_FILE" "$@"
+
+echo ""
+echo "结果已保存到 $RESULT_FILE"
@@ -0,0 +1,219 @@
+package me.shenyi0828.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.service.CacheService;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 压测公用的数据和组件，按 application.yml 的配置手工装配，不启动 Spring 容器
+ *
+ * @author Yi
+ */
+final class BenchmarkFixtures {
+
+    static final String SEEDED_ID_PREFIX = "BENCH";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 和 spring.jackson.* 配置一致的 ObjectMapper
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .timeZone(TimeZone.getTimeZone("Asia/Shanghai"))
+                .dateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"))
+                .build();
+    }
+
+    static TransactionPO transactionPO(long id) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 14, 9, 30).plusSeconds(id);
+        return TransactionPO.builder()
+                .id(id)
+                .transactionId(seededTransactionId(id))
+                .amount(100_000 + (int) id)
+                .transactionType((byte) (id % 2 + 1))
+                .accountNumber("6222021234567890")
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer " + id)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+
+    static List<TransactionPO> transactionPOs(int count) {
+        List<TransactionPO> transactionPOs = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            transactionPOs.add(transactionPO(i));
+        }
+        return transactionPOs;
+    }
+
+    static TransactionDTO transactionDTO(long id) {
+        TransactionPO transactionPO = transactionPO(id);
+        return TransactionDTO.builder()
+                .id(transactionPO.getId())
+                .transactionId(transactionPO.getTransactionId())
+                .amount(transactionPO.getAmount())
+                .transactionType(transactionPO.getTransactionType())
+                .accountNumber(transactionPO.getAccountNumber())
+                .counterpartyAccount(transactionPO.getCounterpartyAccount())
+                .description(transactionPO.getDescription())
+                .createdAt(transactionPO.getCreatedAt())
+                .updatedAt(transactionPO.getUpdatedAt())
+                .build();
+    }
+
+    static List<TransactionDTO> transactionDTOs(int count) {
+        List<TransactionDTO> transactionDTOs = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            transactionDTOs.add(transactionDTO(i));
+        }
+        return transactionDTOs;
+    }
+
+    static TransactionEditRequest createRequest() {
+        TransactionEditRequest request = new TransactionEditRequest();
+        request.setAmount(10_000);
+        request.setTransactionType((byte) 1);
+        request.setAccountNumber("6222021234567890");
+        request.setCounterpartyAccount("6222028765432109");
+        request.setDescription("Benchmark transaction");
+        return request;
+    }
+
+    static String seededTransactionId(long n) {
+        return SEEDED_ID_PREFIX + String.format("%010d", n);
+    }
+
+    /**
+     * 用 Map 模拟 Redis 的 StringRedisTemplate，只实现缓存服务用到的 get/set/increment/delete，
+     * 这样测出来的是序列化和缓存服务本身的开销，不含网络
+     */
+    @SuppressWarnings("unchecked")
+    static StringRedisTemplate inMemoryRedisTemplate() {
+        Map<String, String> store = new ConcurrentHashMap<>();
+        ValueOperations<String, String> valueOperations = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "get" -> store.get((String) args[0]);
+                    case "set" -> {
+                        store.put((String) args[0], (String) args[1]);
+                        yield null;
+                    }
+                    case "increment" -> Long.valueOf(store.merge((String) args[0], "1",
+                            (current, one) -> String.valueOf(Long.parseLong(current) + 1)));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        return new StringRedisTemplate() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return valueOperations;
+            }
+
+            @Override
+            public Boolean delete(String key) {
+                return store.remove(key) != null;
+            }
+        };
+    }
+
+    /**
+     * 同上，模拟存交易详情的二进制 RedisTemplate，只实现 get/set
+     */
+    @SuppressWarnings("unchecked")
+    static RedisTemplate<String, byte[]> inMemoryBinaryRedisTemplate() {
+        Map<String, byte[]> store = new ConcurrentHashMap<>();
+        ValueOperations<String, byte[]> valueOperations = (ValueOperations<String, byte[]>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "get" -> store.get((String) args[0]);
+                    case "set" -> {
+                        store.put((String) args[0], (byte[]) args[1]);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        return new RedisTemplate<>() {
+            @Override
+            public ValueOperations<String, byte[]> opsForValue() {
+                return valueOperations;
+            }
+        };
+    }
+
+    /**
+     * 永远未命中的缓存，压测 service 时让每次请求都落到数据库
+     */
+    static CacheService missingCacheService() {
+        return (CacheService) Proxy.newProxyInstance(CacheService.class.getClassLoader(),
+                new Class<?>[]{CacheService.class}, (proxy, method, args) -> null);
+    }
+
+    /**
+     * 内存 H2，建表并灌入 rows 条数据
+     */
+    static HikariDataSource h2DataSource(String name, int rows) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(8);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        new JdbcTemplate(dataSource).update("INSERT INTO transactions (transaction_id, amount, transaction_type, "
+                + "account_number, counterparty_account, description, created_at, updated_at) "
+                + "SELECT '" + SEEDED_ID_PREFIX + "' || LPAD(CAST(X AS VARCHAR), 10, '0'), 100 + MOD(X, 100000), "
+                + "MOD(X, 2) + 1, 'ACC' || MOD(X, 1000), 'ACC999999', 'Generated', "
+                + "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), "
+                + "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00') "
+                + "FROM SYSTEM_RANGE(1, ?)", rows);
+        new JdbcTemplate(dataSource).update("UPDATE transaction_counter SET row_count = ? WHERE slot = 0", rows);
+        return dataSource;
+    }
+
+    /**
+     * 和 mybatis.* 配置一致的 SqlSessionFactory
+     */
+    static SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setUseGeneratedKeys(true);
+
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(configuration);
+        factoryBean.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath*:mapper/*.xml"));
+        return factoryBean.getObject();
+    }
+}
@@ -0,0 +1,89 @@
+package me.shenyi0828.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.shenyi0828.common.BinaryTransactionCodec;
+import me.shenyi0828.common.CacheCodec;
+import me.shenyi0828.common.JsonCacheCodec;
+import me.shenyi0828.model.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易详情缓存值的编码对比：原来的 JSON 字符串（含转 UTF-8 字节，Redis 里实际存的就是这些字节）、
+ * 带头部的 JSON 编码、紧凑二进制编码。每种格式单条的字节数在 setUp 时打印
+ *
+ * @author Yi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CacheCodec<TransactionDTO> jsonCodec;
+    private CacheCodec<TransactionDTO> binaryCodec;
+
+    private TransactionDTO transaction;
+    private byte[] jsonStringBytes;
+    private byte[] jsonCodecBytes;
+    private byte[] binaryCodecBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        jsonCodec = new JsonCacheCodec<>(objectMapper, TransactionDTO.class);
+        binaryCodec = new BinaryTransactionCodec();
+
+        transaction = BenchmarkFixtures.transactionDTO(1);
+        jsonStringBytes = objectMapper.writeValueAsString(transaction).getBytes(StandardCharsets.UTF_8);
+        jsonCodecBytes = jsonCodec.encode(transaction);
+        binaryCodecBytes = binaryCodec.encode(transaction);
+
+        System.out.printf("%nBytes per entry: json-string=%d, json-codec=%d, binary-codec=%d%n",
+                jsonStringBytes.length, jsonCodecBytes.length, binaryCodecBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJsonString() throws Exception {
+        return objectMapper.writeValueAsString(transaction).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public TransactionDTO decodeJsonString() throws Exception {
+        return objectMapper.readValue(new String(jsonStringBytes, StandardCharsets.UTF_8), TransactionDTO.class);
+    }
+
+    @Benchmark
+    public byte[] encodeJsonCodec() {
+        return jsonCodec.encode(transaction);
+    }
+
+    @Benchmark
+    public TransactionDTO decodeJsonCodec() {
+        return jsonCodec.decode(jsonCodecBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeBinaryCodec() {
+        return binaryCodec.encode(transaction);
+    }
+
+    @Benchmark
+    public TransactionDTO decodeBinaryCodec() {
+        return binaryCodec.decode(binaryCodecBytes);
+    }
+}
@@ -0,0 +1,103 @@
+package me.shenyi0828.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.common.BinaryTransactionCodec;
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.service.impl.CacheServiceImpl;
+import me.shenyi0828.service.impl.LocalCacheEvictionBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值的序列化/反序列化：单独的 ObjectMapper 开销，以及走 CacheServiceImpl 的整条路径（Redis 用内存 Map 代替）
+ *
+ * @author Yi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializationBenchmark {
+
+    private static final TypeReference<PageResponse<TransactionDTO>> PAGE_TYPE = new TypeReference<>() {};
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private CacheServiceImpl cacheService;
+    private String generation;
+
+    private TransactionDTO transaction;
+    private String transactionJson;
+    private PageResponse<TransactionDTO> page;
+    private String pageJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        cacheService = new CacheServiceImpl(BenchmarkFixtures.inMemoryRedisTemplate(),
+                BenchmarkFixtures.inMemoryBinaryRedisTemplate(), new BinaryTransactionCodec(), objectMapper,
+                new LocalCacheEvictionBus(), new CacheProperties(), new SimpleMeterRegistry());
+
+        transaction = BenchmarkFixtures.transactionDTO(1);
+        transactionJson = objectMapper.writeValueAsString(transaction);
+        page = PageResponse.of(BenchmarkFixtures.transactionDTOs(pageSize), 1_000_000L, 0, pageSize);
+        pageJson = objectMapper.writeValueAsString(page);
+
+        generation = cacheService.getPageGeneration();
+        cacheService.setPage(generation, 0, pageSize, page);
+    }
+
+    @Benchmark
+    public String serializeTransaction() throws Exception {
+        return objectMapper.writeValueAsString(transaction);
+    }
+
+    @Benchmark
+    public TransactionDTO deserializeTransaction() throws Exception {
+        return objectMapper.readValue(transactionJson, TransactionDTO.class);
+    }
+
+    @Benchmark
+    public String serializePage() throws Exception {
+        return objectMapper.writeValueAsString(page);
+    }
+
+    @Benchmark
+    public PageResponse<TransactionDTO> deserializePage() throws Exception {
+        return objectMapper.readValue(pageJson, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public void cacheServiceSetPage() {
+        cacheService.setPage(generation, 0, pageSize, page);
+    }
+
+    @Benchmark
+    public PageResponse<TransactionDTO> cacheServiceGetPage() {
+        return cacheService.getPage(generation, 0, pageSize);
+    }
+
+    @Benchmark
+    public void cacheServiceSetTransaction() {
+        cacheService.setTransaction(transaction.getTransactionId(), transaction);
+    }
+}
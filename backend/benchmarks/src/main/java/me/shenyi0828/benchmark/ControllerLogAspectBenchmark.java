@@ -0,0 +1,146 @@
+package me.shenyi0828.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import me.shenyi0828.aspect.ControllerLogAspect;
+import me.shenyi0828.common.ApiResponse;
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.controller.TransactionController;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口日志切面的额外开销：同一个 controller 直接调用、经过优化前的切面（Legacy）、经过现在的切面三者对比，
+ * service 用固定返回值的桩。每次请求的分配量用 -prof gc 看 gc.alloc.rate.norm
+ *
+ * @author Yi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerLogAspectBenchmark {
+
+    private static final String TRANSACTION_ID = BenchmarkFixtures.seededTransactionId(1);
+
+    /**
+     * 切面 logger 的级别，WARN 时成功请求不落日志
+     */
+    @Param({"INFO", "WARN"})
+    public String apiLogLevel;
+
+    /**
+     * transaction.log.sample-rate，只对现在的切面生效
+     */
+    @Param({"1", "100"})
+    public int sampleRate;
+
+    private TransactionController directController;
+    private TransactionController legacyController;
+    private TransactionController advisedController;
+    private TransactionEditRequest createRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        ((Logger) LoggerFactory.getLogger(ControllerLogAspect.class)).setLevel(Level.toLevel(apiLogLevel));
+
+        directController = controllerWith(stubTransactionService());
+        legacyController = advise(controllerWith(stubTransactionService()), new LegacyControllerLogAspect());
+        advisedController = advise(controllerWith(stubTransactionService()),
+                new ControllerLogAspect(BenchmarkFixtures.objectMapper(), sampleRate));
+
+        createRequest = BenchmarkFixtures.createRequest();
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<TransactionDTO>> getByIdDirect() {
+        return directController.getTransactionById(TRANSACTION_ID);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<TransactionDTO>> getByIdLegacy() {
+        return legacyController.getTransactionById(TRANSACTION_ID);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<TransactionDTO>> getByIdAdvised() {
+        return advisedController.getTransactionById(TRANSACTION_ID);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<TransactionDTO>> createDirect() {
+        return directController.createTransaction(createRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<TransactionDTO>> createLegacy() {
+        return legacyController.createTransaction(createRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<TransactionDTO>> createAdvised() {
+        return advisedController.createTransaction(createRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<PageResponse<TransactionDTO>>> listDirect() {
+        return directController.getAllTransactions(0, 10, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<PageResponse<TransactionDTO>>> listLegacy() {
+        return legacyController.getAllTransactions(0, 10, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<PageResponse<TransactionDTO>>> listAdvised() {
+        return advisedController.getAllTransactions(0, 10, null);
+    }
+
+    private static TransactionController advise(TransactionController controller, Object aspect) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(controller);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+    private static TransactionController controllerWith(TransactionService transactionService) throws Exception {
+        TransactionController controller = new TransactionController();
+        Field field = TransactionController.class.getDeclaredField("transactionService");
+        field.setAccessible(true);
+        field.set(controller, transactionService);
+        return controller;
+    }
+
+    private static TransactionService stubTransactionService() {
+        TransactionDTO transaction = BenchmarkFixtures.transactionDTO(1);
+        PageResponse<TransactionDTO> page = PageResponse.of(BenchmarkFixtures.transactionDTOs(10), 1_000_000L, 0, 10);
+        return (TransactionService) Proxy.newProxyInstance(TransactionService.class.getClassLoader(),
+                new Class<?>[]{TransactionService.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getTransactionById", "createTransaction" -> transaction;
+                    case "getAllTransactions" -> page;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
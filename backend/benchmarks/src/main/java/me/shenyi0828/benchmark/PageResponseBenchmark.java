@@ -0,0 +1,52 @@
+package me.shenyi0828.benchmark;
+
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.model.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页响应的组装
+ *
+ * @author Yi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageResponseBenchmark {
+
+    private List<TransactionDTO> content;
+    private long totalElements;
+    private int page;
+
+    @Setup
+    public void setUp() {
+        content = BenchmarkFixtures.transactionDTOs(10);
+        totalElements = 1_000_000L;
+        page = 42;
+    }
+
+    @Benchmark
+    public PageResponse<TransactionDTO> of() {
+        return PageResponse.of(content, totalElements, page, 10);
+    }
+
+    @Benchmark
+    public PageResponse<TransactionDTO> ofCursor() {
+        return PageResponse.ofCursor(content, 10, false, "MTcwNDA2NzIwMDAwMDAwMDo0Mg");
+    }
+}
@@ -0,0 +1,107 @@
+package me.shenyi0828.benchmark;
+
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.store.impl.InMemoryTransactionStore;
+import me.shenyi0828.store.impl.OffHeapTransactionStore;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内两种存储的内存占用和 GC 开销，不是 JMH 基准：行数到千万级时 JMH 每次 fork 都要重新装载，太慢。
+ * 装载 N 行后 Full GC，打印堆上存活字节数和 direct 内存；再跑一段按 ID 查询 + 游标翻页的读负载，打印期间的 GC 次数和耗时。
+ * 用法: java -Xmx16g -XX:MaxDirectMemorySize=16g -cp target/benchmarks.jar me.shenyi0828.benchmark.StoreFootprint offheap 10000000 [秒]
+ *
+ * @author Yi
+ */
+public final class StoreFootprint {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int PAGE_SIZE = 10;
+
+    private StoreFootprint() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: StoreFootprint <memory|offheap> <rows> [workload-seconds]");
+            System.exit(1);
+        }
+        String engine = args[0];
+        int rows = Integer.parseInt(args[1]);
+        long workloadSeconds = args.length > 2 ? Long.parseLong(args[2]) : 30;
+
+        TransactionStore store = switch (engine) {
+            case "memory" -> new InMemoryTransactionStore();
+            case "offheap" -> new OffHeapTransactionStore();
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        };
+        System.out.printf("engine=%s rows=%d%n", engine, rows);
+        report("baseline", 0);
+
+        GcSnapshot beforeLoad = GcSnapshot.take();
+        long loadStart = System.nanoTime();
+        for (int i = 1; i <= rows; i++) {
+            store.insert(transactionPO(i));
+        }
+        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart);
+        GcSnapshot.take().printSince(beforeLoad, "load (" + loadMillis + " ms)");
+        report("loaded", rows);
+
+        GcSnapshot beforeWorkload = GcSnapshot.take();
+        long operations = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(workloadSeconds);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            TransactionPO transaction = store.findByTransactionId(
+                    BenchmarkFixtures.seededTransactionId(random.nextLong(1, rows + 1)));
+            store.findByAccountNumberByCursor(transaction.getAccountNumber(), transaction.getCreatedAt(),
+                    transaction.getId(), PAGE_SIZE);
+            operations++;
+        }
+        GcSnapshot.take().printSince(beforeWorkload, "workload (" + operations + " lookups + pages)");
+    }
+
+    // 账户分散到 ACCOUNTS 个，和线上一样每个账户的交易按时间交错
+    private static TransactionPO transactionPO(long id) {
+        TransactionPO transaction = BenchmarkFixtures.transactionPO(id);
+        transaction.setId(null);
+        transaction.setAccountNumber("622202" + String.format("%010d", id % ACCOUNTS));
+        return transaction;
+    }
+
+    private static void report(String phase, int rows) {
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long direct = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                direct = pool.getMemoryUsed();
+            }
+        }
+        System.out.printf("%-10s heap after GC %,d MB, direct %,d MB%s%n", phase, heap >> 20, direct >> 20,
+                rows > 0 ? String.format(", %.1f B/row total", (double) (heap + direct) / rows) : "");
+    }
+
+    private record GcSnapshot(long count, long millis) {
+
+        static GcSnapshot take() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, collector.getCollectionCount());
+                millis += Math.max(0, collector.getCollectionTime());
+            }
+            return new GcSnapshot(count, millis);
+        }
+
+        void printSince(GcSnapshot before, String phase) {
+            System.out.printf("%-10s GC %d collections, %d ms total%n", phase, count - before.count,
+                    millis - before.millis);
+        }
+    }
+}
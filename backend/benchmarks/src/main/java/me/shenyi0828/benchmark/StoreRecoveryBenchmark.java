@@ -0,0 +1,149 @@
+package me.shenyi0828.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.mapper.TransactionDataMapper;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.store.impl.DurableTransactionStore;
+import me.shenyi0828.store.impl.InMemoryTransactionStore;
+import me.shenyi0828.store.impl.InProcessTransactionStore;
+import me.shenyi0828.store.impl.MybatisTransactionStore;
+import me.shenyi0828.store.impl.OffHeapTransactionStore;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 启动耗时随行数的变化：从快照 + 日志恢复（recoverFromDisk）vs 现在每次启动的做法，
+ * 建 H2 表、SQL 插入全部行、再装载进进程内存储（loadFromDatabase）。
+ * setUp 先写好一个 rows 行的快照，再追加 TAIL_ROWS 行已提交的日志，恢复时两部分都要读。
+ * 行数到千万时要加大内存: ./run.sh StoreRecoveryBenchmark -jvmArgs "-Xmx24g -XX:MaxDirectMemorySize=8g"
+ *
+ * @author Yi
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreRecoveryBenchmark {
+
+    private static final int TAIL_ROWS = 10_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"memory", "offheap"})
+    public String engine;
+
+    private Path directory;
+    private DurableTransactionStore recovered;
+    private HikariDataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("store-recovery");
+        DurableTransactionStore store = durableStore();
+        store.open(new InMemoryTransactionStore());
+        long id = 0;
+        while (id < rows) {
+            int size = (int) Math.min(LOAD_BATCH_SIZE, rows - id);
+            store.insertBatch(batch(id, size));
+            id += size;
+        }
+        store.snapshot();
+        // 快照之后的写入留在日志里，不关闭，相当于进程被杀
+        for (int i = 0; i < TAIL_ROWS; i += BATCH_SIZE) {
+            store.insertBatch(batch(id, BATCH_SIZE));
+            id += BATCH_SIZE;
+        }
+        System.gc();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeIteration() throws IOException {
+        if (recovered != null) {
+            recovered.close();
+            recovered = null;
+        }
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+        System.gc();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public TransactionStore recoverFromDisk() throws IOException {
+        recovered = durableStore();
+        recovered.open(new InMemoryTransactionStore());
+        return recovered;
+    }
+
+    @Benchmark
+    public TransactionStore loadFromDatabase() throws Exception {
+        dataSource = BenchmarkFixtures.h2DataSource("recovery_" + System.nanoTime(), rows + TAIL_ROWS);
+        SqlSessionFactory sqlSessionFactory = BenchmarkFixtures.sqlSessionFactory(dataSource);
+        TransactionStore database = new MybatisTransactionStore(
+                new SqlSessionTemplate(sqlSessionFactory).getMapper(TransactionDataMapper.class), sqlSessionFactory);
+        InProcessTransactionStore store = engineStore();
+        store.load(database);
+        return store;
+    }
+
+    private DurableTransactionStore durableStore() {
+        return new DurableTransactionStore(engineStore(), directory, new SimpleMeterRegistry());
+    }
+
+    private InProcessTransactionStore engineStore() {
+        return switch (engine) {
+            case "memory" -> new InMemoryTransactionStore();
+            case "offheap" -> new OffHeapTransactionStore();
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        };
+    }
+
+    private static List<TransactionPO> batch(long after, int size) {
+        List<TransactionPO> transactions = new ArrayList<>(size);
+        for (long i = after + 1; i <= after + size; i++) {
+            TransactionPO transaction = BenchmarkFixtures.transactionPO(i);
+            transaction.setId(null);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
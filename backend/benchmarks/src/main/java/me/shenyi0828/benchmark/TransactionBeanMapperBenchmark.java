@@ -0,0 +1,55 @@
+package me.shenyi0828.benchmark;
+
+import me.shenyi0828.mapper.TransactionBeanMapper;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionPO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PO 转 DTO（MapStruct 生成的代码）
+ *
+ * @author Yi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionBeanMapperBenchmark {
+
+    @Param({"10", "100"})
+    public int listSize;
+
+    private TransactionPO transactionPO;
+    private List<TransactionPO> transactionPOs;
+
+    @Setup
+    public void setUp() {
+        transactionPO = BenchmarkFixtures.transactionPO(1);
+        transactionPOs = BenchmarkFixtures.transactionPOs(listSize);
+    }
+
+    @Benchmark
+    public TransactionDTO poToDto() {
+        return TransactionBeanMapper.INSTANCE.poToDto(transactionPO);
+    }
+
+    @Benchmark
+    public List<TransactionDTO> poListToDtoList() {
+        return TransactionBeanMapper.INSTANCE.poListToDtoList(transactionPOs);
+    }
+}
@@ -0,0 +1,189 @@
+package me.shenyi0828.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.config.MybatisMetricsInterceptor;
+import me.shenyi0828.mapper.AccountSummaryMapper;
+import me.shenyi0828.mapper.DailyRollupMapper;
+import me.shenyi0828.mapper.TransactionCounterMapper;
+import me.shenyi0828.mapper.TransactionDataMapper;
+import me.shenyi0828.model.TransactionBatchItemResult;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.service.CacheService;
+import me.shenyi0828.service.impl.AccountSummaryServiceImpl;
+import me.shenyi0828.service.impl.BatchingCacheInvalidationPipeline;
+import me.shenyi0828.service.impl.BloomTransactionIdFilter;
+import me.shenyi0828.service.impl.DailyRollupServiceImpl;
+import me.shenyi0828.service.impl.LocalCacheEvictionBus;
+import me.shenyi0828.service.impl.TransactionCountServiceImpl;
+import me.shenyi0828.service.impl.SnowflakeTransactionIdGenerator;
+import me.shenyi0828.service.impl.TransactionServiceImpl;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.store.impl.InMemoryTransactionStore;
+import me.shenyi0828.store.impl.MybatisTransactionStore;
+import me.shenyi0828.store.impl.OffHeapTransactionStore;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionServiceImpl 读写路径，缓存一律未命中（缓存开销见 CacheSerializationBenchmark）。
+ * engine=mybatis 时交易表在内存 H2 上经 MyBatis 读写；engine=memory / offheap 时换成 InMemoryTransactionStore /
+ * OffHeapTransactionStore（从同一个 H2 装载），
+ * 账户汇总和计数两种情况都在 H2 上，差值就是 JDBC + SQL + 结果映射的开销。
+ * 写操作包在 TransactionTemplate 里，和线上 @Transactional 一样会注册提交后的缓存失效回调。
+ * mapper 语句和线上一样经过 MybatisMetricsInterceptor；engine=mybatis 时 setUp 用它数出一次 createTransaction
+ * 在交易表上执行的语句数并打印（改成单条 INSERT 之前是查重、INSERT、读回 3 条）
+ *
+ * @author Yi
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"mybatis", "memory", "offheap"})
+    public String engine;
+
+    private HikariDataSource dataSource;
+    private ValidatorFactory validatorFactory;
+    private BatchingCacheInvalidationPipeline cacheInvalidationPipeline;
+    private TransactionServiceImpl transactionService;
+    private TransactionTemplate transactionTemplate;
+    private TransactionEditRequest createRequest;
+    private List<TransactionEditRequest> batchRequests;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = BenchmarkFixtures.h2DataSource("benchmark_" + System.nanoTime(), rows);
+        SqlSessionFactory sqlSessionFactory = BenchmarkFixtures.sqlSessionFactory(dataSource);
+        SimpleMeterRegistry statementRegistry = new SimpleMeterRegistry();
+        sqlSessionFactory.getConfiguration().addInterceptor(new MybatisMetricsInterceptor(statementRegistry));
+        SqlSessionTemplate sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+        TransactionStore transactionStore = new MybatisTransactionStore(
+                sqlSessionTemplate.getMapper(TransactionDataMapper.class), sqlSessionFactory);
+        if ("memory".equals(engine)) {
+            InMemoryTransactionStore inMemoryTransactionStore = new InMemoryTransactionStore();
+            inMemoryTransactionStore.load(transactionStore);
+            transactionStore = inMemoryTransactionStore;
+        } else if ("offheap".equals(engine)) {
+            OffHeapTransactionStore offHeapTransactionStore = new OffHeapTransactionStore();
+            offHeapTransactionStore.load(transactionStore);
+            transactionStore = offHeapTransactionStore;
+        }
+        CacheService cacheService = BenchmarkFixtures.missingCacheService();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BloomTransactionIdFilter transactionIdFilter = new BloomTransactionIdFilter(transactionStore,
+                new CacheProperties(), new LocalCacheEvictionBus(), meterRegistry);
+        transactionIdFilter.rebuild();
+        cacheInvalidationPipeline = new BatchingCacheInvalidationPipeline(cacheService, new CacheProperties(),
+                meterRegistry);
+
+        transactionService = new TransactionServiceImpl(transactionStore, cacheService,
+                validatorFactory.getValidator(), new SnowflakeTransactionIdGenerator(0),
+                new AccountSummaryServiceImpl(sqlSessionTemplate.getMapper(AccountSummaryMapper.class), cacheService),
+                new DailyRollupServiceImpl(sqlSessionTemplate.getMapper(DailyRollupMapper.class), cacheService),
+                transactionIdFilter,
+                new TransactionCountServiceImpl(sqlSessionTemplate.getMapper(TransactionCounterMapper.class),
+                        transactionStore, cacheInvalidationPipeline, meterRegistry),
+                cacheInvalidationPipeline);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        createRequest = BenchmarkFixtures.createRequest();
+        batchRequests = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchRequests.add(BenchmarkFixtures.createRequest());
+        }
+
+        if ("mybatis".equals(engine)) {
+            long before = transactionStatements(statementRegistry);
+            createTransaction();
+            System.out.printf("%nStatements on the transactions table per createTransaction: %d%n",
+                    transactionStatements(statementRegistry) - before);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        cacheInvalidationPipeline.shutdown();
+        validatorFactory.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public TransactionDTO getTransactionById() {
+        long n = ThreadLocalRandom.current().nextLong(1, rows + 1);
+        return transactionService.getTransactionById(BenchmarkFixtures.seededTransactionId(n));
+    }
+
+    @Benchmark
+    public PageResponse<TransactionDTO> getAllTransactionsFirstPage() {
+        return transactionService.getAllTransactions(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageResponse<TransactionDTO> getAllTransactionsDeepPage() {
+        return transactionService.getAllTransactions(rows / PAGE_SIZE / 2, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageResponse<TransactionDTO> getTransactionsByCursorFirstPage() {
+        return transactionService.getTransactionsByCursor("", PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionDTO createTransaction() {
+        return transactionTemplate.execute(status -> transactionService.createTransaction(createRequest));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TransactionBatchItemResult> createTransactionsBatch() {
+        return transactionTemplate.execute(status -> transactionService.createTransactions(batchRequests));
+    }
+
+    private static long transactionStatements(SimpleMeterRegistry statementRegistry) {
+        long count = 0;
+        for (Timer timer : statementRegistry.find("transaction.mapper").timers()) {
+            if (timer.getId().getTag("statement").startsWith("TransactionDataMapper.")) {
+                count += timer.count();
+            }
+        }
+        return count;
+    }
+}
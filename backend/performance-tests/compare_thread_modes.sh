@@ -0,0 +1,138 @@
+#!/bin/bash
+
+# 平台线程 vs 虚拟线程对比测试
+# 同一个 jar、同一个 JDK（21+）各启动一次，只切换 virtual-threads profile，
+# 依次跑 README 里的 ab 场景，汇总吞吐量和 p99 到 results/thread-modes-<时间>.md
+#
+# 用法：
+#   (cd .. && mvn -B package -DskipTests)
+#   JAVA_BIN=/path/to/jdk21/bin/java ./compare_thread_modes.sh
+# 需要本机 Redis 已启动
+
+set -euo pipefail
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+JAR="${JAR:-$(ls "$SCRIPT_DIR"/../target/*-exec.jar 2>/dev/null | head -1)}"
+JAVA_BIN="${JAVA_BIN:-java}"
+PORT="${PORT:-8080}"
+TRANSACTION_ID="${TRANSACTION_ID:-TXN202501140001}"
+# ab 并发档位，并发越高两种模式的差别越明显
+CONCURRENCY_LEVELS="${CONCURRENCY_LEVELS:-50 200 1000}"
+REQUESTS="${REQUESTS:-20000}"
+# 额外的启动参数，例如 --transaction.cache.eviction-bus=local
+APP_ARGS="${APP_ARGS:-}"
+
+BASE_URL="http://localhost:$PORT/api/transactions"
+
+if [ -z "$JAR" ] || [ ! -f "$JAR" ]; then
+    echo "错误: 找不到可执行 jar，请先在 backend 目录执行 mvn -B package -DskipTests"
+    exit 1
+fi
+
+java_major=$("$JAVA_BIN" -version 2>&1 | head -1 | sed -E 's/.*version "([0-9]+).*/\1/')
+if [ "$java_major" -lt 21 ]; then
+    echo "错误: 虚拟线程需要 JDK 21+，当前 $JAVA_BIN 是 $java_major"
+    exit 1
+fi
+
+cd "$SCRIPT_DIR"
+mkdir -p results
+timestamp=$(date +%Y%m%d-%H%M%S)
+report="results/thread-modes-$timestamp.md"
+app_pid=""
+
+stop_app() {
+    if [ -n "$app_pid" ] && kill -0 "$app_pid" 2>/dev/null; then
+        kill "$app_pid"
+        wait "$app_pid" 2>/dev/null || true
+    fi
+    app_pid=""
+}
+trap stop_app EXIT
+
+start_app() {
+    local mode=$1
+    local profiles="dev"
+    if [ "$mode" = "virtual" ]; then
+        profiles="dev,virtual-threads"
+    fi
+
+    echo "启动服务 ($mode, profiles=$profiles)..."
+    # shellcheck disable=SC2086
+    "$JAVA_BIN" -Djdk.tracePinnedThreads=short -jar "$JAR" \
+        --server.port="$PORT" --spring.profiles.active="$profiles" \
+        --logging.level.me.shenyi0828=INFO --logging.level.org.springframework.web=INFO \
+        --logging.level.org.mybatis=INFO $APP_ARGS \
+        > "results/app-$mode-$timestamp.log" 2>&1 &
+    app_pid=$!
+
+    for _ in $(seq 1 60); do
+        if curl -sf "http://localhost:$PORT/api/actuator/health" > /dev/null; then
+            echo "服务已就绪"
+            return 0
+        fi
+        sleep 1
+    done
+    echo "错误: 服务 60 秒内未就绪，见 results/app-$mode-$timestamp.log"
+    exit 1
+}
+
+# 从 ab 输出中取吞吐量、p99、失败数
+summarize() {
+    local file=$1
+    local rps p99 failed
+    rps=$(grep "Requests per second" "$file" | awk '{print $4}')
+    p99=$(grep -E "^ +99%" "$file" | awk '{print $2}')
+    failed=$(grep "Failed requests" "$file" | awk '{print $3}')
+    echo "${rps:-n/a} | ${p99:-n/a} | ${failed:-n/a}"
+}
+
+run_mode() {
+    local mode=$1
+    start_app "$mode"
+
+    # 预热，让 JIT 和两级缓存进入稳定状态
+    ab -q -n 2000 -c 20 "$BASE_URL?page=0&size=10" > /dev/null 2>&1 || true
+
+    for c in $CONCURRENCY_LEVELS; do
+        local list_out="results/ab-$mode-list-c$c-$timestamp.txt"
+        local single_out="results/ab-$mode-single-c$c-$timestamp.txt"
+
+        echo "[$mode] 分页查询 -n $REQUESTS -c $c"
+        ab -q -r -s 30 -n "$REQUESTS" -c "$c" "$BASE_URL?page=0&size=10" > "$list_out" 2>&1 || true
+        echo "| $mode | 分页查询 | $c | $(summarize "$list_out") |" >> "$report"
+
+        echo "[$mode] 单个交易查询 -n $REQUESTS -c $c"
+        ab -q -r -s 30 -n "$REQUESTS" -c "$c" "$BASE_URL/$TRANSACTION_ID" > "$single_out" 2>&1 || true
+        echo "| $mode | 单个交易查询 | $c | $(summarize "$single_out") |" >> "$report"
+    done
+
+    echo "[$mode] 混合负载 80% 读 + 20% 写"
+    BASE_URL="$BASE_URL" ./mixed_load_test.sh > "results/mixed-$mode-$timestamp.txt" 2>&1 || true
+    cp results/read_test_result.txt "results/mixed-read-$mode-$timestamp.txt"
+    echo "| $mode | 混合负载(读部分) | ${CONCURRENCY:-20} | $(summarize "results/mixed-read-$mode-$timestamp.txt") |" >> "$report"
+
+    stop_app
+}
+
+{
+    echo "# 平台线程 vs 虚拟线程"
+    echo ""
+    echo "- 时间: $(date '+%Y-%m-%d %H:%M:%S')"
+    echo "- JDK: $("$JAVA_BIN" -version 2>&1 | head -1)"
+    echo "- CPU: $(nproc 2>/dev/null || sysctl -n hw.ncpu)"
+    echo "- 每档请求数: $REQUESTS"
+    echo ""
+    echo "| 模式 | 场景 | 并发 | 吞吐量 (req/s) | p99 (ms) | 失败数 |"
+    echo "|------|------|------|----------------|----------|--------|"
+} > "$report"
+
+run_mode platform
+run_mode virtual
+
+echo ""
+echo "对比结果: $SCRIPT_DIR/$report"
+cat "$report"
+echo ""
+# 虚拟线程被 synchronized 钉住时 JVM 会打印栈，H2 内存库的语句执行是主要来源
+echo "钉住载体线程的次数 (virtual): $(grep -c "onPinned\|<== monitors" "results/app-virtual-$timestamp.log" || true)"
@@ -3,10 +3,10 @@
 # 混合负载测试脚本 - 80% 读 + 20% 写
 # 随机生成交易数据进行测试
 
-BASE_URL="http://localhost:8080/api/transactions"
+BASE_URL="${BASE_URL:-http://localhost:8080/api/transactions}"
 READ_REQUESTS=800
 WRITE_REQUESTS=200
-CONCURRENCY=20
+CONCURRENCY=${CONCURRENCY:-20}
 
 echo "开始混合负载测试 (80% 读 + 20% 写)"
 echo "读请求: $READ_REQUESTS, 写请求: $WRITE_REQUESTS, 并发数: $CONCURRENCY"
@@ -26,15 +26,17 @@ mkdir -p results
 
 # 生成随机交易数据的函数
 generate_random_transaction() {
-    local amount=$(echo "scale=2; $RANDOM / 100" | bc)
-    local types=("DEPOSIT" "WITHDRAWAL" "TRANSFER")
-    local type=${types[$RANDOM % ${#types[@]}]}
+    # 金额单位为分，类型 1=EXPENSE 2=INCOME
+    local amount=$((RANDOM + 1))
+    local type=$((RANDOM % 2 + 1))
     local description="Test transaction $(date +%s)$RANDOM"
     
     cat << EOF
 {
   "amount": $amount,
-  "transactionType": "$type",
+  "transactionType": $type,
+  "accountNumber": "ACC$((RANDOM % 1000))",
+  "counterpartyAccount": "ACC$((RANDOM % 1000))",
   "description": "$description"
 }
 EOF
@@ -67,7 +69,7 @@ for i in $(seq 1 $WRITE_REQUESTS); do
         echo "$transaction_data" | curl -s -X POST \
             -H "Content-Type: application/json" \
             -d @- \
-            "$BASE_URL" > /dev/null
+            "$BASE_URL/create" > /dev/null
     } &
 done
 
@@ -3,11 +3,13 @@ package me.shenyi0828;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 
 @SpringBootApplication
 @EnableTransactionManagement
+@EnableScheduling
 @MapperScan("me.shenyi0828.mapper")
 public class TransactionServiceApplication {
 
@@ -6,6 +6,7 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -14,17 +15,35 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Controller interface logging aspect
- * Logs request path, parameters, and execution time for all controller methods
+ * Logs request path, parameters, and execution time for all controller methods.
+ * Parameters are only rendered when the line is actually written; successes can be
+ * sampled with {@code transaction.log.sample-rate}, errors are always logged.
+ * Parameters are captured before the controller runs, so the line shows the request as received
  */
 @Aspect
 @Component
 @Slf4j
 public class ControllerLogAspect {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
+
+    // 1 = log every success, N = log roughly 1 in N successes
+    private final int sampleRate;
+
+    // Parameter names per method, resolved once
+    private final Map<Method, String[]> parameterNames = new ConcurrentHashMap<>();
+
+    public ControllerLogAspect(ObjectMapper objectMapper,
+                               @Value("${transaction.log.sample-rate:1}") int sampleRate) {
+        this.objectMapper = objectMapper;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
 
     /**
      * Around advice for all controller methods
@@ -32,97 +51,125 @@ public class ControllerLogAspect {
      */
     @Around("execution(* me.shenyi0828.controller.*.*(..))")
     public Object logControllerExecution(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
-        
-        // Get request information
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        HttpServletRequest request = attributes != null ? attributes.getRequest() : null;
-        
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        Object[] args = joinPoint.getArgs();
-        
-        // Prepare request info
-        String requestPath = request != null ? request.getRequestURI() : "unknown";
-        String httpMethod = request != null ? request.getMethod() : "unknown";
-        String queryString = request != null ? request.getQueryString() : null;
-        
-        // Prepare parameters info with parameter names
-        StringBuilder paramsInfo = new StringBuilder();
-        if (args != null && args.length > 0) {
-            String[] paramNames = getParameterNames(joinPoint);
-            for (int i = 0; i < args.length; i++) {
-                Object arg = args[i];
-                if (arg != null && !isServletObject(arg)) {
-                    if (paramsInfo.length() > 0) {
-                        paramsInfo.append(", ");
-                    }
-                    String paramName = (paramNames != null && i < paramNames.length) ? paramNames[i] : "param" + i;
-                    try {
-                        String paramJson = objectMapper.writeValueAsString(arg);
-                        paramsInfo.append(paramName).append(": ").append(paramJson);
-                    } catch (Exception e) {
-                        paramsInfo.append(paramName).append(": ").append(arg.toString());
-                    }
-                }
-            }
-        }
-        
+        long startTime = System.nanoTime();
+
+        // Decide sampling up front: a sampled call renders its parameters before the controller
+        // can mutate them; otherwise only the argument array is kept, rendered if an error is logged
+        boolean logSuccess = log.isInfoEnabled() && sampled();
+        Object[] args = logSuccess || log.isErrorEnabled() ? joinPoint.getArgs() : null;
+        String params = logSuccess ? renderParameters(joinPoint, args) : null;
+
         Object result;
         try {
             // Execute the method
             result = joinPoint.proceed();
-            
-            // Calculate execution time
-            long executionTime = System.currentTimeMillis() - startTime;
-            
-            // Log in single line - successful completion
-            String logMessage = String.format("[API] %s %s | Method: %s.%s | Params: {%s} | Query: %s | Time: %dms | Status: SUCCESS",
-                    httpMethod, requestPath, className, methodName, 
-                    paramsInfo.toString(), queryString != null ? queryString : "none", executionTime);
-            log.info(logMessage);
-            
         } catch (Exception e) {
-            // Calculate execution time for failed requests
-            long executionTime = System.currentTimeMillis() - startTime;
-            
-            // Log in single line - error
-            String logMessage = String.format("[API] %s %s | Method: %s.%s | Params: {%s} | Query: %s | Time: %dms | Status: ERROR | Error: %s",
-                    httpMethod, requestPath, className, methodName, 
-                    paramsInfo.toString(), queryString != null ? queryString : "none", executionTime, e.getMessage());
-            log.error(logMessage);
-            
+            // Log in single line - error, never sampled
+            if (log.isErrorEnabled()) {
+                long executionTime = (System.nanoTime() - startTime) / 1_000_000;
+                HttpServletRequest request = currentRequest();
+                log.error("[API] {} {} | Method: {}.{} | Params: {{}} | Query: {} | Time: {}ms | Status: ERROR | Error: {}",
+                        httpMethod(request), requestPath(request), className(joinPoint), joinPoint.getSignature().getName(),
+                        params != null ? params : renderParameters(joinPoint, args), queryString(request),
+                        executionTime, e.getMessage());
+            }
             throw e;
         }
-        
+
+        // Log in single line - successful completion
+        if (logSuccess) {
+            long executionTime = (System.nanoTime() - startTime) / 1_000_000;
+            HttpServletRequest request = currentRequest();
+            log.info("[API] {} {} | Method: {}.{} | Params: {{}} | Query: {} | Time: {}ms | Status: SUCCESS",
+                    httpMethod(request), requestPath(request), className(joinPoint), joinPoint.getSignature().getName(),
+                    params, queryString(request), executionTime);
+        }
+
         return result;
     }
-    
+
+    private boolean sampled() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? attributes.getRequest() : null;
+    }
+
+    private static String httpMethod(HttpServletRequest request) {
+        return request != null ? request.getMethod() : "unknown";
+    }
+
+    private static String requestPath(HttpServletRequest request) {
+        return request != null ? request.getRequestURI() : "unknown";
+    }
+
+    private static String queryString(HttpServletRequest request) {
+        String queryString = request != null ? request.getQueryString() : null;
+        return queryString != null ? queryString : "none";
+    }
+
+    private static String className(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getTarget().getClass().getSimpleName();
+    }
+
+    /**
+     * Render parameters with their names as JSON, skipping servlet objects
+     */
+    private String renderParameters(ProceedingJoinPoint joinPoint, Object[] args) {
+        if (args == null || args.length == 0) {
+            return "";
+        }
+
+        String[] paramNames = getParameterNames(joinPoint);
+        StringBuilder paramsInfo = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg != null && !isServletObject(arg)) {
+                if (paramsInfo.length() > 0) {
+                    paramsInfo.append(", ");
+                }
+                String paramName = (paramNames != null && i < paramNames.length) ? paramNames[i] : "param" + i;
+                try {
+                    String paramJson = objectMapper.writeValueAsString(arg);
+                    paramsInfo.append(paramName).append(": ").append(paramJson);
+                } catch (Exception e) {
+                    paramsInfo.append(paramName).append(": ").append(arg);
+                }
+            }
+        }
+        return paramsInfo.toString();
+    }
+
     /**
      * Check if the object is a servlet-related object that should not be logged
      */
     private boolean isServletObject(Object obj) {
-        return obj instanceof HttpServletRequest || 
+        return obj instanceof HttpServletRequest ||
                obj instanceof HttpServletResponse ||
                obj.getClass().getName().startsWith("org.springframework.web");
     }
-    
+
     /**
-     * Get parameter names from method signature
+     * Get parameter names from method signature, cached per method
      */
     private String[] getParameterNames(ProceedingJoinPoint joinPoint) {
         try {
             MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            Method method = signature.getMethod();
-            Parameter[] parameters = method.getParameters();
-            String[] paramNames = new String[parameters.length];
-            for (int i = 0; i < parameters.length; i++) {
-                paramNames[i] = parameters[i].getName();
-            }
-            return paramNames;
+            return parameterNames.computeIfAbsent(signature.getMethod(), ControllerLogAspect::resolveParameterNames);
         } catch (Exception e) {
             log.debug("Failed to get parameter names: {}", e.getMessage());
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private static String[] resolveParameterNames(Method method) {
+        Parameter[] parameters = method.getParameters();
+        String[] paramNames = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            paramNames[i] = parameters[i].getName();
+        }
+        return paramNames;
+    }
+}
@@ -0,0 +1,251 @@
+package me.shenyi0828.common;
+
+import me.shenyi0828.model.TransactionDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * TransactionDTO 的紧凑二进制编码，手写固定字段顺序，没有字段名和文本数字
+ * v1 布局：头部（'B'，1），2 字节 null 位图（第 i 位为 1 表示第 i 个字段有值），然后按下面顺序只写有值的字段：
+ * <pre>
+ * 0 id                  无符号变长整数
+ * 1 transactionId       变长长度 + UTF-8
+ * 2 amount              zigzag 变长整数
+ * 3 transactionType     1 字节
+ * 4 accountNumber       变长长度 + UTF-8
+ * 5 counterpartyAccount 变长长度 + UTF-8
+ * 6 description         变长长度 + UTF-8
+ * 7 createdAt           epoch 秒（UTC，zigzag 变长）+ 纳秒（无符号变长）
+ * 8 updatedAt           同上
+ * </pre>
+ * 字段有增删或编码方式变化时必须升版本号，旧版本的值会被当作未命中
+ */
+public class BinaryTransactionCodec implements CacheCodec<TransactionDTO> {
+
+    static final byte FORMAT = 'B';
+    static final byte VERSION = 1;
+
+    private static final int ID = 0;
+    private static final int TRANSACTION_ID = 1;
+    private static final int AMOUNT = 2;
+    private static final int TRANSACTION_TYPE = 3;
+    private static final int ACCOUNT_NUMBER = 4;
+    private static final int COUNTERPARTY_ACCOUNT = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int CREATED_AT = 7;
+    private static final int UPDATED_AT = 8;
+
+    @Override
+    public byte[] encode(TransactionDTO value) {
+        byte[] transactionId = utf8(value.getTransactionId());
+        byte[] accountNumber = utf8(value.getAccountNumber());
+        byte[] counterpartyAccount = utf8(value.getCounterpartyAccount());
+        byte[] description = utf8(value.getDescription());
+
+        int presence = 0;
+        presence |= bit(ID, value.getId() != null);
+        presence |= bit(TRANSACTION_ID, transactionId != null);
+        presence |= bit(AMOUNT, value.getAmount() != null);
+        presence |= bit(TRANSACTION_TYPE, value.getTransactionType() != null);
+        presence |= bit(ACCOUNT_NUMBER, accountNumber != null);
+        presence |= bit(COUNTERPARTY_ACCOUNT, counterpartyAccount != null);
+        presence |= bit(DESCRIPTION, description != null);
+        presence |= bit(CREATED_AT, value.getCreatedAt() != null);
+        presence |= bit(UPDATED_AT, value.getUpdatedAt() != null);
+
+        // 变长整数最多 10 字节，按上限预留，最后截掉多余部分
+        Output out = new Output(HEADER_LENGTH + 2 + 10 + 5 + 1 + 4 * 5 + 2 * 15
+                + length(transactionId) + length(accountNumber) + length(counterpartyAccount) + length(description));
+        out.writeByte(FORMAT);
+        out.writeByte(VERSION);
+        out.writeByte(presence);
+        out.writeByte(presence >>> 8);
+
+        if (value.getId() != null) {
+            out.writeVarLong(value.getId());
+        }
+        out.writeBytes(transactionId);
+        if (value.getAmount() != null) {
+            out.writeVarLong(zigzag(value.getAmount()));
+        }
+        if (value.getTransactionType() != null) {
+            out.writeByte(value.getTransactionType());
+        }
+        out.writeBytes(accountNumber);
+        out.writeBytes(counterpartyAccount);
+        out.writeBytes(description);
+        out.writeDateTime(value.getCreatedAt());
+        out.writeDateTime(value.getUpdatedAt());
+        return out.toByteArray();
+    }
+
+    @Override
+    public TransactionDTO decode(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH || bytes[0] != FORMAT || bytes[1] != VERSION) {
+            return null;
+        }
+        try {
+            Input in = new Input(bytes, HEADER_LENGTH);
+            int presence = in.readByte() | in.readByte() << 8;
+
+            TransactionDTO value = new TransactionDTO();
+            if (has(presence, ID)) {
+                value.setId(in.readVarLong());
+            }
+            if (has(presence, TRANSACTION_ID)) {
+                value.setTransactionId(in.readString());
+            }
+            if (has(presence, AMOUNT)) {
+                value.setAmount((int) unzigzag(in.readVarLong()));
+            }
+            if (has(presence, TRANSACTION_TYPE)) {
+                value.setTransactionType((byte) in.readByte());
+            }
+            if (has(presence, ACCOUNT_NUMBER)) {
+                value.setAccountNumber(in.readString());
+            }
+            if (has(presence, COUNTERPARTY_ACCOUNT)) {
+                value.setCounterpartyAccount(in.readString());
+            }
+            if (has(presence, DESCRIPTION)) {
+                value.setDescription(in.readString());
+            }
+            if (has(presence, CREATED_AT)) {
+                value.setCreatedAt(in.readDateTime());
+            }
+            if (has(presence, UPDATED_AT)) {
+                value.setUpdatedAt(in.readDateTime());
+            }
+            if (in.remaining() != 0) {
+                throw new IllegalArgumentException(in.remaining() + " trailing bytes");
+            }
+            return value;
+        } catch (ArrayIndexOutOfBoundsException | DateTimeException e) {
+            throw new IllegalArgumentException("Corrupt binary cache value: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    private static int bit(int field, boolean present) {
+        return present ? 1 << field : 0;
+    }
+
+    private static boolean has(int presence, int field) {
+        return (presence & 1 << field) != 0;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+
+        private final byte[] buffer;
+        private int position;
+
+        private Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        private void writeByte(int value) {
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        // null 不写，是否有值由位图表示
+        private void writeBytes(byte[] bytes) {
+            if (bytes == null) {
+                return;
+            }
+            writeVarLong(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeDateTime(LocalDateTime value) {
+            if (value == null) {
+                return;
+            }
+            writeVarLong(zigzag(value.toEpochSecond(ZoneOffset.UTC)));
+            writeVarLong(value.getNano());
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        private Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable-length integer");
+        }
+
+        private String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > remaining()) {
+                throw new IllegalArgumentException("Invalid string length " + length);
+            }
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        private LocalDateTime readDateTime() {
+            long epochSecond = unzigzag(readVarLong());
+            int nano = (int) readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+
+        private int remaining() {
+            return buffer.length - position;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package me.shenyi0828.common;
+
+/**
+ * 缓存值的编解码
+ * 每个值以 2 字节头开始：格式标识 + 版本号。读到别的格式或别的版本（切换编码、升级格式、旧版本写入的 JSON 字符串）
+ * 时 decode 返回 null，调用方当作未命中，重新查库后用当前格式覆盖，所以新旧实例可以同时在线
+ *
+ * @param <T> 值类型
+ */
+public interface CacheCodec<T> {
+
+    // 头部长度：格式 1 字节 + 版本 1 字节
+    int HEADER_LENGTH = 2;
+
+    /**
+     * 编码，结果带头部
+     */
+    byte[] encode(T value);
+
+    /**
+     * 解码
+     *
+     * @return 头部不是本编码的格式和版本时返回 null
+     * @throws IllegalArgumentException 头部匹配但内容损坏
+     */
+    T decode(byte[] bytes);
+
+    /**
+     * 用于配置和监控的名字
+     */
+    String name();
+}
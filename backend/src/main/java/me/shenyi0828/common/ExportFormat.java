@@ -0,0 +1,43 @@
+package me.shenyi0828.common;
+
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+
+import java.util.Locale;
+
+/**
+ * 导出格式
+ */
+public enum ExportFormat {
+
+    // 每行一个 JSON 对象
+    NDJSON("application/x-ndjson", "ndjson"),
+    // 带表头的 CSV
+    CSV("text/csv", "csv"),
+    ;
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // 按参数解析格式，不认识的按参数错误处理
+    public static ExportFormat of(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Unsupported export format: " + format);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package me.shenyi0828.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * JSON 编码，头部之后是 UTF-8 的 JSON，保留给需要在 redis-cli 里直接看值的场景
+ *
+ * @param <T> 值类型
+ */
+public class JsonCacheCodec<T> implements CacheCodec<T> {
+
+    static final byte FORMAT = 'J';
+    static final byte VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+
+    public JsonCacheCodec(ObjectMapper objectMapper, Class<T> type) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] bytes = new byte[HEADER_LENGTH + json.length];
+            bytes[0] = FORMAT;
+            bytes[1] = VERSION;
+            System.arraycopy(json, 0, bytes, HEADER_LENGTH, json.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH || bytes[0] != FORMAT || bytes[1] != VERSION) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt JSON cache value: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+}
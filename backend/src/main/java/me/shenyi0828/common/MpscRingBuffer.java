@@ -0,0 +1,98 @@
+package me.shenyi0828.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 有界无锁环形队列，多生产者单消费者
+ * 生产者 CAS 抢占 tail 上的一个序号再写入槽位，满了直接返回 false 不阻塞；
+ * 唯一的消费者按序号顺序取，遇到已抢占但还没写入的槽位就停下，下次再取，保证不乱序。
+ * 容量向上取整到 2 的幂，下标用位与计算
+ *
+ * @param <E> 元素类型
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    // 下一个要写入的序号，生产者 CAS 推进
+    private final AtomicLong tail = new AtomicLong();
+    // 下一个要读取的序号，只有消费者写
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 放入一个元素，可以多线程并发调用
+     *
+     * @return 队列满时返回 false
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long sequence;
+        do {
+            sequence = tail.get();
+            // head 读旧了只会更早判满，不会覆盖没被取走的槽位
+            if (sequence - head.get() >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.set(index(sequence), element);
+        return true;
+    }
+
+    /**
+     * 按放入顺序取出最多 limit 个元素，只能由一个线程调用
+     *
+     * @return 实际取出的个数
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        long sequence = head.get();
+        int drained = 0;
+        while (drained < limit) {
+            int index = index(sequence);
+            E element = slots.get(index);
+            if (element == null) {
+                // 空了，或者生产者抢到序号还没写进来
+                break;
+            }
+            slots.lazySet(index, null);
+            sequence++;
+            head.lazySet(sequence);
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    // 近似值，并发下只用于监控和判断是否为空
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, slots.length()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private int index(long sequence) {
+        return (int) sequence & mask;
+    }
+}
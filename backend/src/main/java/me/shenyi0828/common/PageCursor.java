@@ -0,0 +1,49 @@
+package me.shenyi0828.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * 游标分页的位置
+ * 按 (created_at, id) 定位上一页最后一条记录，对外序列化成不透明的 URL 安全字符串
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private final LocalDateTime createdAt; // 上一页最后一条的创建时间
+    private final Long id; // 上一页最后一条的主键
+
+    // 编码成游标字符串
+    public String encode() {
+        long epochMicros = createdAt.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + createdAt.getNano() / 1000;
+        String raw = epochMicros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 解析游标字符串，非法游标按参数错误处理
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            long epochMicros = Long.parseLong(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(epochMicros, MICROS_PER_SECOND),
+                    (int) Math.floorMod(epochMicros, MICROS_PER_SECOND) * 1000,
+                    ZoneOffset.UTC);
+            return new PageCursor(createdAt, id);
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "Invalid cursor: " + token);
+        }
+    }
+}
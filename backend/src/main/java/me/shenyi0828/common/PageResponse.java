@@ -26,6 +26,7 @@ public class PageResponse<T> {
     private Boolean last; // 是否末页
     private Boolean hasNext; // 是否有下一页
     private Boolean hasPrevious; // 是否有上一页
+    private String nextCursor; // 下一页游标（仅游标分页）
 
     // 创建分页响应
     public static <T> PageResponse<T> of(List<T> content, Long totalElements, Integer page, Integer size) {
@@ -50,6 +51,22 @@ public class PageResponse<T> {
                 .build();
     }
 
+    // 创建游标分页响应，不统计总数
+    public static <T> PageResponse<T> ofCursor(List<T> content, Integer size, boolean first, String nextCursor) {
+        boolean hasNext = nextCursor != null;
+
+        return PageResponse.<T>builder()
+                .content(content)
+                .size(size)
+                .numberOfElements(content.size())
+                .first(first)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .hasPrevious(!first)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     // 创建空分页响应
     public static <T> PageResponse<T> empty(Integer page, Integer size) {
         return PageResponse.<T>builder()
@@ -0,0 +1,97 @@
+package me.shenyi0828.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.shenyi0828.common.BinaryTransactionCodec;
+import me.shenyi0828.common.CacheCodec;
+import me.shenyi0828.common.JsonCacheCodec;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.service.CacheEvictionBus;
+import me.shenyi0828.service.impl.LocalCacheEvictionBus;
+import me.shenyi0828.service.impl.RedisCacheEvictionBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Two-tier cache configuration
+ *
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Listener container for cache eviction messages published by other instances
+     *
+     * Dispatches messages on virtual threads when spring.threads.virtual.enabled is set on Java 21+
+     *
+     * @param connectionFactory Redis connection factory
+     * @param environment environment used to detect virtual thread mode
+     * @return RedisMessageListenerContainer instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.cache.eviction-bus", havingValue = "redis", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheEvictionListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        Environment environment) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // 自建的 container 不会被 Boot 自动切换，这里手动换成虚拟线程
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("cache-evict-");
+            executor.setVirtualThreads(true);
+            container.setTaskExecutor(executor);
+        }
+        return container;
+    }
+
+    /**
+     * Eviction bus backed by Redis pub/sub
+     *
+     * @param stringRedisTemplate template used to publish
+     * @param cacheEvictionListenerContainer container used to subscribe
+     * @param cacheProperties cache settings
+     * @return CacheEvictionBus instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.cache.eviction-bus", havingValue = "redis", matchIfMissing = true)
+    public CacheEvictionBus redisCacheEvictionBus(StringRedisTemplate stringRedisTemplate,
+                                                  RedisMessageListenerContainer cacheEvictionListenerContainer,
+                                                  CacheProperties cacheProperties) {
+        return new RedisCacheEvictionBus(stringRedisTemplate, cacheEvictionListenerContainer,
+                cacheProperties.getEvictionChannel());
+    }
+
+    /**
+     * In-process eviction bus for single-instance deployments and tests
+     *
+     * @return CacheEvictionBus instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.cache.eviction-bus", havingValue = "local")
+    public CacheEvictionBus localCacheEvictionBus() {
+        return new LocalCacheEvictionBus();
+    }
+
+    /**
+     * Codec for transactions stored in Redis, chosen by transaction.cache.codec
+     *
+     * @param cacheProperties cache settings
+     * @param objectMapper mapper used by the json codec
+     * @return CacheCodec instance
+     */
+    @Bean
+    public CacheCodec<TransactionDTO> transactionCacheCodec(CacheProperties cacheProperties, ObjectMapper objectMapper) {
+        return switch (cacheProperties.getCodec()) {
+            case "binary" -> new BinaryTransactionCodec();
+            case "json" -> new JsonCacheCodec<>(objectMapper, TransactionDTO.class);
+            default -> throw new IllegalArgumentException("Unknown transaction.cache.codec: " + cacheProperties.getCodec());
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package me.shenyi0828.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cache settings bound from {@code transaction.cache.*}
+ *
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.cache")
+public class CacheProperties {
+
+    /**
+     * Bus used to broadcast evictions to other instances: redis, or local for a single JVM
+     */
+    private String evictionBus = "redis";
+
+    /**
+     * Redis pub/sub channel carrying evicted cache keys
+     */
+    private String evictionChannel = "transaction:cache:evict";
+
+    /**
+     * Encoding of transactions stored in Redis: binary (compact, default) or json (readable in redis-cli)
+     */
+    private String codec = "binary";
+
+    /**
+     * In-process near cache in front of Redis
+     */
+    private Local local = new Local();
+
+    /**
+     * Cached list pages
+     */
+    private Page page = new Page();
+
+    /**
+     * Cached daily rollup served to dashboards
+     */
+    private Rollup rollup = new Rollup();
+
+    /**
+     * Bloom filter of existing transaction IDs, answers lookups of unknown IDs without a query
+     */
+    private Bloom bloom = new Bloom();
+
+    /**
+     * Background pipeline that invalidates Redis after commits
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Local {
+
+        /**
+         * Maximum number of transactions kept in the near cache
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Time to live of a near cache entry, kept well below the Redis TTL
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Page {
+
+        /**
+         * Only pages below this number are cached, deep pages always go to the database
+         */
+        private int maxCachedPages = 5;
+
+        /**
+         * Time to live of a cached page, also bounds how long pages of old generations linger.
+         * Also used for the cached first page of each account
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Rollup {
+
+        /**
+         * Time to live of a cached date range. Writes bump the version instead of deleting,
+         * so this only bounds how long ranges of old versions linger
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Bloom {
+
+        /**
+         * Whether unknown IDs are filtered, when off every lookup goes to the database
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of IDs the filter is sized for, grown on rebuild when the table is larger
+         */
+        private long expectedInsertions = 1_000_000;
+
+        /**
+         * Target false positive probability at the expected number of IDs.
+         * Memory is about -ln(fpp) / (ln 2)^2 bits per ID, 1.2 bytes per ID at 0.01
+         */
+        private double fpp = 0.01;
+
+        /**
+         * How often the filter is rebuilt from the table, dropping deleted IDs
+         */
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+
+        /**
+         * Generated IDs younger than this at the start of the last rebuild may have been uncommitted during its scan,
+         * a filter miss for them is checked against the database
+         */
+        private Duration recentIdWindow = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Invalidation {
+
+        /**
+         * How long invalidations are collected before one batch is sent to Redis, duplicates within it are merged
+         */
+        private Duration window = Duration.ofMillis(10);
+
+        /**
+         * Maximum number of keys in one batch
+         */
+        private int maxBatchSize = 500;
+
+        /**
+         * Maximum number of queued invalidations, writers invalidate inline when the queue is full
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * First retry delay after a failed batch, doubled on each further failure
+         */
+        private Duration retryBackoff = Duration.ofMillis(50);
+
+        /**
+         * Longest time a committed write may still be read stale from Redis.
+         * A batch is retried until it gets this old, then dropped and left to the TTL
+         */
+        private Duration maxStaleness = Duration.ofSeconds(2);
+    }
+}
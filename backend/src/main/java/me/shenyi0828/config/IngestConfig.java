@@ -0,0 +1,39 @@
+package me.shenyi0828.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.shenyi0828.service.TransactionIdGenerator;
+import me.shenyi0828.service.TransactionIngestService;
+import me.shenyi0828.service.TransactionService;
+import me.shenyi0828.service.impl.WriteBehindTransactionIngestService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Write-behind ingestion configuration, only active with transaction.ingest.enabled=true
+ *
+ */
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+public class IngestConfig {
+
+    /**
+     * Ingestion buffer and its group-commit writer thread
+     *
+     * @param transactionService service used to write each batch in one database transaction
+     * @param transactionIdGenerator generator for requests without a transaction ID
+     * @param ingestProperties ingestion settings
+     * @param meterRegistry meter registry
+     * @return TransactionIngestService instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.ingest.enabled", havingValue = "true")
+    public TransactionIngestService transactionIngestService(TransactionService transactionService,
+                                                             TransactionIdGenerator transactionIdGenerator,
+                                                             IngestProperties ingestProperties,
+                                                             MeterRegistry meterRegistry) {
+        return new WriteBehindTransactionIngestService(transactionService, transactionIdGenerator,
+                ingestProperties, meterRegistry);
+    }
+}
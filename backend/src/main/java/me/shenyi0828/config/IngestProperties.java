@@ -0,0 +1,36 @@
+package me.shenyi0828.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Write-behind ingestion settings bound from {@code transaction.ingest.*}
+ *
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.ingest")
+public class IngestProperties {
+
+    /**
+     * Whether POST /transactions/ingest is available, off by default
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of accepted but not yet written transactions held in memory, rounded up to a power of two.
+     * Everything held here is lost if the process dies
+     */
+    private int capacity = 8192;
+
+    /**
+     * Maximum number of transactions written in one database transaction, at most 1000
+     */
+    private int flushSize = 500;
+
+    /**
+     * Longest time an accepted transaction waits before its batch is written
+     */
+    private Duration flushInterval = Duration.ofMillis(20);
+}
@@ -0,0 +1,38 @@
+package me.shenyi0828.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics configuration
+ * HTTP endpoints are timed by Spring Boot as {@code http.server.requests}, service methods through
+ * {@code @Timed}, mapper statements through {@link MybatisMetricsInterceptor}
+ *
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enables {@code @Timed} on Spring beans
+     *
+     * @param meterRegistry meter registry
+     * @return TimedAspect instance
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Times every MyBatis statement, picked up by the MyBatis auto-configuration
+     *
+     * @param meterRegistry meter registry
+     * @return MybatisMetricsInterceptor instance
+     */
+    @Bean
+    public MybatisMetricsInterceptor mybatisMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new MybatisMetricsInterceptor(meterRegistry);
+    }
+}
@@ -0,0 +1,81 @@
+package me.shenyi0828.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 给每条 mapper 语句计时，指标名 transaction.mapper，按语句（如 TransactionDataMapper.findByTransactionId）和结果打标签。
+ * BATCH executor 下 update 只是攒语句，真正执行在 flush，耗时不算在这里。
+ * Timer 按（语句、命令、结果）缓存，每次执行不再走 Timer.builder(...).register 的查找
+ *
+ * @author Yi
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})
+})
+public class MybatisMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public MybatisMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(timers.computeIfAbsent(
+                    new TimerKey(mappedStatement.getId(), mappedStatement.getSqlCommandType(), outcome), this::register));
+        }
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder("transaction.mapper")
+                .description("MyBatis statement execution time")
+                .tag("statement", statementName(key.statementId()))
+                .tag("command", key.command().name().toLowerCase(Locale.ROOT))
+                .tag("outcome", key.outcome())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * me.shenyi0828.mapper.TransactionDataMapper.insert -> TransactionDataMapper.insert
+     */
+    private static String statementName(String id) {
+        int methodDot = id.lastIndexOf('.');
+        int classDot = methodDot > 0 ? id.lastIndexOf('.', methodDot - 1) : -1;
+        return classDot >= 0 ? id.substring(classDot + 1) : id;
+    }
+
+    private record TimerKey(String statementId, SqlCommandType command, String outcome) {
+    }
+}
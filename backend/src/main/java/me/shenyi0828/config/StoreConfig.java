@@ -0,0 +1,127 @@
+package me.shenyi0828.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.shenyi0828.mapper.TransactionDataMapper;
+import me.shenyi0828.service.AccountSummaryService;
+import me.shenyi0828.service.DailyRollupService;
+import me.shenyi0828.service.TransactionCountService;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.store.impl.DurableTransactionStore;
+import me.shenyi0828.store.impl.InMemoryTransactionStore;
+import me.shenyi0828.store.impl.InProcessTransactionStore;
+import me.shenyi0828.store.impl.MybatisTransactionStore;
+import me.shenyi0828.store.impl.OffHeapTransactionStore;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Transaction storage engine configuration, chosen by transaction.store.engine
+ *
+ */
+@Configuration
+@EnableConfigurationProperties(StoreProperties.class)
+public class StoreConfig {
+
+    /**
+     * Transactions stored in the database through MyBatis (default)
+     *
+     * @param transactionDataMapper transaction mapper
+     * @param sqlSessionFactory factory for batch-executor sessions
+     * @return TransactionStore instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.store.engine", havingValue = "mybatis", matchIfMissing = true)
+    public TransactionStore mybatisTransactionStore(TransactionDataMapper transactionDataMapper,
+                                                    SqlSessionFactory sqlSessionFactory) {
+        return new MybatisTransactionStore(transactionDataMapper, sqlSessionFactory);
+    }
+
+    /**
+     * Transactions held only in process memory, loaded from the database or recovered from disk at startup
+     *
+     * @param transactionDataMapper transaction mapper used for the initial load
+     * @param sqlSessionFactory session factory, also orders this bean after the database initialization scripts
+     * @param storeProperties storage settings
+     * @param meterRegistry registry for the transaction log metrics
+     * @return TransactionStore instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.store.engine", havingValue = "memory")
+    public TransactionStore inMemoryTransactionStore(TransactionDataMapper transactionDataMapper,
+                                                     SqlSessionFactory sqlSessionFactory,
+                                                     StoreProperties storeProperties,
+                                                     MeterRegistry meterRegistry) throws IOException {
+        return open(new InMemoryTransactionStore(), new MybatisTransactionStore(transactionDataMapper, sqlSessionFactory),
+                storeProperties, meterRegistry);
+    }
+
+    /**
+     * Transactions held in off-heap columns, loaded from the database or recovered from disk at startup
+     *
+     * @param transactionDataMapper transaction mapper used for the initial load
+     * @param sqlSessionFactory session factory, also orders this bean after the database initialization scripts
+     * @param storeProperties storage settings
+     * @param meterRegistry registry for the off-heap size gauge and the transaction log metrics
+     * @return TransactionStore instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.store.engine", havingValue = "offheap")
+    public TransactionStore offHeapTransactionStore(TransactionDataMapper transactionDataMapper,
+                                                    SqlSessionFactory sqlSessionFactory,
+                                                    StoreProperties storeProperties,
+                                                    MeterRegistry meterRegistry) throws IOException {
+        OffHeapTransactionStore store = new OffHeapTransactionStore();
+        Gauge.builder("transaction.store.offheap", store, OffHeapTransactionStore::sizeInBytes)
+                .description("Direct memory allocated by the off-heap transaction store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        return open(store, new MybatisTransactionStore(transactionDataMapper, sqlSessionFactory),
+                storeProperties, meterRegistry);
+    }
+
+    /**
+     * Rebuild the account summaries, the daily rollup and the total count from the recovered transactions.
+     * Runs after all singletons are created and before the web server accepts requests
+     *
+     * @param transactionStore recovered transactions
+     * @param accountSummaryService account summary service
+     * @param dailyRollupService daily rollup service
+     * @param transactionCountService total count service
+     * @return initializer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transaction.store.durable.enabled", havingValue = "true")
+    public SmartInitializingSingleton derivedTablesRebuild(TransactionStore transactionStore,
+                                                           AccountSummaryService accountSummaryService,
+                                                           DailyRollupService dailyRollupService,
+                                                           TransactionCountService transactionCountService) {
+        return () -> {
+            // H2 重启后是 data.sql 的数据，和恢复出的交易对不上
+            accountSummaryService.rebuild(transactionStore);
+            dailyRollupService.rebuild(transactionStore);
+            transactionCountService.reconcile();
+        };
+    }
+
+    private static TransactionStore open(InProcessTransactionStore store, TransactionStore database,
+                                         StoreProperties storeProperties, MeterRegistry meterRegistry)
+            throws IOException {
+        StoreProperties.Durable durable = storeProperties.getDurable();
+        if (!durable.isEnabled()) {
+            store.load(database);
+            return store;
+        }
+        DurableTransactionStore durableStore = new DurableTransactionStore(store, Path.of(durable.getDirectory()),
+                meterRegistry);
+        durableStore.open(database);
+        return durableStore;
+    }
+}
@@ -0,0 +1,46 @@
+package me.shenyi0828.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Transaction storage settings bound from {@code transaction.store.*}
+ *
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.store")
+public class StoreProperties {
+
+    /**
+     * Storage engine of the transactions table: mybatis (default), memory or offheap
+     */
+    private String engine = "mybatis";
+
+    /**
+     * Write-ahead log and snapshots of the in-process engines
+     */
+    private Durable durable = new Durable();
+
+    @Data
+    public static class Durable {
+
+        /**
+         * Whether the memory and offheap engines survive restarts, off by default.
+         * Has no effect on the mybatis engine
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the log segments and snapshots
+         */
+        private String directory = "data";
+
+        /**
+         * Time between snapshots. Each snapshot starts a new log segment and deletes the older ones,
+         * so it also bounds how much log a restart replays. Writes pause while a snapshot is taken
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(30);
+    }
+}
@@ -0,0 +1,44 @@
+package me.shenyi0828.controller;
+
+import me.shenyi0828.common.ApiResponse;
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.model.AccountSummaryDTO;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.service.AccountSummaryService;
+import me.shenyi0828.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 账户控制器
+ */
+@RestController
+@RequestMapping("/accounts")
+@CrossOrigin(origins = "*")
+public class AccountController {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    // 查询账户最近的交易，游标分页（首页不传 cursor 或传空串）
+    @GetMapping("/{accountNumber}/transactions")
+    public ResponseEntity<ApiResponse<PageResponse<TransactionDTO>>> getAccountTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        PageResponse<TransactionDTO> pageResponse = transactionService.getAccountTransactions(accountNumber, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(pageResponse, "Transactions retrieved successfully"));
+    }
+
+    // 查询账户汇总（笔数、收入、支出、余额、最后活动时间），读一行，不扫流水
+    @GetMapping("/{accountNumber}/summary")
+    public ResponseEntity<ApiResponse<AccountSummaryDTO>> getAccountSummary(@PathVariable String accountNumber) {
+        AccountSummaryDTO summary = accountSummaryService.getAccountSummary(accountNumber);
+        return ResponseEntity.ok(ApiResponse.success(summary, "Account summary retrieved successfully"));
+    }
+}
@@ -0,0 +1,54 @@
+package me.shenyi0828.controller;
+
+import me.shenyi0828.common.ApiResponse;
+import me.shenyi0828.model.TransactionTotalsDTO;
+import me.shenyi0828.service.TransactionReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 报表控制器
+ */
+@RestController
+@RequestMapping("/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private TransactionReportService transactionReportService;
+
+    // 按天汇总收支，from/to 为创建日期（yyyy-MM-dd，含两端），默认最近 30 天
+    @GetMapping("/daily")
+    public ResponseEntity<ApiResponse<List<TransactionTotalsDTO>>> getDailyReport(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        List<TransactionTotalsDTO> report = transactionReportService.getDailyTotals(from, to);
+        return ResponseEntity.ok(ApiResponse.success(report, "Daily report retrieved successfully"));
+    }
+
+    // 按天汇总收支，读写操作维护的汇总表（缓存到下次写入），给轮询的看板用；参数和结果同 /daily
+    @GetMapping("/daily/rollup")
+    public ResponseEntity<ApiResponse<List<TransactionTotalsDTO>>> getDailyRollup(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        List<TransactionTotalsDTO> report = transactionReportService.getDailyRollup(from, to);
+        return ResponseEntity.ok(ApiResponse.success(report, "Daily rollup retrieved successfully"));
+    }
+
+    // 按账户汇总收支，日期范围同上
+    @GetMapping("/by-account")
+    public ResponseEntity<ApiResponse<List<TransactionTotalsDTO>>> getAccountReport(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        List<TransactionTotalsDTO> report = transactionReportService.getAccountTotals(from, to);
+        return ResponseEntity.ok(ApiResponse.success(report, "Account report retrieved successfully"));
+    }
+}
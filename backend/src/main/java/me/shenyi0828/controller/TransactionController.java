@@ -1,20 +1,27 @@
 package me.shenyi0828.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import me.shenyi0828.common.ApiResponse;
+import me.shenyi0828.common.ExportFormat;
 import me.shenyi0828.common.PageResponse;
 import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.model.TransactionBatchItemResult;
 import me.shenyi0828.model.TransactionDTO;
 import me.shenyi0828.model.TransactionEditRequest;
 import me.shenyi0828.model.TransactionDeleteRequest;
+import me.shenyi0828.service.TransactionExportService;
 import me.shenyi0828.service.TransactionService;
 import me.shenyi0828.validation.ValidationGroups;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * 交易控制器
@@ -27,16 +34,41 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
-    // 分页查询交易记录
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    // 分页查询交易记录，带 cursor 参数时走游标分页（首页传空串）
     @GetMapping
     public ResponseEntity<ApiResponse<PageResponse<TransactionDTO>>> getAllTransactions(
             @RequestParam(value = "page", defaultValue = "0") Integer page,
-            @RequestParam(value = "size", defaultValue = "10") Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         
-        PageResponse<TransactionDTO> pageResponse = transactionService.getAllTransactions(page, size);
+        PageResponse<TransactionDTO> pageResponse = cursor != null
+                ? transactionService.getTransactionsByCursor(cursor, size)
+                : transactionService.getAllTransactions(page, size);
         return ResponseEntity.ok(ApiResponse.success(pageResponse, "Transactions retrieved successfully"));
     }
 
+    // 按多个ID批量查询（ids=TXN1,TXN2），不存在的ID直接跳过
+    @GetMapping(params = "ids")
+    public ResponseEntity<ApiResponse<List<TransactionDTO>>> getTransactionsByIds(@RequestParam("ids") List<String> transactionIds) {
+        List<TransactionDTO> transactions = transactionService.getTransactionsByIds(transactionIds);
+        return ResponseEntity.ok(ApiResponse.success(transactions, "Transactions retrieved successfully"));
+    }
+
+    // 导出全部交易（format=ndjson|csv），边查边写到响应流，不经过 ApiResponse 包装
+    @GetMapping("/export")
+    public void exportTransactions(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                   HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"");
+        transactionExportService.exportTransactions(exportFormat, response.getOutputStream());
+    }
+
     // 根据ID查询交易
     @GetMapping("/{transactionId}")
     public ResponseEntity<ApiResponse<TransactionDTO>> getTransactionById(@PathVariable String transactionId) {
@@ -51,6 +83,13 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(createdTransaction, "Transaction created successfully"));
     }
 
+    // 批量创建交易，逐条返回结果（在 service 里按 Create 分组逐条校验）
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<TransactionBatchItemResult>>> createTransactions(@RequestBody List<TransactionEditRequest> transactionEditRequests) {
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(transactionEditRequests);
+        return ResponseEntity.ok(ApiResponse.success(results, "Batch processed"));
+    }
+
     // 更新交易
     @PostMapping("/update")
     public ResponseEntity<ApiResponse<TransactionDTO>> updateTransaction(@Validated(ValidationGroups.Update.class) @RequestBody TransactionEditRequest updateRequest) {
@@ -0,0 +1,39 @@
+package me.shenyi0828.controller;
+
+import me.shenyi0828.common.ApiResponse;
+import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.service.TransactionIngestService;
+import me.shenyi0828.validation.ValidationGroups;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 写后置入库控制器，transaction.ingest.enabled=true 时才有
+ */
+@RestController
+@RequestMapping("/transactions")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "transaction.ingest.enabled", havingValue = "true")
+public class TransactionIngestController {
+
+    @Autowired
+    private TransactionIngestService transactionIngestService;
+
+    // 受理交易，返回 202 和交易ID，稍后批量落库；队列满返回 429 和 Retry-After
+    @PostMapping("/ingest")
+    public ResponseEntity<ApiResponse<String>> ingestTransaction(@Validated(ValidationGroups.Create.class) @RequestBody TransactionEditRequest transactionEditRequest) {
+        String transactionId = transactionIngestService.submit(transactionEditRequest);
+        if (transactionId == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(transactionIngestService.retryAfterSeconds()))
+                    .body(ApiResponse.error(ErrorCode.INGEST_BUFFER_FULL.getCode(), ErrorCode.INGEST_BUFFER_FULL.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(transactionId, "Transaction accepted"));
+    }
+}
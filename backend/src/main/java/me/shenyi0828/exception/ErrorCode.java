@@ -20,6 +20,8 @@ public enum ErrorCode {
     TRANSACTION_UPDATE_FAILED(-104, "Failed to update transaction"),
     // 删除交易失败
     TRANSACTION_DELETE_FAILED(-105, "Failed to delete transaction"),
+    // 写后置队列已满，稍后重试
+    INGEST_BUFFER_FULL(-106, "Ingest buffer is full, retry later"),
     ;
 
     private final int code;
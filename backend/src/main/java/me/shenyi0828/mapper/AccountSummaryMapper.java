@@ -0,0 +1,43 @@
+package me.shenyi0828.mapper;
+
+import me.shenyi0828.model.AccountSummaryPO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * Account Summary Mapper
+ * MyBatis mapper interface for the per-account aggregate
+ */
+@Mapper
+public interface AccountSummaryMapper {
+
+    /**
+     * Add the deltas to the summary of one account, creating the row when it does not exist yet
+     * @param accountNumber account number
+     * @param countDelta change of the transaction count
+     * @param incomeDelta change of the income total in cents
+     * @param expenseDelta change of the expense total in cents
+     * @param activityAt time of the write, last activity only moves forward
+     * @return number of affected rows
+     */
+    int applyDelta(@Param("accountNumber") String accountNumber,
+                   @Param("countDelta") long countDelta,
+                   @Param("incomeDelta") long incomeDelta,
+                   @Param("expenseDelta") long expenseDelta,
+                   @Param("activityAt") LocalDateTime activityAt);
+
+    /**
+     * Delete every summary row, before rebuilding the table
+     * @return number of deleted rows
+     */
+    int deleteAll();
+
+    /**
+     * Select the summary of one account
+     * @param accountNumber account number
+     * @return summary or null if the account has never had a transaction
+     */
+    AccountSummaryPO findByAccountNumber(String accountNumber);
+}
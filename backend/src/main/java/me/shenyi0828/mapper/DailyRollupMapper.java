@@ -0,0 +1,43 @@
+package me.shenyi0828.mapper;
+
+import me.shenyi0828.model.TransactionTotalsPO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily Rollup Mapper
+ * MyBatis mapper interface for the striped per-day, per-type totals
+ */
+@Mapper
+public interface DailyRollupMapper {
+
+    /**
+     * Add deltas to one slot of a day and type, inserting the row on its first write
+     * @param day creation date of the transactions
+     * @param transactionType transaction type
+     * @param slot slot number
+     * @param countDelta transactions added (positive) or removed (negative)
+     * @param amountDelta amount added or removed, in cents
+     * @return number of affected rows
+     */
+    int applyDelta(@Param("day") LocalDate day, @Param("transactionType") byte transactionType,
+                   @Param("slot") int slot, @Param("countDelta") long countDelta,
+                   @Param("amountDelta") long amountDelta);
+
+    /**
+     * Sum the slots of every day in the range, income and expense side by side
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return one row per day that has transactions, oldest day first
+     */
+    List<TransactionTotalsPO> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Delete all rows
+     * @return number of affected rows
+     */
+    int deleteAll();
+}
@@ -0,0 +1,41 @@
+package me.shenyi0828.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * Transaction Counter Mapper
+ * MyBatis mapper interface for the striped total row count
+ */
+@Mapper
+public interface TransactionCounterMapper {
+
+    /**
+     * Add a delta to one slot
+     * @param slot slot number
+     * @param delta rows inserted (positive) or deleted (negative)
+     * @return number of affected rows, 0 when the slot does not exist
+     */
+    int addToSlot(@Param("slot") int slot, @Param("delta") long delta);
+
+    /**
+     * Sum all slots
+     * @return maintained total row count
+     */
+    Long sumSlots();
+
+    /**
+     * Lock every slot row until the end of the current transaction
+     * @return the locked slot numbers
+     */
+    List<Integer> lockSlots();
+
+    /**
+     * Overwrite the slots so that they add up to the given total
+     * @param total the total row count
+     * @return number of affected rows
+     */
+    int resetSlots(@Param("total") long total);
+}
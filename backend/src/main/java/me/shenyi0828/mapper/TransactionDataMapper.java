@@ -1,9 +1,13 @@
 package me.shenyi0828.mapper;
 
 import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.model.TransactionTotalsPO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,12 +18,20 @@ import java.util.List;
 public interface TransactionDataMapper {
 
     /**
-     * Insert a new transaction
+     * Insert a new transaction, timestamps must be set by the caller
+     * Fails with a duplicate key error when the transaction ID is already taken
      * @param transaction transaction to insert
      * @return number of affected rows
      */
     int insert(TransactionPO transaction);
 
+    /**
+     * Insert several transactions with one multi-row statement, timestamps must be set by the caller
+     * @param transactions transactions to insert
+     * @return number of affected rows
+     */
+    int insertBatch(@Param("transactions") List<TransactionPO> transactions);
+
     /**
      * Delete transaction by transaction ID
      * @param transactionId transaction ID
@@ -28,7 +40,7 @@ public interface TransactionDataMapper {
     int deleteByTransactionId(String transactionId);
 
     /**
-     * Update transaction by transaction ID
+     * Update transaction by transaction ID, updatedAt must be set by the caller
      * @param transaction transaction with updated data
      */
     int update(TransactionPO transaction);
@@ -40,6 +52,20 @@ public interface TransactionDataMapper {
      */
     TransactionPO findByTransactionId(String transactionId);
 
+    /**
+     * Select transaction by transaction ID with SELECT ... FOR UPDATE, the row stays locked until the transaction ends
+     * @param transactionId transaction ID
+     * @return transaction or null if not found
+     */
+    TransactionPO findByTransactionIdForUpdate(String transactionId);
+
+    /**
+     * Select transactions by transaction IDs
+     * @param transactionIds transaction IDs
+     * @return the found transactions, in no particular order
+     */
+    List<TransactionPO> findByTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
     /**
      * Check if transaction exists by transaction ID
      * @param transactionId transaction ID
@@ -47,6 +73,13 @@ public interface TransactionDataMapper {
      */
     boolean existsByTransactionId(String transactionId);
 
+    /**
+     * Find which of the given transaction IDs already exist
+     * @param transactionIds transaction IDs to check
+     * @return the existing transaction IDs
+     */
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
     /**
      * Find all transactions with pagination
      * @param offset starting position
@@ -55,17 +88,77 @@ public interface TransactionDataMapper {
      */
     List<TransactionPO> findAllWithPagination(@Param("offset") int offset, @Param("limit") int limit);
 
+    /**
+     * Find transactions after the given (createdAt, id) position, newest first
+     * @param cursorCreatedAt createdAt of the last row of the previous page, null for the first page
+     * @param cursorId id of the last row of the previous page, null for the first page
+     * @param limit number of records
+     * @return list of transactions
+     */
+    List<TransactionPO> findAllByCursor(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                        @Param("cursorId") Long cursorId,
+                                        @Param("limit") int limit);
+
+    /**
+     * Find transactions of one account after the given (createdAt, id) position, newest first
+     * @param accountNumber account number
+     * @param cursorCreatedAt createdAt of the last row of the previous page, null for the first page
+     * @param cursorId id of the last row of the previous page, null for the first page
+     * @param limit number of records
+     * @return list of transactions
+     */
+    List<TransactionPO> findByAccountNumberByCursor(@Param("accountNumber") String accountNumber,
+                                                    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                    @Param("cursorId") Long cursorId,
+                                                    @Param("limit") int limit);
+
     /**
      * Count total transactions
      * @return total count
      */
     Long countTotal();
 
+    /**
+     * Sum income and expense per day of creation, grouped in the database over a created_at range scan
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     * @return one row per day that has transactions, oldest day first
+     */
+    List<TransactionTotalsPO> sumByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Sum income and expense per account, grouped in the database over a created_at range scan
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     * @return one row per account that has transactions, ordered by account number
+     */
+    List<TransactionTotalsPO> sumByAccount(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
     /**
      * Select all transactions
+     * Materializes the whole table, use {@link #exportAll(ResultHandler)} for large tables
      * @return list of all transactions
      */
     List<TransactionPO> selectAll();
 
+    /**
+     * Stream all transactions in id order to the handler, one row at a time
+     * @param resultHandler receives each row, may stop the fetch early
+     */
+    void exportAll(ResultHandler<TransactionPO> resultHandler);
+
+    /**
+     * Turn H2 lazy query execution on or off for the current session
+     * Lazy queries return rows while scanning instead of materializing the result first
+     * @param enabled whether queries on this connection run lazily
+     */
+    void setLazyQueryExecution(@Param("enabled") boolean enabled);
+
+    /**
+     * Stream every transaction ID to the handler, one row at a time
+     * @param resultHandler receives each transaction ID
+     */
+    void scanTransactionIds(ResultHandler<String> resultHandler);
+
 
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package me.shenyi0828.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Account Summary Data Transfer Object
+ * Aggregated view of all transactions of one account
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummaryDTO {
+
+    /**
+     * Account number
+     */
+    private String accountNumber;
+
+    /**
+     * Number of transactions
+     */
+    private Long transactionCount;
+
+    /**
+     * Sum of INCOME amounts in cents
+     */
+    private Long totalIncome;
+
+    /**
+     * Sum of EXPENSE amounts in cents
+     */
+    private Long totalExpense;
+
+    /**
+     * totalIncome - totalExpense, in cents
+     */
+    private Long balance;
+
+    /**
+     * Time of the last create, update or delete, null when the account has no transactions yet
+     */
+    private LocalDateTime lastActivityAt;
+}
@@ -0,0 +1,25 @@
+package me.shenyi0828.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Account Summary Persistent Object
+ * Maps to the account_summary table in database
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummaryPO {
+
+    private String accountNumber;
+    private Long transactionCount;
+    private Long totalIncome;
+    private Long totalExpense;
+    private LocalDateTime lastActivityAt;
+}
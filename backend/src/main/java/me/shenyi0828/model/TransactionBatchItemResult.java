@@ -0,0 +1,41 @@
+package me.shenyi0828.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one item of a batch create request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchItemResult {
+
+    /**
+     * Position of the item in the request array
+     */
+    private Integer index;
+
+    /**
+     * Business transaction ID, generated when the item did not carry one
+     */
+    private String transactionId;
+
+    /**
+     * Whether the item was created
+     */
+    private Boolean success;
+
+    /**
+     * Error code when the item was rejected
+     */
+    private Integer code;
+
+    /**
+     * Error message when the item was rejected
+     */
+    private String message;
+}
@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
  * Maps to the transactions table in database
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TransactionPO {
@@ -0,0 +1,59 @@
+package me.shenyi0828.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Transaction Totals Data Transfer Object
+ * Income and expense totals of one day or one account over a date range
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionTotalsDTO {
+
+    /**
+     * Day of creation, only set in the daily report
+     */
+    private LocalDate day;
+
+    /**
+     * Account number, only set in the by-account report
+     */
+    private String accountNumber;
+
+    /**
+     * Number of transactions
+     */
+    private Long transactionCount;
+
+    /**
+     * Number of INCOME transactions
+     */
+    private Long incomeCount;
+
+    /**
+     * Sum of INCOME amounts in cents
+     */
+    private Long totalIncome;
+
+    /**
+     * Number of EXPENSE transactions
+     */
+    private Long expenseCount;
+
+    /**
+     * Sum of EXPENSE amounts in cents
+     */
+    private Long totalExpense;
+
+    /**
+     * totalIncome - totalExpense, in cents
+     */
+    private Long net;
+}
@@ -0,0 +1,26 @@
+package me.shenyi0828.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Transaction Totals Persistent Object
+ * One group of a report query, either one day or one account
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionTotalsPO {
+
+    private LocalDate day;
+    private String accountNumber;
+    private Long incomeCount;
+    private Long totalIncome;
+    private Long expenseCount;
+    private Long totalExpense;
+}
@@ -0,0 +1,56 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.model.AccountSummaryDTO;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.store.TransactionStore;
+
+import java.util.Collection;
+
+/**
+ * Account Summary Service Interface
+ * Keeps the per-account aggregate in step with every write, so reads never scan the transactions
+ */
+public interface AccountSummaryService {
+
+    /**
+     * Get the summary of an account
+     *
+     * @param accountNumber the account number
+     * @return the summary, all zero when the account has no transactions
+     */
+    AccountSummaryDTO getAccountSummary(String accountNumber);
+
+    /**
+     * Add newly inserted transactions to their account summaries
+     * Must be called inside the transaction that inserted them
+     *
+     * @param transactions the inserted transactions
+     */
+    void recordCreated(Collection<TransactionPO> transactions);
+
+    /**
+     * Move an updated transaction from its old values to its new values
+     * Must be called inside the transaction that updated it
+     *
+     * @param before the transaction as it was before the update, read with
+     *               {@link me.shenyi0828.store.TransactionStore#findByTransactionIdForUpdate} so no concurrent write replaced it
+     * @param after the transaction after the update
+     */
+    void recordUpdated(TransactionPO before, TransactionPO after);
+
+    /**
+     * Remove a deleted transaction from its account summary
+     * Must be called inside the transaction that deleted it
+     *
+     * @param transaction the deleted transaction, read with {@link me.shenyi0828.store.TransactionStore#findByTransactionIdForUpdate}
+     */
+    void recordDeleted(TransactionPO transaction);
+
+    /**
+     * Recompute every account summary from the stored transactions, replacing the whole table.
+     * Used at startup when the transactions were recovered from disk rather than from the database
+     *
+     * @param transactionStore the transactions to summarize
+     */
+    void rebuild(TransactionStore transactionStore);
+}
@@ -0,0 +1,44 @@
+package me.shenyi0828.service;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts evicted cache keys to every instance so that in-process caches can drop them
+ *
+ */
+public interface CacheEvictionBus {
+
+    /**
+     * Publish an evicted cache key to all subscribers, including the local instance
+     *
+     * @param cacheKey the evicted cache key
+     */
+    void publish(String cacheKey);
+
+    /**
+     * Publish several evicted cache keys, implementations may batch them into one round trip
+     *
+     * @param cacheKeys the evicted cache keys
+     */
+    default void publishAll(Collection<String> cacheKeys) {
+        cacheKeys.forEach(this::publish);
+    }
+
+    /**
+     * Subscribe to evicted cache keys
+     *
+     * @param listener callback invoked with each evicted cache key
+     */
+    void subscribe(Consumer<String> listener);
+
+    /**
+     * Get notified whenever broadcasts published before this moment may not have reached this instance,
+     * e.g. each time the subscription is established or re-established after a connection loss.
+     * Buses that cannot lose broadcasts never call it
+     *
+     * @param listener callback invoked on each possible gap
+     */
+    default void subscribeGaps(Runnable listener) {
+    }
+}
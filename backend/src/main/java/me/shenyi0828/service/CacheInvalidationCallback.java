@@ -3,36 +3,37 @@ package me.shenyi0828.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.support.TransactionSynchronization;
 
+import java.util.Collection;
+
 /**
  * 确保缓存操作在事务 commit 后执行
+ * 本实例 L1 在提交线程上删，Redis 交给 {@link CacheInvalidationPipeline} 在后台合并删除，写请求不再等 Redis 往返
  * @author Yi
  */
 @Slf4j
 public class CacheInvalidationCallback implements TransactionSynchronization {
 
-    private final CacheService cacheService;
-    private final String transactionId;
+    private final CacheInvalidationPipeline cacheInvalidationPipeline;
+    private final Collection<String> transactionIds;
+    private final Collection<String> accountNumbers; // 有写操作的账户，它们的首页缓存换版本号，汇总缓存删掉
     private final boolean invalidateTotalCount;
 
-    public CacheInvalidationCallback(CacheService cacheService, String transactionId, boolean invalidateTotalCount) {
-        this.cacheService = cacheService;
-        this.transactionId = transactionId;
+    public CacheInvalidationCallback(CacheInvalidationPipeline cacheInvalidationPipeline,
+                                     Collection<String> transactionIds, Collection<String> accountNumbers,
+                                     boolean invalidateTotalCount) {
+        this.cacheInvalidationPipeline = cacheInvalidationPipeline;
+        this.transactionIds = transactionIds;
+        this.accountNumbers = accountNumbers;
         this.invalidateTotalCount = invalidateTotalCount;
     }
 
     @Override
     public void afterCommit() {
         try {
-            // 删缓存
-            if (transactionId != null) {
-                cacheService.deleteTransaction(transactionId);
-                log.debug("Cache invalidated for transaction: {}", transactionId);
-            }
-
-            if (invalidateTotalCount) {
-                cacheService.deleteTotalCount();
-                log.debug("Total count cache invalidated");
-            }
+            // 交易ID同时会广播给各实例（新增的ID靠这条消息进入其他实例的布隆过滤器）；
+            // 任何写操作都会改变列表页内容，流水线每批都会把 generation 加一
+            cacheInvalidationPipeline.submit(transactionIds, accountNumbers, invalidateTotalCount);
+            log.debug("Cache invalidation submitted for transactions {}, accounts {}", transactionIds, accountNumbers);
         } catch (Exception e) {
             log.warn("Failed to invalidate cache after transaction commit: {}", e.getMessage());
         }
@@ -44,4 +45,4 @@ public class CacheInvalidationCallback implements TransactionSynchronization {
             log.debug("Transaction rolled back, no cache invalidation needed");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package me.shenyi0828.service;
+
+import java.util.Collection;
+
+/**
+ * Invalidates caches after a commit: the in-process tier right away, the shared tier in coalesced background batches
+ *
+ */
+public interface CacheInvalidationPipeline {
+
+    /**
+     * Submit the cache entries touched by a committed write, returns without waiting for Redis
+     *
+     * @param transactionIds written transaction IDs, may be null
+     * @param accountNumbers accounts with written transactions, may be null
+     * @param invalidateTotalCount whether the cached total count is stale
+     */
+    void submit(Collection<String> transactionIds, Collection<String> accountNumbers, boolean invalidateTotalCount);
+}
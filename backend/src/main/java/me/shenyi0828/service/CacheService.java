@@ -1,6 +1,14 @@
 package me.shenyi0828.service;
 
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.model.AccountSummaryDTO;
 import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionTotalsDTO;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Cache service interface for transaction data
@@ -23,9 +31,108 @@ public interface CacheService {
     void setTotalCount(Long count);
 
     /**
-     * Delete total count cache
+     * Get the current generation of cached list pages
+     * 
+     * @return page generation, or null if the cache is unavailable
+     */
+    String getPageGeneration();
+
+    /**
+     * Get a list page from cache
+     * 
+     * @param generation page generation read before querying the database
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @return cached page or null if not cached
+     */
+    PageResponse<TransactionDTO> getPage(String generation, Integer page, Integer size);
+
+    /**
+     * Set a list page to cache under the given generation
+     * 
+     * @param generation page generation read before querying the database
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param pageResponse the page to cache
+     */
+    void setPage(String generation, Integer page, Integer size, PageResponse<TransactionDTO> pageResponse);
+
+    /**
+     * Get the current version of the cached daily rollup
+     * 
+     * @return rollup version, or null if the cache is unavailable
+     */
+    String getRollupVersion();
+
+    /**
+     * Bump the rollup version so that every cached date range becomes unreachable
+     */
+    void bumpRollupVersion();
+
+    /**
+     * Get the daily rollup of a date range from cache
+     * 
+     * @param version rollup version read before querying the database
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return cached totals or null if not cached
+     */
+    List<TransactionTotalsDTO> getDailyRollup(String version, LocalDate from, LocalDate to);
+
+    /**
+     * Set the daily rollup of a date range to cache under the given version
+     * 
+     * @param version rollup version read before querying the database
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @param totals the totals to cache
+     */
+    void setDailyRollup(String version, LocalDate from, LocalDate to, List<TransactionTotalsDTO> totals);
+
+    /**
+     * Get the current version of an account's cached first pages, bumped by every write to the account
+     * 
+     * @param accountNumber the account number
+     * @return account version, or null if the cache is unavailable
+     */
+    String getAccountVersion(String accountNumber);
+
+    /**
+     * Get the first page of an account's transactions from cache
+     * 
+     * @param version account version read before querying the database
+     * @param accountNumber the account number
+     * @param size the page size
+     * @return cached page or null if not cached
+     */
+    PageResponse<TransactionDTO> getAccountFirstPage(String version, String accountNumber, Integer size);
+
+    /**
+     * Set the first page of an account's transactions to cache under the given version
+     * Skipped when the account version has moved on since it was read
+     * 
+     * @param version account version read before querying the database
+     * @param accountNumber the account number
+     * @param size the page size
+     * @param pageResponse the page to cache
      */
-    void deleteTotalCount();
+    void setAccountFirstPage(String version, String accountNumber, Integer size, PageResponse<TransactionDTO> pageResponse);
+
+    /**
+     * Get an account summary from the in-process cache
+     * 
+     * @param accountNumber the account number
+     * @return cached summary or null if not cached
+     */
+    AccountSummaryDTO getAccountSummary(String accountNumber);
+
+    /**
+     * Set an account summary to the in-process cache
+     * 
+     * @param accountNumber the account number
+     * @param summary the summary to cache
+     */
+    void setAccountSummary(String accountNumber, AccountSummaryDTO summary);
 
     /**
      * Get transaction by ID from cache
@@ -44,10 +151,38 @@ public interface CacheService {
     void setTransaction(String transactionId, TransactionDTO transaction);
 
     /**
-     * Delete transaction cache by ID
+     * Get several transactions from cache in one round trip (MGET)
      * 
-     * @param transactionId transaction ID
+     * @param transactionIds transaction IDs
+     * @return cached transactions keyed by transaction ID, misses are absent
+     */
+    Map<String, TransactionDTO> getTransactions(Collection<String> transactionIds);
+
+    /**
+     * Set several transactions to cache in one pipelined round trip
+     * 
+     * @param transactions transaction DTOs keyed by transaction ID
+     */
+    void setTransactions(Map<String, TransactionDTO> transactions);
+
+    /**
+     * Drop the given entries from this instance's in-process cache only
+     * 
+     * @param transactionIds transaction IDs
+     * @param accountNumbers account numbers whose summaries are dropped
+     */
+    void evictLocal(Collection<String> transactionIds, Collection<String> accountNumbers);
+
+    /**
+     * Invalidate the shared tier in one pipelined round trip (multi-key DEL plus page generation bump,
+     * and rollup version bump when transactions changed), then broadcast the evictions to every instance.
+     * Unlike the other methods failures are thrown, so that the caller can retry
+     * 
+     * @param transactionIds transaction IDs
+     * @param accountNumbers account numbers whose first pages and summaries are invalidated
+     * @param invalidateTotalCount whether the cached total count is deleted too
      */
-    void deleteTransaction(String transactionId);
+    void invalidateRemote(Collection<String> transactionIds, Collection<String> accountNumbers,
+                          boolean invalidateTotalCount);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.store.TransactionStore;
+
+import java.util.Collection;
+
+/**
+ * Daily Rollup Service Interface
+ * Keeps the per-day totals in step with every write, so that dashboards polling the daily report never scan the transactions
+ */
+public interface DailyRollupService {
+
+    /**
+     * Add newly inserted transactions to the totals of their creation day
+     * Must be called inside the transaction that inserted them
+     *
+     * @param transactions the inserted transactions
+     */
+    void recordCreated(Collection<TransactionPO> transactions);
+
+    /**
+     * Move an updated transaction from its old type and amount to its new ones
+     * Must be called inside the transaction that updated it
+     *
+     * @param before the transaction as it was before the update, read with
+     *               {@link me.shenyi0828.store.TransactionStore#findByTransactionIdForUpdate} so no concurrent write replaced it
+     * @param after the transaction after the update
+     */
+    void recordUpdated(TransactionPO before, TransactionPO after);
+
+    /**
+     * Remove a deleted transaction from the totals of its creation day
+     * Must be called inside the transaction that deleted it
+     *
+     * @param transaction the deleted transaction, read with {@link me.shenyi0828.store.TransactionStore#findByTransactionIdForUpdate}
+     */
+    void recordDeleted(TransactionPO transaction);
+
+    /**
+     * Recompute the totals of every day from the stored transactions, replacing the whole table.
+     * Used at startup when the transactions were recovered from disk rather than from the database
+     *
+     * @param transactionStore the transactions to roll up
+     */
+    void rebuild(TransactionStore transactionStore);
+}
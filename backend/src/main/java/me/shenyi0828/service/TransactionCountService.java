@@ -0,0 +1,30 @@
+package me.shenyi0828.service;
+
+/**
+ * Transaction Count Service Interface
+ * Keeps the total number of transactions up to date with every write, so reads never count the table
+ */
+public interface TransactionCountService {
+
+    /**
+     * Get the maintained total number of transactions
+     *
+     * @return total count
+     */
+    long getTotalCount();
+
+    /**
+     * Add inserted or removed transactions to the total
+     * Must be called inside the transaction that made the change
+     *
+     * @param delta rows inserted (positive) or deleted (negative)
+     */
+    void recordChange(long delta);
+
+    /**
+     * Recount the table and correct the maintained total if it drifted
+     *
+     * @return the recounted total
+     */
+    long reconcile();
+}
@@ -0,0 +1,24 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.common.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streams the whole transaction table out without loading it into memory
+ * 
+ */
+public interface TransactionExportService {
+
+    /**
+     * Write every transaction to the output stream, row by row as it is read from the database
+     * The stream is flushed but not closed
+     * 
+     * @param format the export format
+     * @param outputStream the target stream
+     * @return number of exported transactions
+     * @throws IOException if writing to the stream fails, e.g. the client went away
+     */
+    long exportTransactions(ExportFormat format, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,24 @@
+package me.shenyi0828.service;
+
+/**
+ * Answers "this transaction ID certainly does not exist" without touching the database
+ *
+ */
+public interface TransactionIdFilter {
+
+    /**
+     * Check whether a transaction ID may exist
+     *
+     * @param transactionId the transaction ID
+     * @return false only when the ID certainly does not exist, true when it may exist
+     */
+    boolean mightExist(String transactionId);
+
+    /**
+     * Record a newly inserted transaction ID, called right after the insert and again after the commit,
+     * because a rebuild that scans before the commit cannot see the row
+     *
+     * @param transactionId the inserted transaction ID
+     */
+    void recordInserted(String transactionId);
+}
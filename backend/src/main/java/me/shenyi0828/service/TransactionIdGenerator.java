@@ -0,0 +1,16 @@
+package me.shenyi0828.service;
+
+/**
+ * Generates business transaction IDs
+ * 
+ */
+public interface TransactionIdGenerator {
+
+    /**
+     * Generate a new transaction ID
+     * IDs keep the TXN prefix, are unique across nodes and restarts, and sort by creation time
+     * 
+     * @return the new transaction ID
+     */
+    String nextId();
+}
@@ -0,0 +1,28 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.model.TransactionEditRequest;
+
+/**
+ * Write-behind ingestion: accepts transactions into memory and writes them to the database in batches
+ * An accepted transaction is not durable until its batch commits, it is lost if the process dies before that,
+ * and it is not visible to reads until then
+ * 
+ */
+public interface TransactionIngestService {
+
+    /**
+     * Accept a transaction for a later batched insert, returns once it is queued in memory
+     * Validation must already have been done by the caller, duplicate IDs are only detected when the batch is written
+     * 
+     * @param transactionEditRequest the transaction to create
+     * @return the transaction ID (generated when the request has none), or null when the buffer is full
+     */
+    String submit(TransactionEditRequest transactionEditRequest);
+
+    /**
+     * Suggested wait before a rejected client retries
+     * 
+     * @return seconds to wait, at least 1
+     */
+    long retryAfterSeconds();
+}
@@ -0,0 +1,45 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.model.TransactionTotalsDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Transaction Report Service Interface
+ * Income and expense totals over a range of creation dates, aggregated from the transactions on every call,
+ * or for the daily totals also read from the rollup maintained on every write
+ */
+public interface TransactionReportService {
+
+    /**
+     * Get the totals of every day in the range that has transactions
+     *
+     * @param from first day, inclusive, null for the 30 days ending at to
+     * @param to last day, inclusive, null for today
+     * @return one entry per day, oldest first
+     * @throws me.shenyi0828.exception.BusinessException if from is after to or the range exceeds a year
+     */
+    List<TransactionTotalsDTO> getDailyTotals(LocalDate from, LocalDate to);
+
+    /**
+     * Same result as {@link #getDailyTotals}, read from the maintained daily rollup and cached in Redis
+     * until the next write, for dashboards that poll it
+     *
+     * @param from first day, inclusive, null for the 30 days ending at to
+     * @param to last day, inclusive, null for today
+     * @return one entry per day, oldest first
+     * @throws me.shenyi0828.exception.BusinessException if from is after to or the range exceeds a year
+     */
+    List<TransactionTotalsDTO> getDailyRollup(LocalDate from, LocalDate to);
+
+    /**
+     * Get the totals of every account with transactions created in the range
+     *
+     * @param from first day, inclusive, null for the 30 days ending at to
+     * @param to last day, inclusive, null for today
+     * @return one entry per account, ordered by account number
+     * @throws me.shenyi0828.exception.BusinessException if from is after to
+     */
+    List<TransactionTotalsDTO> getAccountTotals(LocalDate from, LocalDate to);
+}
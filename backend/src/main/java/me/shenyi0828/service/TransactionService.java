@@ -1,9 +1,12 @@
 package me.shenyi0828.service;
 
 import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.model.TransactionBatchItemResult;
 import me.shenyi0828.model.TransactionDTO;
 import me.shenyi0828.model.TransactionEditRequest;
 
+import java.util.List;
+
 /**
  * Transaction service interface for business logic operations
  * 
@@ -18,6 +21,15 @@ public interface TransactionService {
      */
     TransactionDTO createTransaction(TransactionEditRequest transactionEditRequest);
 
+    /**
+     * Create several transactions in one database transaction
+     * Invalid and duplicate items are rejected individually, the rest are inserted together
+     * 
+     * @param transactionEditRequests the transaction request data
+     * @return one result per request item, in request order
+     */
+    List<TransactionBatchItemResult> createTransactions(List<TransactionEditRequest> transactionEditRequests);
+
     /**
      * Update an existing transaction
      * 
@@ -46,6 +58,25 @@ public interface TransactionService {
      */
     PageResponse<TransactionDTO> getAllTransactions(Integer page, Integer size);
 
+    /**
+     * Get transactions with keyset (cursor) pagination, newest first
+     * 
+     * @param cursor the opaque cursor from the previous page, null or empty for the first page
+     * @param size the page size
+     * @return transaction page with the cursor of the next page
+     */
+    PageResponse<TransactionDTO> getTransactionsByCursor(String cursor, Integer size);
+
+    /**
+     * Get the transactions of one account with keyset (cursor) pagination, newest first
+     * 
+     * @param accountNumber the account number
+     * @param cursor the opaque cursor from the previous page, null or empty for the first page
+     * @param size the page size
+     * @return transaction page with the cursor of the next page
+     */
+    PageResponse<TransactionDTO> getAccountTransactions(String accountNumber, String cursor, Integer size);
+
     /**
      * Get transaction by ID
      * 
@@ -54,6 +85,14 @@ public interface TransactionService {
      */
     TransactionDTO getTransactionById(String transactionId);
 
+    /**
+     * Get several transactions by ID, cache hits in one round trip and misses in one query
+     * 
+     * @param transactionIds the transaction IDs
+     * @return the found transactions in request order, unknown IDs are skipped
+     */
+    List<TransactionDTO> getTransactionsByIds(List<String> transactionIds);
+
     /**
      * Check if a transaction exists by transaction ID
      * 
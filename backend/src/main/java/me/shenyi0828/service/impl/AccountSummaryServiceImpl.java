@@ -0,0 +1,168 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.mapper.AccountSummaryMapper;
+import me.shenyi0828.model.AccountSummaryDTO;
+import me.shenyi0828.model.AccountSummaryPO;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.service.AccountSummaryService;
+import me.shenyi0828.service.CacheService;
+import me.shenyi0828.store.TransactionStore;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 账户汇总
+ * 写操作在同一个事务里按差值更新 account_summary，读只查一行（先走进程内缓存），和账户的交易数量无关。
+ * 缓存在 {@link me.shenyi0828.service.CacheInvalidationCallback} 里随事务提交失效
+ *
+ * @author Yi
+ */
+@Slf4j
+@Service
+@Timed("transaction.service")
+public class AccountSummaryServiceImpl implements AccountSummaryService {
+
+    private static final byte TYPE_INCOME = 2;
+
+    private final AccountSummaryMapper accountSummaryMapper;
+    private final CacheService cacheService;
+
+    public AccountSummaryServiceImpl(AccountSummaryMapper accountSummaryMapper, CacheService cacheService) {
+        this.accountSummaryMapper = accountSummaryMapper;
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    public AccountSummaryDTO getAccountSummary(String accountNumber) {
+        AccountSummaryDTO cachedSummary = cacheService.getAccountSummary(accountNumber);
+        if (cachedSummary != null) {
+            return cachedSummary;
+        }
+
+        AccountSummaryPO summaryPO = accountSummaryMapper.findByAccountNumber(accountNumber);
+        AccountSummaryDTO summary = summaryPO != null ? toDto(summaryPO) : AccountSummaryDTO.builder()
+                .accountNumber(accountNumber)
+                .transactionCount(0L)
+                .totalIncome(0L)
+                .totalExpense(0L)
+                .balance(0L)
+                .build();
+
+        cacheService.setAccountSummary(accountNumber, summary);
+        return summary;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Collection<TransactionPO> transactions) {
+        Map<String, Delta> deltas = new TreeMap<>();
+        for (TransactionPO transaction : transactions) {
+            delta(deltas, transaction.getAccountNumber(), transaction.getCreatedAt()).add(transaction, 1);
+        }
+        apply(deltas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(TransactionPO before, TransactionPO after) {
+        // 换了账户时两个账户各一条差值，没换时合成一条（笔数不变）
+        Map<String, Delta> deltas = new TreeMap<>();
+        delta(deltas, before.getAccountNumber(), after.getUpdatedAt()).add(before, -1);
+        delta(deltas, after.getAccountNumber(), after.getUpdatedAt()).add(after, 1);
+        apply(deltas);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(TransactionPO transaction) {
+        Map<String, Delta> deltas = new TreeMap<>();
+        delta(deltas, transaction.getAccountNumber(), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .add(transaction, -1);
+        apply(deltas);
+    }
+
+    /**
+     * 和 data.sql 里初始化汇总的方式一致：笔数、收支合计，最后活动时间取最大的 updatedAt
+     */
+    @Override
+    @Transactional
+    public void rebuild(TransactionStore transactionStore) {
+        Map<String, Delta> deltas = new TreeMap<>();
+        transactionStore.exportAll(resultContext -> {
+            TransactionPO transaction = resultContext.getResultObject();
+            delta(deltas, transaction.getAccountNumber(), transaction.getUpdatedAt()).add(transaction, 1);
+        });
+        accountSummaryMapper.deleteAll();
+        apply(deltas);
+        log.info("Account summaries rebuilt for {} accounts", deltas.size());
+    }
+
+    private static Delta delta(Map<String, Delta> deltas, String accountNumber, LocalDateTime activityAt) {
+        Delta delta = deltas.computeIfAbsent(accountNumber, key -> new Delta());
+        if (delta.activityAt == null || activityAt.isAfter(delta.activityAt)) {
+            delta.activityAt = activityAt;
+        }
+        return delta;
+    }
+
+    /**
+     * 按账户号顺序更新，多个事务同时改同一批账户时加锁顺序一致，不会死锁
+     */
+    private void apply(Map<String, Delta> deltas) {
+        for (Map.Entry<String, Delta> entry : deltas.entrySet()) {
+            Delta delta = entry.getValue();
+            try {
+                applyDelta(entry.getKey(), delta);
+            } catch (DuplicateKeyException e) {
+                // 新账户的第一笔被并发写入抢先插了汇总行，再来一次就是 UPDATE
+                log.debug("Account summary row created concurrently, retrying: {}", entry.getKey());
+                applyDelta(entry.getKey(), delta);
+            }
+        }
+    }
+
+    private void applyDelta(String accountNumber, Delta delta) {
+        accountSummaryMapper.applyDelta(accountNumber, delta.count, delta.income, delta.expense, delta.activityAt);
+    }
+
+    private static AccountSummaryDTO toDto(AccountSummaryPO summaryPO) {
+        return AccountSummaryDTO.builder()
+                .accountNumber(summaryPO.getAccountNumber())
+                .transactionCount(summaryPO.getTransactionCount())
+                .totalIncome(summaryPO.getTotalIncome())
+                .totalExpense(summaryPO.getTotalExpense())
+                .balance(summaryPO.getTotalIncome() - summaryPO.getTotalExpense())
+                .lastActivityAt(summaryPO.getLastActivityAt())
+                .build();
+    }
+
+    /**
+     * 一个账户在本次写操作里的变化量
+     */
+    private static class Delta {
+
+        private long count;
+        private long income;
+        private long expense;
+        private LocalDateTime activityAt;
+
+        void add(TransactionPO transaction, int sign) {
+            count += sign;
+            if (transaction.getTransactionType() == TYPE_INCOME) {
+                income += (long) sign * transaction.getAmount();
+            } else {
+                expense += (long) sign * transaction.getAmount();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.service.CacheInvalidationPipeline;
+import me.shenyi0828.service.CacheService;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 提交后的缓存失效流水线
+ * 本实例的 L1 在提交线程上马上删；Redis 的删除交给一个后台线程：攒一个窗口（或攒满一批）内的失效，
+ * 重复的 key 合并，一次 pipeline 发出（多 key DEL + generation 加一），然后广播给各实例删 L1。
+ * 失败按指数退避重试，直到这批失效的年龄超过 max-staleness 才放弃，剩下的旧值靠 TTL 过期。
+ * 队列满时在提交线程上直接失效，积压不会让 stale 窗口无限变长
+ *
+ * @author Yi
+ */
+@Slf4j
+@Service
+public class BatchingCacheInvalidationPipeline implements CacheInvalidationPipeline {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final CacheService cacheService;
+    private final BlockingQueue<Invalidation> queue;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long retryBackoffNanos;
+    private final long maxStalenessNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+    private final Counter flushedOk;
+    private final Counter flushedInline;
+    private final Counter flushRetries;
+    private final Counter flushesDropped;
+
+    public BatchingCacheInvalidationPipeline(CacheService cacheService, CacheProperties cacheProperties,
+                                             MeterRegistry meterRegistry) {
+        CacheProperties.Invalidation properties = cacheProperties.getInvalidation();
+        this.cacheService = cacheService;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.windowNanos = properties.getWindow().toNanos();
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.retryBackoffNanos = properties.getRetryBackoff().toNanos();
+        this.maxStalenessNanos = properties.getMaxStaleness().toNanos();
+
+        Gauge.builder("transaction.cache.invalidation.queue", queue, BlockingQueue::size)
+                .description("Invalidations waiting to be sent to Redis")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("transaction.cache.invalidation.batch")
+                .description("Distinct keys per batch sent to Redis")
+                .baseUnit("keys")
+                .register(meterRegistry);
+        this.lag = Timer.builder("transaction.cache.invalidation.lag")
+                .description("Time from commit to Redis invalidation, i.e. how long stale reads were possible")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushedOk = flushesCounter(meterRegistry, "ok");
+        this.flushedInline = flushesCounter(meterRegistry, "inline");
+        this.flushRetries = flushesCounter(meterRegistry, "retry");
+        this.flushesDropped = flushesCounter(meterRegistry, "dropped");
+
+        this.worker = new Thread(this::run, "cache-invalidation");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void submit(Collection<String> transactionIds, Collection<String> accountNumbers,
+                       boolean invalidateTotalCount) {
+        Invalidation invalidation = new Invalidation(
+                transactionIds != null ? transactionIds : List.of(),
+                accountNumbers != null ? accountNumbers : List.of(),
+                invalidateTotalCount, System.nanoTime());
+
+        // 本实例的 L1 马上删，同一实例上读自己刚写的数据不会读到旧值
+        cacheService.evictLocal(invalidation.transactionIds(), invalidation.accountNumbers());
+
+        if (running && queue.offer(invalidation)) {
+            return;
+        }
+        // 队列满（Redis 慢或不可用）或正在关闭，在调用线程上试一次
+        Batch batch = new Batch(invalidation);
+        if (flush(batch, false)) {
+            flushedInline.increment();
+        }
+    }
+
+    /**
+     * 关闭时不再重试，把队列里剩下的各发一次
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.NANOSECONDS.toMillis(maxStalenessNanos + windowNanos) + IDLE_POLL_MILLIS);
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Invalidation first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                Batch batch = new Batch(first);
+                // 从第一条入队算起攒一个窗口；重试耽误了窗口的话，已经排着的直接并进来
+                long deadline = first.submittedAt() + windowNanos;
+                while (batch.keyCount() < maxBatchSize) {
+                    Invalidation next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (flush(batch, true)) {
+                    flushedOk.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation worker failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean flush(Batch batch, boolean retry) {
+        long backoff = retryBackoffNanos;
+        while (true) {
+            try {
+                cacheService.invalidateRemote(batch.transactionIds, batch.accountNumbers, batch.totalCount);
+                batchSizes.record(batch.keyCount());
+                lag.record(System.nanoTime() - batch.oldestSubmittedAt, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (Exception e) {
+                long age = System.nanoTime() - batch.oldestSubmittedAt;
+                if (!retry || !running || age + backoff > maxStalenessNanos) {
+                    flushesDropped.increment();
+                    log.warn("Gave up invalidating {} cache keys after {} ms, stale until TTL: {}",
+                            batch.keyCount(), TimeUnit.NANOSECONDS.toMillis(age), e.getMessage());
+                    return false;
+                }
+                flushRetries.increment();
+                log.debug("Cache invalidation failed, retrying in {} ms: {}",
+                        TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+                LockSupport.parkNanos(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    private static Counter flushesCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transaction.cache.invalidation.flushes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 一次提交产生的失效
+     */
+    private record Invalidation(Collection<String> transactionIds, Collection<String> accountNumbers,
+                                boolean totalCount, long submittedAt) {
+    }
+
+    /**
+     * 合并后的一批，重复的 key 只删一次
+     */
+    private static final class Batch {
+
+        private final Set<String> transactionIds = new LinkedHashSet<>();
+        private final Set<String> accountNumbers = new LinkedHashSet<>();
+        private boolean totalCount;
+        private final long oldestSubmittedAt;
+
+        private Batch(Invalidation first) {
+            this.oldestSubmittedAt = first.submittedAt();
+            add(first);
+        }
+
+        private void add(Invalidation invalidation) {
+            transactionIds.addAll(invalidation.transactionIds());
+            accountNumbers.addAll(invalidation.accountNumbers());
+            totalCount |= invalidation.totalCount();
+        }
+
+        private int keyCount() {
+            return transactionIds.size() + accountNumbers.size() + (totalCount ? 1 : 0);
+        }
+    }
+}
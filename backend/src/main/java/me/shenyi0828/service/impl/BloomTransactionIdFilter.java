@@ -0,0 +1,187 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.common.BloomFilter;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.service.CacheEvictionBus;
+import me.shenyi0828.service.TransactionIdFilter;
+import me.shenyi0828.store.TransactionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 用布隆过滤器挡掉不存在的交易ID
+ * 启动完成后扫一遍 transaction_id 建过滤器，建好之前一律放行。
+ * 本实例插入时直接加入，提交后再加一次（重建扫描看不到未提交的行）；其他实例插入的 ID 在提交后通过 {@link CacheEvictionBus} 收到（和删 L1 是同一条消息）。
+ * 布隆过滤器不能删除，删掉的 ID 和漏收的广播靠定期重建纠正。
+ * 因此"不存在"只对重建时一定已经扫到的 ID 算数：广播报告过缺口（如 Redis 重新订阅）时到下次重建前都查库；
+ * 本服务生成的交易号里带着生成时间，晚于"重建开始 - recentIdWindow"的也查库（当时可能还没提交，广播也可能还没到）。
+ * 调用方自带的交易号看不出时间，只按缺口判断
+ *
+ * @author Yi
+ */
+@Slf4j
+@Component
+public class BloomTransactionIdFilter implements TransactionIdFilter {
+
+    private final TransactionStore transactionStore;
+    private final CacheProperties.Bloom bloomProperties;
+
+    // 对外生效的过滤器，建好之前为 null
+    private volatile BloomFilter current;
+    // 重建期间收到的新 ID 两边都加，换上去时不会丢
+    private volatile BloomFilter building;
+    // current 的扫描开始时间和最近一次广播缺口的时间，epoch 毫秒
+    private volatile long scannedFromMillis;
+    private volatile long lastGapMillis;
+
+    private final LongSupplier clock;
+
+    private final Counter absentChecks;
+    private final Counter presentChecks;
+    private final Counter unverifiedChecks;
+
+    @Autowired
+    public BloomTransactionIdFilter(TransactionStore transactionStore, CacheProperties cacheProperties,
+                                    CacheEvictionBus cacheEvictionBus, MeterRegistry meterRegistry) {
+        this(transactionStore, cacheProperties, cacheEvictionBus, meterRegistry, System::currentTimeMillis);
+    }
+
+    BloomTransactionIdFilter(TransactionStore transactionStore, CacheProperties cacheProperties,
+                             CacheEvictionBus cacheEvictionBus, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.transactionStore = transactionStore;
+        this.bloomProperties = cacheProperties.getBloom();
+        this.clock = clock;
+
+        this.absentChecks = checksCounter(meterRegistry, "absent");
+        this.presentChecks = checksCounter(meterRegistry, "maybe");
+        this.unverifiedChecks = checksCounter(meterRegistry, "unverified");
+        Gauge.builder("transaction.bloom.fpp", bloomProperties, CacheProperties.Bloom::getFpp)
+                .tag("kind", "configured")
+                .register(meterRegistry);
+        Gauge.builder("transaction.bloom.fpp", this, filter -> filter.measure(BloomFilter::expectedFpp))
+                .tag("kind", "estimated")
+                .register(meterRegistry);
+        Gauge.builder("transaction.bloom.size", this, filter -> filter.measure(BloomFilter::sizeInBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("transaction.bloom.insertions", this, filter -> filter.measure(BloomFilter::approximateInsertions))
+                .register(meterRegistry);
+
+        // 写操作提交后会广播交易的缓存 key，新增的 ID 由此传到每个实例
+        cacheEvictionBus.subscribe(this::onEvicted);
+        cacheEvictionBus.subscribeGaps(this::onGap);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 定期重建：清掉已删除的 ID，补上漏收的广播。
+     * 容量取配置值和现有 ID 数两倍中的大者，插入量超过预期后误判率也能回落
+     */
+    @Scheduled(initialDelayString = "${transaction.cache.bloom.rebuild-interval:PT10M}",
+            fixedDelayString = "${transaction.cache.bloom.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        if (!bloomProperties.isEnabled()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            long expectedInsertions = Math.max(bloomProperties.getExpectedInsertions(),
+                    current != null ? current.approximateInsertions() * 2 : 0);
+            BloomFilter fresh = new BloomFilter(expectedInsertions, bloomProperties.getFpp());
+            long startMillis = clock.getAsLong();
+            building = fresh;
+            long[] scanned = new long[1];
+            transactionStore.scanTransactionIds(resultContext -> {
+                fresh.put(resultContext.getResultObject());
+                scanned[0]++;
+            });
+            scannedFromMillis = startMillis;
+            current = fresh;
+            log.info("Transaction ID bloom filter built: {} IDs, {} bytes, {} hash functions, in {} ms",
+                    scanned[0], fresh.sizeInBytes(), fresh.hashFunctions(), (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (Exception e) {
+            // 建不起来就继续用旧的（或者一律放行），不影响查询的正确性
+            log.warn("Failed to build transaction ID bloom filter: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    @Override
+    public boolean mightExist(String transactionId) {
+        BloomFilter filter = current;
+        if (filter == null) {
+            return true;
+        }
+        if (filter.mightContain(transactionId)) {
+            presentChecks.increment();
+            return true;
+        }
+        if (!scannedBeforeRebuild(transactionId)) {
+            unverifiedChecks.increment();
+            return true;
+        }
+        absentChecks.increment();
+        return false;
+    }
+
+    @Override
+    public void recordInserted(String transactionId) {
+        // 先写 building 再写 current：重建结束换上去之前，新 ID 已经在 fresh 里了
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(transactionId);
+        }
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(transactionId);
+        }
+    }
+
+    /**
+     * 上次重建是否一定扫到过这个 ID（如果它存在的话）
+     */
+    private boolean scannedBeforeRebuild(String transactionId) {
+        long scannedFrom = scannedFromMillis;
+        if (lastGapMillis >= scannedFrom) {
+            return false;
+        }
+        long generatedAt = SnowflakeTransactionIdGenerator.timestampMillis(transactionId);
+        return generatedAt < 0 || generatedAt < scannedFrom - bloomProperties.getRecentIdWindow().toMillis();
+    }
+
+    private void onGap() {
+        lastGapMillis = clock.getAsLong();
+    }
+
+    private void onEvicted(String cacheKey) {
+        if (cacheKey.startsWith(CacheServiceImpl.TRANSACTION_KEY_PREFIX)) {
+            recordInserted(cacheKey.substring(CacheServiceImpl.TRANSACTION_KEY_PREFIX.length()));
+        }
+    }
+
+    private double measure(ToDoubleFunction<BloomFilter> metric) {
+        BloomFilter filter = current;
+        return filter != null ? metric.applyAsDouble(filter) : 0;
+    }
+
+    private static Counter checksCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("transaction.bloom.checks")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
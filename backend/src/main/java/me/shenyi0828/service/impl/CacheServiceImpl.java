@@ -1,17 +1,50 @@
 package me.shenyi0828.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.common.CacheCodec;
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.model.AccountSummaryDTO;
 import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionTotalsDTO;
+import me.shenyi0828.service.CacheEvictionBus;
 import me.shenyi0828.service.CacheService;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 缓存实现
+ * 交易详情走两级缓存：进程内 Caffeine（L1）在前，Redis（L2）在后，
+ * 删除时两级一起删，并通过 {@link CacheEvictionBus} 通知其他实例删掉各自的 L1。
+ * Redis 里的交易详情由 {@link CacheCodec} 编码成字节（默认紧凑二进制），格式或版本对不上的值当作未命中。
+ * 列表页按 generation 分代缓存，写操作只需要把 generation 加一，旧页自然过期；按天汇总的日期范围同样按版本号缓存。
+ * 账户流水只缓存首页，每个账户按版本号一个 hash（field 是 page size），账户有写操作时版本号加一；
+ * 写入用脚本先比对版本号，再把 HSET 和 EXPIRE 一起执行，失效之后查出来的旧页写不回去，也不会留下没有 TTL 的 hash。
+ * 账户汇总只放进程内（Caffeine 内部按桶分段加锁，读不互斥），失效同样走广播
  *
  * @author Yi
  */
@@ -20,19 +53,123 @@ import java.util.concurrent.TimeUnit;
 public class CacheServiceImpl implements CacheService {
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final CacheCodec<TransactionDTO> transactionCodec;
     private final ObjectMapper objectMapper;
+    private final CacheEvictionBus cacheEvictionBus;
+    private final MeterRegistry meterRegistry;
+    private final CacheProperties.Page pageProperties;
+    private final CacheProperties.Rollup rollupProperties;
+
+    // L1: 进程内缓存，返回的对象是共享的，调用方只读
+    private final Cache<String, TransactionDTO> localTransactions;
+    private final Cache<String, AccountSummaryDTO> localSummaries;
 
     // Cache keys
     private static final String TOTAL_COUNT_KEY = "transaction:total:count";
-    private static final String TRANSACTION_KEY_PREFIX = "transaction:data:";
+    static final String TRANSACTION_KEY_PREFIX = "transaction:data:";
+    private static final String PAGE_GENERATION_KEY = "transaction:page:generation";
+    private static final String PAGE_KEY_PREFIX = "transaction:page:";
+    private static final String ROLLUP_VERSION_KEY = "transaction:rollup:version";
+    private static final String ROLLUP_KEY_PREFIX = "transaction:rollup:";
+    private static final String ACCOUNT_VERSION_KEY_PREFIX = "transaction:account:version:";
+    private static final String ACCOUNT_FIRST_PAGE_KEY_PREFIX = "transaction:account:first-page:";
+    // 只用作广播的 key，Redis 里不存
+    private static final String ACCOUNT_SUMMARY_KEY_PREFIX = "transaction:account:summary:";
+
+    private static final TypeReference<PageResponse<TransactionDTO>> PAGE_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<TransactionTotalsDTO>> ROLLUP_TYPE = new TypeReference<>() {};
+
+    // KEYS: 版本号、首页 hash；ARGV: 读到的版本号、page size、页、hash TTL、版本号 TTL。版本号已变返回 0，不写
+    private static final RedisScript<Long> SET_ACCOUNT_FIRST_PAGE_SCRIPT = RedisScript.of("""
+            local current = redis.call('GET', KEYS[1]) or '0'
+            if current ~= ARGV[1] then
+                return 0
+            end
+            redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+            if current ~= '0' then
+                redis.call('EXPIRE', KEYS[1], ARGV[5])
+            end
+            return 1
+            """, Long.class);
 
     // Cache TTL (Time To Live)
     private static final long TOTAL_COUNT_TTL = 300; // 5 minutes
     private static final long TRANSACTION_TTL = 600; // 10 minutes
+    // 实际 TTL 在 ±10% 内随机，同一时间写入的 key 不会同时过期
+    private static final double TTL_JITTER = 0.1;
+    // 账户版本号的 TTL 是首页的几倍：版本号过期归零时，旧版本号下的首页一定已经过期
+    private static final long ACCOUNT_VERSION_TTL_FACTOR = 2;
 
-    public CacheServiceImpl(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper) {
+    // Metrics
+    private static final String TIER_LOCAL = "local";
+    private static final String TIER_REMOTE = "remote";
+    private static final String CACHE_TRANSACTION = "transaction";
+    private static final String CACHE_PAGE = "page";
+    private static final String CACHE_COUNT = "count";
+    private static final String CACHE_ACCOUNT = "account";
+    private static final String CACHE_SUMMARY = "summary";
+    private static final String CACHE_ROLLUP = "rollup";
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter remoteEvictions;
+    private final Counter pageHits;
+    private final Counter pageMisses;
+    private final Counter countHits;
+    private final Counter countMisses;
+    private final Counter accountHits;
+    private final Counter accountMisses;
+    private final Counter summaryHits;
+    private final Counter summaryMisses;
+    private final Counter rollupHits;
+    private final Counter rollupMisses;
+
+    public CacheServiceImpl(StringRedisTemplate stringRedisTemplate, RedisTemplate<String, byte[]> binaryRedisTemplate,
+                            CacheCodec<TransactionDTO> transactionCodec, ObjectMapper objectMapper,
+                            CacheEvictionBus cacheEvictionBus, CacheProperties cacheProperties,
+                            MeterRegistry meterRegistry) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.transactionCodec = transactionCodec;
         this.objectMapper = objectMapper;
+        this.cacheEvictionBus = cacheEvictionBus;
+        this.meterRegistry = meterRegistry;
+        this.pageProperties = cacheProperties.getPage();
+        this.rollupProperties = cacheProperties.getRollup();
+
+        this.localTransactions = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getLocal().getMaximumSize())
+                .expireAfterWrite(cacheProperties.getLocal().getTtl())
+                .executor(Runnable::run)
+                .removalListener((String key, TransactionDTO value, RemovalCause cause) -> recordLocalRemoval(cause))
+                .build();
+        this.localSummaries = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getLocal().getMaximumSize())
+                .expireAfterWrite(cacheProperties.getLocal().getTtl())
+                .executor(Runnable::run)
+                .build();
+
+        this.localHits = getsCounter(CACHE_TRANSACTION, TIER_LOCAL, "hit");
+        this.localMisses = getsCounter(CACHE_TRANSACTION, TIER_LOCAL, "miss");
+        this.remoteHits = getsCounter(CACHE_TRANSACTION, TIER_REMOTE, "hit");
+        this.remoteMisses = getsCounter(CACHE_TRANSACTION, TIER_REMOTE, "miss");
+        this.remoteEvictions = evictionsCounter(TIER_REMOTE, "explicit");
+        this.pageHits = getsCounter(CACHE_PAGE, TIER_REMOTE, "hit");
+        this.pageMisses = getsCounter(CACHE_PAGE, TIER_REMOTE, "miss");
+        this.countHits = getsCounter(CACHE_COUNT, TIER_REMOTE, "hit");
+        this.countMisses = getsCounter(CACHE_COUNT, TIER_REMOTE, "miss");
+        this.accountHits = getsCounter(CACHE_ACCOUNT, TIER_REMOTE, "hit");
+        this.accountMisses = getsCounter(CACHE_ACCOUNT, TIER_REMOTE, "miss");
+        this.summaryHits = getsCounter(CACHE_SUMMARY, TIER_LOCAL, "hit");
+        this.summaryMisses = getsCounter(CACHE_SUMMARY, TIER_LOCAL, "miss");
+        this.rollupHits = getsCounter(CACHE_ROLLUP, TIER_REMOTE, "hit");
+        this.rollupMisses = getsCounter(CACHE_ROLLUP, TIER_REMOTE, "miss");
+
+        // 其他实例（以及自己）删缓存时，同步删掉本地 L1
+        cacheEvictionBus.subscribe(this::onEvicted);
     }
 
     @Override
@@ -40,12 +177,15 @@ public class CacheServiceImpl implements CacheService {
         try {
             String value = stringRedisTemplate.opsForValue().get(TOTAL_COUNT_KEY);
             if (value != null) {
+                countHits.increment();
                 log.debug("Cache hit for total count: {}", value);
                 return Long.valueOf(value);
             }
+            countMisses.increment();
             log.debug("Cache miss for total count");
             return null;
         } catch (Exception e) {
+            recordError(CACHE_COUNT, "get");
             log.warn("Failed to get total count from cache: {}", e.getMessage());
             return null;
         }
@@ -54,38 +194,231 @@ public class CacheServiceImpl implements CacheService {
     @Override
     public void setTotalCount(Long count) {
         try {
-            stringRedisTemplate.opsForValue().set(TOTAL_COUNT_KEY, count.toString(), TOTAL_COUNT_TTL, TimeUnit.SECONDS);
+            stringRedisTemplate.opsForValue().set(TOTAL_COUNT_KEY, count.toString(), jittered(TOTAL_COUNT_TTL), TimeUnit.SECONDS);
             log.debug("Cached total count: {}", count);
         } catch (Exception e) {
+            recordError(CACHE_COUNT, "set");
             log.warn("Failed to cache total count: {}", e.getMessage());
         }
     }
 
     @Override
-    public void deleteTotalCount() {
+    public String getPageGeneration() {
+        try {
+            String generation = stringRedisTemplate.opsForValue().get(PAGE_GENERATION_KEY);
+            return generation != null ? generation : "0";
+        } catch (Exception e) {
+            recordError(CACHE_PAGE, "get");
+            log.warn("Failed to get page generation from cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public PageResponse<TransactionDTO> getPage(String generation, Integer page, Integer size) {
+        if (page >= pageProperties.getMaxCachedPages()) {
+            return null;
+        }
+        try {
+            String value = stringRedisTemplate.opsForValue().get(pageKey(generation, page, size));
+            if (value != null) {
+                pageHits.increment();
+                log.debug("Cache hit for page: {}/{} generation {}", page, size, generation);
+                return objectMapper.readValue(value, PAGE_TYPE);
+            }
+            pageMisses.increment();
+            log.debug("Cache miss for page: {}/{} generation {}", page, size, generation);
+            return null;
+        } catch (JsonProcessingException e) {
+            recordError(CACHE_PAGE, "deserialize");
+            log.warn("Failed to deserialize page from cache: {}", e.getMessage());
+            return null;
+        } catch (Exception e) {
+            recordError(CACHE_PAGE, "get");
+            log.warn("Failed to get page from cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void setPage(String generation, Integer page, Integer size, PageResponse<TransactionDTO> pageResponse) {
+        if (page >= pageProperties.getMaxCachedPages()) {
+            return;
+        }
+        try {
+            String value = objectMapper.writeValueAsString(pageResponse);
+            stringRedisTemplate.opsForValue().set(pageKey(generation, page, size), value,
+                    jittered(pageProperties.getTtl().getSeconds()), TimeUnit.SECONDS);
+            log.debug("Cached page: {}/{} generation {}", page, size, generation);
+        } catch (JsonProcessingException e) {
+            recordError(CACHE_PAGE, "serialize");
+            log.warn("Failed to serialize page for cache: {}", e.getMessage());
+        } catch (Exception e) {
+            recordError(CACHE_PAGE, "set");
+            log.warn("Failed to cache page: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String getRollupVersion() {
         try {
-            stringRedisTemplate.delete(TOTAL_COUNT_KEY);
-            log.debug("Deleted total count cache");
+            String version = stringRedisTemplate.opsForValue().get(ROLLUP_VERSION_KEY);
+            return version != null ? version : "0";
         } catch (Exception e) {
-            log.warn("Failed to delete total count cache: {}", e.getMessage());
+            recordError(CACHE_ROLLUP, "get");
+            log.warn("Failed to get rollup version from cache: {}", e.getMessage());
+            return null;
         }
     }
 
+    @Override
+    public void bumpRollupVersion() {
+        try {
+            Long version = stringRedisTemplate.opsForValue().increment(ROLLUP_VERSION_KEY);
+            log.debug("Bumped rollup version to {}", version);
+        } catch (Exception e) {
+            recordError(CACHE_ROLLUP, "increment");
+            log.warn("Failed to bump rollup version: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<TransactionTotalsDTO> getDailyRollup(String version, LocalDate from, LocalDate to) {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(rollupKey(version, from, to));
+            if (value != null) {
+                rollupHits.increment();
+                log.debug("Cache hit for daily rollup: {}..{} version {}", from, to, version);
+                return objectMapper.readValue(value, ROLLUP_TYPE);
+            }
+            rollupMisses.increment();
+            log.debug("Cache miss for daily rollup: {}..{} version {}", from, to, version);
+            return null;
+        } catch (JsonProcessingException e) {
+            recordError(CACHE_ROLLUP, "deserialize");
+            log.warn("Failed to deserialize daily rollup from cache: {}", e.getMessage());
+            return null;
+        } catch (Exception e) {
+            recordError(CACHE_ROLLUP, "get");
+            log.warn("Failed to get daily rollup from cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void setDailyRollup(String version, LocalDate from, LocalDate to, List<TransactionTotalsDTO> totals) {
+        try {
+            String value = objectMapper.writeValueAsString(totals);
+            stringRedisTemplate.opsForValue().set(rollupKey(version, from, to), value,
+                    jittered(rollupProperties.getTtl().getSeconds()), TimeUnit.SECONDS);
+            log.debug("Cached daily rollup: {}..{} version {}", from, to, version);
+        } catch (JsonProcessingException e) {
+            recordError(CACHE_ROLLUP, "serialize");
+            log.warn("Failed to serialize daily rollup for cache: {}", e.getMessage());
+        } catch (Exception e) {
+            recordError(CACHE_ROLLUP, "set");
+            log.warn("Failed to cache daily rollup: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String getAccountVersion(String accountNumber) {
+        try {
+            String version = stringRedisTemplate.opsForValue().get(ACCOUNT_VERSION_KEY_PREFIX + accountNumber);
+            return version != null ? version : "0";
+        } catch (Exception e) {
+            recordError(CACHE_ACCOUNT, "get");
+            log.warn("Failed to get account version from cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public PageResponse<TransactionDTO> getAccountFirstPage(String version, String accountNumber, Integer size) {
+        try {
+            Object value = stringRedisTemplate.opsForHash().get(accountFirstPageKey(version, accountNumber), size.toString());
+            if (value != null) {
+                accountHits.increment();
+                log.debug("Cache hit for first page of account: {} size {} version {}", accountNumber, size, version);
+                return objectMapper.readValue((String) value, PAGE_TYPE);
+            }
+            accountMisses.increment();
+            log.debug("Cache miss for first page of account: {} size {} version {}", accountNumber, size, version);
+            return null;
+        } catch (JsonProcessingException e) {
+            recordError(CACHE_ACCOUNT, "deserialize");
+            log.warn("Failed to deserialize account page from cache: {}", e.getMessage());
+            return null;
+        } catch (Exception e) {
+            recordError(CACHE_ACCOUNT, "get");
+            log.warn("Failed to get account page from cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void setAccountFirstPage(String version, String accountNumber, Integer size,
+                                    PageResponse<TransactionDTO> pageResponse) {
+        try {
+            String value = objectMapper.writeValueAsString(pageResponse);
+            Long written = stringRedisTemplate.execute(SET_ACCOUNT_FIRST_PAGE_SCRIPT,
+                    List.of(ACCOUNT_VERSION_KEY_PREFIX + accountNumber, accountFirstPageKey(version, accountNumber)),
+                    version, size.toString(), value, String.valueOf(jittered(pageProperties.getTtl().getSeconds())),
+                    String.valueOf(accountVersionTtl()));
+            if (written != null && written == 1) {
+                log.debug("Cached first page of account: {} size {} version {}", accountNumber, size, version);
+            } else {
+                log.debug("Skipped stale first page of account: {} size {} version {}", accountNumber, size, version);
+            }
+        } catch (JsonProcessingException e) {
+            recordError(CACHE_ACCOUNT, "serialize");
+            log.warn("Failed to serialize account page for cache: {}", e.getMessage());
+        } catch (Exception e) {
+            recordError(CACHE_ACCOUNT, "set");
+            log.warn("Failed to cache account page: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public AccountSummaryDTO getAccountSummary(String accountNumber) {
+        AccountSummaryDTO summary = localSummaries.getIfPresent(accountNumber);
+        if (summary != null) {
+            summaryHits.increment();
+            return summary;
+        }
+        summaryMisses.increment();
+        return null;
+    }
+
+    @Override
+    public void setAccountSummary(String accountNumber, AccountSummaryDTO summary) {
+        localSummaries.put(accountNumber, summary);
+    }
+
     @Override
     public TransactionDTO getTransaction(String transactionId) {
+        TransactionDTO localValue = localTransactions.getIfPresent(transactionId);
+        if (localValue != null) {
+            localHits.increment();
+            log.debug("Local cache hit for transaction: {}", transactionId);
+            return localValue;
+        }
+        localMisses.increment();
+
         try {
             String key = TRANSACTION_KEY_PREFIX + transactionId;
-            String value = stringRedisTemplate.opsForValue().get(key);
-            if (value != null) {
+            TransactionDTO transaction = decodeTransaction(binaryRedisTemplate.opsForValue().get(key));
+            if (transaction != null) {
+                remoteHits.increment();
                 log.debug("Cache hit for transaction: {}", transactionId);
-                return objectMapper.readValue(value, TransactionDTO.class);
+                localTransactions.put(transactionId, transaction);
+                return transaction;
             }
+            remoteMisses.increment();
             log.debug("Cache miss for transaction: {}", transactionId);
             return null;
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to deserialize transaction from cache: {}", e.getMessage());
-            return null;
         } catch (Exception e) {
+            recordError(CACHE_TRANSACTION, "get");
             log.warn("Failed to get transaction from cache: {}", e.getMessage());
             return null;
         }
@@ -93,27 +426,229 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public void setTransaction(String transactionId, TransactionDTO transaction) {
+        localTransactions.put(transactionId, transaction);
+        byte[] value;
+        try {
+            value = transactionCodec.encode(transaction);
+        } catch (RuntimeException e) {
+            recordError(CACHE_TRANSACTION, "serialize");
+            log.warn("Failed to serialize transaction for cache: {}", e.getMessage());
+            return;
+        }
         try {
             String key = TRANSACTION_KEY_PREFIX + transactionId;
-            String value = objectMapper.writeValueAsString(transaction);
-            stringRedisTemplate.opsForValue().set(key, value, TRANSACTION_TTL, TimeUnit.SECONDS);
+            binaryRedisTemplate.opsForValue().set(key, value, jittered(TRANSACTION_TTL), TimeUnit.SECONDS);
             log.debug("Cached transaction: {}", transactionId);
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to serialize transaction for cache: {}", e.getMessage());
         } catch (Exception e) {
+            recordError(CACHE_TRANSACTION, "set");
             log.warn("Failed to cache transaction: {}", e.getMessage());
         }
     }
 
     @Override
-    public void deleteTransaction(String transactionId) {
+    public Map<String, TransactionDTO> getTransactions(Collection<String> transactionIds) {
+        Map<String, TransactionDTO> found = new HashMap<>(localTransactions.getAllPresent(transactionIds));
+        localHits.increment(found.size());
+
+        List<String> remoteIds = new ArrayList<>(transactionIds.size() - found.size());
+        for (String transactionId : transactionIds) {
+            if (!found.containsKey(transactionId)) {
+                remoteIds.add(transactionId);
+            }
+        }
+        localMisses.increment(remoteIds.size());
+        if (remoteIds.isEmpty()) {
+            return found;
+        }
+
         try {
-            String key = TRANSACTION_KEY_PREFIX + transactionId;
-            stringRedisTemplate.delete(key);
-            log.debug("Deleted transaction cache: {}", transactionId);
+            List<String> keys = new ArrayList<>(remoteIds.size());
+            for (String transactionId : remoteIds) {
+                keys.add(TRANSACTION_KEY_PREFIX + transactionId);
+            }
+            // 一次 MGET，未命中的位置是 null
+            List<byte[]> values = binaryRedisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return found;
+            }
+            for (int i = 0; i < remoteIds.size(); i++) {
+                TransactionDTO transaction = decodeTransaction(values.get(i));
+                if (transaction == null) {
+                    remoteMisses.increment();
+                    continue;
+                }
+                remoteHits.increment();
+                localTransactions.put(remoteIds.get(i), transaction);
+                found.put(remoteIds.get(i), transaction);
+            }
+            log.debug("Cache multi-get for {} transactions, {} found", transactionIds.size(), found.size());
         } catch (Exception e) {
-            log.warn("Failed to delete transaction cache: {}", e.getMessage());
+            recordError(CACHE_TRANSACTION, "get");
+            log.warn("Failed to get transactions from cache: {}", e.getMessage());
+        }
+        return found;
+    }
+
+    @Override
+    public void setTransactions(Map<String, TransactionDTO> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        localTransactions.putAll(transactions);
+        Map<byte[], byte[]> values = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, TransactionDTO> entry : transactions.entrySet()) {
+                values.put((TRANSACTION_KEY_PREFIX + entry.getKey()).getBytes(StandardCharsets.UTF_8),
+                        transactionCodec.encode(entry.getValue()));
+            }
+        } catch (RuntimeException e) {
+            recordError(CACHE_TRANSACTION, "serialize");
+            log.warn("Failed to serialize transaction for cache: {}", e.getMessage());
+            return;
+        }
+        try {
+            // SET EX 逐条写入 pipeline，一次往返
+            binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((key, value) -> connection.stringCommands().setEx(key, jittered(TRANSACTION_TTL), value));
+                return null;
+            });
+            log.debug("Cached {} transactions", transactions.size());
+        } catch (Exception e) {
+            recordError(CACHE_TRANSACTION, "set");
+            log.warn("Failed to cache transactions: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void evictLocal(Collection<String> transactionIds, Collection<String> accountNumbers) {
+        localTransactions.invalidateAll(transactionIds);
+        localSummaries.invalidateAll(accountNumbers);
+    }
+
+    @Override
+    public void invalidateRemote(Collection<String> transactionIds, Collection<String> accountNumbers,
+                                 boolean invalidateTotalCount) {
+        List<String> transactionKeys = new ArrayList<>(transactionIds.size());
+        for (String transactionId : transactionIds) {
+            transactionKeys.add(TRANSACTION_KEY_PREFIX + transactionId);
+        }
+        List<String> keys = new ArrayList<>(transactionKeys);
+        if (invalidateTotalCount) {
+            keys.add(TOTAL_COUNT_KEY);
+        }
+        long accountVersionTtl = accountVersionTtl();
+
+        // 一次往返：一条多 key 的 DEL，各账户版本号和 generation 加一；有交易变化时按天汇总的版本也加一（只对账总数时不用）
+        boolean bumpRollupVersion = !transactionIds.isEmpty();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            if (!keys.isEmpty()) {
+                stringConnection.del(keys.toArray(new String[0]));
+            }
+            for (String accountNumber : accountNumbers) {
+                String versionKey = ACCOUNT_VERSION_KEY_PREFIX + accountNumber;
+                stringConnection.incr(versionKey);
+                stringConnection.expire(versionKey, accountVersionTtl);
+            }
+            stringConnection.incr(PAGE_GENERATION_KEY);
+            if (bumpRollupVersion) {
+                stringConnection.incr(ROLLUP_VERSION_KEY);
+            }
+            return null;
+        });
+        remoteEvictions.increment(transactionKeys.size());
+
+        // DEL 之后再广播：窗口期内有实例从旧的 L2 回填了 L1，也会被这次广播删掉
+        List<String> evictedKeys = new ArrayList<>(transactionKeys);
+        for (String accountNumber : accountNumbers) {
+            evictedKeys.add(ACCOUNT_SUMMARY_KEY_PREFIX + accountNumber);
+        }
+        cacheEvictionBus.publishAll(evictedKeys);
+        log.debug("Invalidated {} cache keys and bumped page generation and {} account versions",
+                keys.size(), accountNumbers.size());
+    }
+
+    /**
+     * 解码 Redis 里的交易，未命中、格式或版本不是当前编码（切换编码或升级期间）都返回 null，内容损坏计一次错误
+     */
+    private TransactionDTO decodeTransaction(byte[] value) {
+        if (value == null) {
+            return null;
         }
+        try {
+            return transactionCodec.decode(value);
+        } catch (IllegalArgumentException e) {
+            recordError(CACHE_TRANSACTION, "deserialize");
+            log.warn("Failed to deserialize transaction from cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 收到失效广播，删掉本地 L1
+     */
+    private void onEvicted(String cacheKey) {
+        if (cacheKey.startsWith(TRANSACTION_KEY_PREFIX)) {
+            localTransactions.invalidate(cacheKey.substring(TRANSACTION_KEY_PREFIX.length()));
+        } else if (cacheKey.startsWith(ACCOUNT_SUMMARY_KEY_PREFIX)) {
+            localSummaries.invalidate(cacheKey.substring(ACCOUNT_SUMMARY_KEY_PREFIX.length()));
+        }
+    }
+
+    private void recordLocalRemoval(RemovalCause cause) {
+        if (cause != RemovalCause.REPLACED) {
+            evictionsCounter(TIER_LOCAL, cause.name().toLowerCase(Locale.ROOT)).increment();
+        }
+    }
+
+    /**
+     * Redis 不可用等异常都被吞掉降级为未命中，这里计数，降级期间在监控上可见
+     */
+    private void recordError(String cache, String operation) {
+        Counter.builder("transaction.cache.errors")
+                .tag("cache", cache)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static long jittered(long ttlSeconds) {
+        long spread = (long) (ttlSeconds * TTL_JITTER);
+        if (spread == 0) {
+            return ttlSeconds;
+        }
+        return ttlSeconds + ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+    }
+
+    private static String pageKey(String generation, Integer page, Integer size) {
+        return PAGE_KEY_PREFIX + generation + ":" + page + ":" + size;
+    }
+
+    private static String accountFirstPageKey(String version, String accountNumber) {
+        return ACCOUNT_FIRST_PAGE_KEY_PREFIX + accountNumber + ":" + version;
+    }
+
+    private long accountVersionTtl() {
+        return pageProperties.getTtl().getSeconds() * ACCOUNT_VERSION_TTL_FACTOR;
+    }
+
+    private static String rollupKey(String version, LocalDate from, LocalDate to) {
+        return ROLLUP_KEY_PREFIX + version + ":" + from + ":" + to;
+    }
+
+    private Counter getsCounter(String cache, String tier, String result) {
+        return Counter.builder("transaction.cache.gets")
+                .tag("cache", cache)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter evictionsCounter(String tier, String cause) {
+        return Counter.builder("transaction.cache.evictions")
+                .tag("tier", tier)
+                .tag("cause", cause)
+                .register(meterRegistry);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.mapper.DailyRollupMapper;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.service.CacheService;
+import me.shenyi0828.service.DailyRollupService;
+import me.shenyi0828.store.TransactionStore;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按天汇总
+ * 写操作在同一个事务里按 (创建日, 类型) 的差值更新 transaction_daily_rollup；每个 (日, 类型) 拆成 16 个槽，
+ * 一次写操作随机选一个槽，当天的并发写分散在不同的行锁上。改类型或金额就是旧值减一笔、新值加一笔，同一组的合成一条。
+ * 读在 {@link TransactionReportServiceImpl} 里，结果缓存在 Redis，按版本号失效
+ *
+ * @author Yi
+ */
+@Slf4j
+@Service
+@Timed("transaction.service")
+public class DailyRollupServiceImpl implements DailyRollupService {
+
+    // 与 transaction_counter 的槽数一致
+    private static final int SLOTS = 16;
+
+    private final DailyRollupMapper dailyRollupMapper;
+    private final CacheService cacheService;
+
+    public DailyRollupServiceImpl(DailyRollupMapper dailyRollupMapper, CacheService cacheService) {
+        this.dailyRollupMapper = dailyRollupMapper;
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Collection<TransactionPO> transactions) {
+        Map<Key, Delta> deltas = new TreeMap<>();
+        for (TransactionPO transaction : transactions) {
+            delta(deltas, transaction).add(transaction, 1);
+        }
+        apply(deltas, randomSlot());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(TransactionPO before, TransactionPO after) {
+        Map<Key, Delta> deltas = new TreeMap<>();
+        delta(deltas, before).add(before, -1);
+        delta(deltas, after).add(after, 1);
+        apply(deltas, randomSlot());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(TransactionPO transaction) {
+        Map<Key, Delta> deltas = new TreeMap<>();
+        delta(deltas, transaction).add(transaction, -1);
+        apply(deltas, randomSlot());
+    }
+
+    /**
+     * 和 data.sql 里初始化的方式一致：全部放在 0 号槽。
+     * 整张表换了，提交后版本号加一，缓存里按旧表算的结果不再被读到（提交前加一的话，提交前查到的旧表会缓存到新版本下）
+     */
+    @Override
+    @Transactional
+    public void rebuild(TransactionStore transactionStore) {
+        Map<Key, Delta> deltas = new TreeMap<>();
+        transactionStore.exportAll(resultContext -> {
+            TransactionPO transaction = resultContext.getResultObject();
+            delta(deltas, transaction).add(transaction, 1);
+        });
+        dailyRollupMapper.deleteAll();
+        apply(deltas, 0);
+        log.info("Daily rollup rebuilt for {} day and type groups", deltas.size());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cacheService.bumpRollupVersion();
+                }
+            });
+        } else {
+            cacheService.bumpRollupVersion();
+        }
+    }
+
+    private static int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(SLOTS);
+    }
+
+    private static Delta delta(Map<Key, Delta> deltas, TransactionPO transaction) {
+        Key key = new Key(transaction.getCreatedAt().toLocalDate(), transaction.getTransactionType());
+        return deltas.computeIfAbsent(key, k -> new Delta());
+    }
+
+    /**
+     * 一次写操作只用一个槽，再按 (日, 类型) 顺序更新：同槽的事务加锁顺序一致，不会死锁，不同槽的互不阻塞
+     */
+    private void apply(Map<Key, Delta> deltas, int slot) {
+        for (Map.Entry<Key, Delta> entry : deltas.entrySet()) {
+            Key key = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.count == 0 && delta.amount == 0) {
+                // 只改了描述等字段，合计不变
+                continue;
+            }
+            try {
+                applyDelta(key, slot, delta);
+            } catch (DuplicateKeyException e) {
+                // 这个槽当天的第一笔被并发写入抢先插了行，再来一次就是 UPDATE
+                log.debug("Daily rollup row created concurrently, retrying: {} slot {}", key, slot);
+                applyDelta(key, slot, delta);
+            }
+        }
+    }
+
+    private void applyDelta(Key key, int slot, Delta delta) {
+        dailyRollupMapper.applyDelta(key.day(), key.transactionType(), slot, delta.count, delta.amount);
+    }
+
+    /**
+     * 汇总行的分组：创建日和交易类型
+     */
+    private record Key(LocalDate day, byte transactionType) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::day)
+                .thenComparing(Key::transactionType);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * 一组在本次写操作里的变化量
+     */
+    private static class Delta {
+
+        private long count;
+        private long amount;
+
+        void add(TransactionPO transaction, int sign) {
+            count += sign;
+            amount += (long) sign * transaction.getAmount();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package me.shenyi0828.service.impl;
+
+import me.shenyi0828.service.CacheEvictionBus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内的缓存失效广播，单机部署和测试用
+ *
+ * @author Yi
+ */
+public class LocalCacheEvictionBus implements CacheEvictionBus {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String cacheKey) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(cacheKey);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,93 @@
+package me.shenyi0828.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.service.CacheEvictionBus;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis pub/sub 的缓存失效广播
+ * pub/sub 不保留消息：连接断开到重新订阅之间发布的消息收不到，每次（重新）订阅成功都当作一次可能的缺口通知出去
+ *
+ * @author Yi
+ */
+@Slf4j
+public class RedisCacheEvictionBus implements CacheEvictionBus {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic topic;
+
+    public RedisCacheEvictionBus(StringRedisTemplate stringRedisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 String channel) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.topic = new ChannelTopic(channel);
+    }
+
+    @Override
+    public void publish(String cacheKey) {
+        stringRedisTemplate.convertAndSend(topic.getTopic(), cacheKey);
+        log.debug("Published cache eviction: {}", cacheKey);
+    }
+
+    @Override
+    public void publishAll(Collection<String> cacheKeys) {
+        if (cacheKeys.isEmpty()) {
+            return;
+        }
+        // 多条 PUBLISH 放进一个 pipeline，一次往返
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            cacheKeys.forEach(cacheKey -> stringConnection.publish(topic.getTopic(), cacheKey));
+            return null;
+        });
+        log.debug("Published {} cache evictions", cacheKeys.size());
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+                topic);
+    }
+
+    @Override
+    public void subscribeGaps(Runnable listener) {
+        listenerContainer.addMessageListener(new GapListener(listener), topic);
+    }
+
+    /**
+     * 只关心订阅通知，容器启动时的第一次订阅也算：订阅成功之前发布的消息同样收不到
+     */
+    private static class GapListener implements MessageListener, SubscriptionListener {
+
+        private final Runnable listener;
+
+        GapListener(Runnable listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            log.info("Subscribed to cache eviction channel {}, earlier broadcasts may have been missed",
+                    new String(channel, StandardCharsets.UTF_8));
+            listener.run();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package me.shenyi0828.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.service.TransactionIdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake 风格的交易号生成
+ * 64 位：41 位毫秒时间戳（从 2024-01-01 起）+ 10 位节点号 + 12 位毫秒内序号，
+ * 输出为 TXN + 19 位定长十进制，字符串顺序即时间顺序
+ *
+ * @author Yi
+ */
+@Slf4j
+@Component
+public class SnowflakeTransactionIdGenerator implements TransactionIdGenerator {
+
+    static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final String PREFIX = "TXN";
+    private static final int DIGITS = 19;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    // 高位是相对毫秒数，低 12 位是毫秒内序号，只增不减
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeTransactionIdGenerator(@Value("${transaction.id.node-id:0}") long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeTransactionIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        log.info("Transaction ID generator started with node id {}", nodeId);
+    }
+
+    @Override
+    public String nextId() {
+        return format(nextLong());
+    }
+
+    /**
+     * 生成数值形式的 ID
+     */
+    long nextLong() {
+        long state = nextState();
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * 新的毫秒用 CAS 把状态推到当前时间；同一毫秒内（或时钟回拨时）直接原子自增，
+     * 序号用完会进位到下一毫秒。每次返回的都是一次原子修改后的状态，所以不会重复，也没有锁
+     */
+    private long nextState() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            if (last >= now) {
+                return lastState.incrementAndGet();
+            }
+            if (lastState.compareAndSet(last, now)) {
+                return now;
+            }
+        }
+    }
+
+    /**
+     * 从本生成器格式的交易号里取出生成时间（epoch 毫秒），不是这个格式（如调用方自带的交易号）返回 -1
+     */
+    static long timestampMillis(String transactionId) {
+        if (transactionId.length() != PREFIX.length() + DIGITS || !transactionId.startsWith(PREFIX)) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < transactionId.length(); i++) {
+            char c = transactionId.charAt(i);
+            if (c < '0' || c > '9' || id > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * 定长十进制，避免 String.format
+     */
+    static String format(long id) {
+        char[] chars = new char[PREFIX.length() + DIGITS];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return new String(chars);
+    }
+}
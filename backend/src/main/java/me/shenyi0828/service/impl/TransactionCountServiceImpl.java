@@ -0,0 +1,102 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.mapper.TransactionCounterMapper;
+import me.shenyi0828.service.CacheInvalidationCallback;
+import me.shenyi0828.service.CacheInvalidationPipeline;
+import me.shenyi0828.service.TransactionCountService;
+import me.shenyi0828.store.TransactionStore;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 维护总条数
+ * 总数拆成 16 个槽（transaction_counter 表的 16 行），写操作在同一个事务里给随机一个槽加减，
+ * 并发写分散在不同的行锁上；读是 16 行主键求和，不再 COUNT(*) 全表。
+ * 定期对账：锁住所有槽再 COUNT(*)，有偏差（绕过服务直接改表等）就改正
+ *
+ * @author Yi
+ */
+@Slf4j
+@Service
+public class TransactionCountServiceImpl implements TransactionCountService {
+
+    // 与 schema.sql 里初始化的行数一致
+    private static final int SLOTS = 16;
+
+    private final TransactionCounterMapper transactionCounterMapper;
+    private final TransactionStore transactionStore;
+    private final CacheInvalidationPipeline cacheInvalidationPipeline;
+
+    private final Counter reconciledOk;
+    private final Counter reconciledDrift;
+
+    public TransactionCountServiceImpl(TransactionCounterMapper transactionCounterMapper,
+                                       TransactionStore transactionStore,
+                                       CacheInvalidationPipeline cacheInvalidationPipeline,
+                                       MeterRegistry meterRegistry) {
+        this.transactionCounterMapper = transactionCounterMapper;
+        this.transactionStore = transactionStore;
+        this.cacheInvalidationPipeline = cacheInvalidationPipeline;
+        this.reconciledOk = reconciliationsCounter(meterRegistry, "ok");
+        this.reconciledDrift = reconciliationsCounter(meterRegistry, "drift");
+    }
+
+    @Override
+    public long getTotalCount() {
+        return transactionCounterMapper.sumSlots();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(long delta) {
+        int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+        if (transactionCounterMapper.addToSlot(slot, delta) == 0) {
+            // 槽没初始化，总数会偏，等对账改正
+            log.warn("Transaction counter slot {} missing, total count will drift until reconciled", slot);
+        }
+    }
+
+    /**
+     * 先锁槽再数：正在写的事务要么已经加过槽（持有行锁，这里等它提交后再数），要么还没加（阻塞到对账提交后再加），不会算重也不会漏
+     */
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${transaction.count.reconcile-interval:PT5M}",
+            fixedDelayString = "${transaction.count.reconcile-interval:PT5M}")
+    public long reconcile() {
+        transactionCounterMapper.lockSlots();
+        long maintained = transactionCounterMapper.sumSlots();
+        long counted = transactionStore.countTotal();
+        if (maintained == counted) {
+            reconciledOk.increment();
+            log.debug("Transaction count reconciled: {}", counted);
+            return counted;
+        }
+
+        transactionCounterMapper.resetSlots(counted);
+        reconciledDrift.increment();
+        log.warn("Transaction count drifted: maintained {}, counted {}, corrected", maintained, counted);
+
+        // 缓存里可能是偏了的总数，提交后删掉
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new CacheInvalidationCallback(cacheInvalidationPipeline, null, null, true)
+            );
+        }
+        return counted;
+    }
+
+    private static Counter reconciliationsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transaction.count.reconciliations")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,200 @@
+package me.shenyi0828.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.common.ExportFormat;
+import me.shenyi0828.mapper.TransactionBeanMapper;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.service.TransactionExportService;
+import me.shenyi0828.store.TransactionStore;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 流式导出
+ * 用 ResultHandler 逐行读（mapper 里设了 fetchSize），每行转成 DTO 直接写到输出流，内存占用和总行数无关
+ *
+ * @author Yi
+ */
+@Slf4j
+@Service
+@Timed("transaction.service")
+public class TransactionExportServiceImpl implements TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "id,transactionId,amount,transactionType,accountNumber,counterpartyAccount,description,createdAt,updatedAt";
+
+    private final TransactionStore transactionStore;
+    private final ObjectWriter transactionWriter;
+
+    public TransactionExportServiceImpl(TransactionStore transactionStore, ObjectMapper objectMapper) {
+        this.transactionStore = transactionStore;
+        // 逐行 flush 太慢，交给 JsonGenerator 自己的缓冲
+        this.transactionWriter = objectMapper.writerFor(TransactionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTransactions(ExportFormat format, OutputStream outputStream) throws IOException {
+        log.info("Exporting transactions as {}", format);
+
+        RowWriter rowWriter = format == ExportFormat.CSV
+                ? new CsvRowWriter(outputStream)
+                : new NdjsonRowWriter(transactionWriter, outputStream);
+        ExportHandler exportHandler = new ExportHandler(rowWriter);
+
+        // 只读事务：有的驱动（如 PostgreSQL）只有在事务里 fetchSize 才生效
+        transactionStore.exportAll(exportHandler);
+        if (exportHandler.failure != null) {
+            log.warn("Export aborted after {} transactions: {}", exportHandler.count, exportHandler.failure.getMessage());
+            throw exportHandler.failure;
+        }
+        rowWriter.finish();
+
+        log.info("Exported {} transactions as {}", exportHandler.count, format);
+        return exportHandler.count;
+    }
+
+    /**
+     * 写失败（通常是客户端断开）时停止读取，异常留到查询结束后再抛，避免被 MyBatis 包装
+     */
+    private static class ExportHandler implements ResultHandler<TransactionPO> {
+
+        private final RowWriter rowWriter;
+        private long count;
+        private IOException failure;
+
+        ExportHandler(RowWriter rowWriter) {
+            this.rowWriter = rowWriter;
+        }
+
+        @Override
+        public void handleResult(ResultContext<? extends TransactionPO> resultContext) {
+            try {
+                rowWriter.write(TransactionBeanMapper.INSTANCE.poToDto(resultContext.getResultObject()));
+                count++;
+            } catch (IOException e) {
+                failure = e;
+                resultContext.stop();
+            }
+        }
+    }
+
+    private interface RowWriter {
+
+        void write(TransactionDTO transaction) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * 每行一个 JSON 对象，和接口返回的 JSON 格式一致
+     */
+    private static class NdjsonRowWriter implements RowWriter {
+
+        private final ObjectWriter transactionWriter;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(ObjectWriter transactionWriter, OutputStream outputStream) throws IOException {
+            this.transactionWriter = transactionWriter;
+            this.generator = transactionWriter.getFactory().createGenerator(outputStream);
+            // 不关闭底层的输出流，行之间不加默认的空格分隔
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(TransactionDTO transaction) throws IOException {
+            transactionWriter.writeValue(generator, transaction);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV，UTF-8
+     */
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream outputStream) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            this.writer.write(CSV_HEADER);
+            this.writer.write("\r\n");
+        }
+
+        @Override
+        public void write(TransactionDTO transaction) throws IOException {
+            writer.write(String.valueOf(transaction.getId()));
+            writer.write(',');
+            writeField(transaction.getTransactionId());
+            writer.write(',');
+            writer.write(String.valueOf(transaction.getAmount()));
+            writer.write(',');
+            writer.write(String.valueOf(transaction.getTransactionType()));
+            writer.write(',');
+            writeField(transaction.getAccountNumber());
+            writer.write(',');
+            writeField(transaction.getCounterpartyAccount());
+            writer.write(',');
+            writeField(transaction.getDescription());
+            writer.write(',');
+            writeTimestamp(transaction.getCreatedAt());
+            writer.write(',');
+            writeTimestamp(transaction.getUpdatedAt());
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeTimestamp(LocalDateTime timestamp) throws IOException {
+            if (timestamp != null) {
+                writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp));
+            }
+        }
+
+        // 含逗号、引号、换行的字段加引号，引号双写
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -1,44 +1,100 @@
 package me.shenyi0828.service.impl;
 
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
 import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.common.PageCursor;
 import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.common.SingleFlight;
 import me.shenyi0828.exception.BusinessException;
 import me.shenyi0828.exception.ErrorCode;
 import me.shenyi0828.mapper.TransactionBeanMapper;
-import me.shenyi0828.mapper.TransactionDataMapper;
+import me.shenyi0828.model.TransactionBatchItemResult;
 import me.shenyi0828.model.TransactionDTO;
 import me.shenyi0828.model.TransactionEditRequest;
 import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.service.AccountSummaryService;
 import me.shenyi0828.service.CacheInvalidationCallback;
+import me.shenyi0828.service.CacheInvalidationPipeline;
 import me.shenyi0828.service.CacheService;
+import me.shenyi0828.service.DailyRollupService;
+import me.shenyi0828.service.TransactionCountService;
+import me.shenyi0828.service.TransactionIdFilter;
+import me.shenyi0828.service.TransactionIdGenerator;
 import me.shenyi0828.service.TransactionService;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.validation.ValidationGroups;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 核心实现
+ * 所有公开方法按方法名计时（transaction.service）
  * @author Yi
  */
 @Slf4j
 @Service
+@Timed("transaction.service")
 public class TransactionServiceImpl implements TransactionService {
 
-    private final TransactionDataMapper transactionDataMapper;
+    private final TransactionStore transactionStore;
     private final CacheService cacheService;
+    private final Validator validator;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final AccountSummaryService accountSummaryService;
+    private final DailyRollupService dailyRollupService;
+    private final TransactionIdFilter transactionIdFilter;
+    private final TransactionCountService transactionCountService;
+    private final CacheInvalidationPipeline cacheInvalidationPipeline;
+
+    // 批量创建：单次最多条数
+    private static final int MAX_BATCH_SIZE = 1000;
+    // 批量查询：单次最多 ID 数
+    private static final int MAX_BULK_IDS = 100;
+    // 游标分页：每页最多条数，查询时还要多取一条
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // 缓存未命中时同一个 key 只放一个请求查库，其余等结果，避免缓存过期瞬间打爆数据库
+    private final SingleFlight<String, TransactionDTO> transactionLoads = new SingleFlight<>();
+    private final SingleFlight<String, Long> countLoads = new SingleFlight<>();
+    private static final String TOTAL_COUNT_FLIGHT = "total";
     
-    private static final AtomicLong counter = new AtomicLong(1);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
-    
-    public TransactionServiceImpl(TransactionDataMapper transactionDataMapper, CacheService cacheService) {
-        this.transactionDataMapper = transactionDataMapper;
+    public TransactionServiceImpl(TransactionStore transactionStore, CacheService cacheService, Validator validator,
+                                  TransactionIdGenerator transactionIdGenerator,
+                                  AccountSummaryService accountSummaryService,
+                                  DailyRollupService dailyRollupService,
+                                  TransactionIdFilter transactionIdFilter,
+                                  TransactionCountService transactionCountService,
+                                  CacheInvalidationPipeline cacheInvalidationPipeline) {
+        this.transactionStore = transactionStore;
         this.cacheService = cacheService;
+        this.validator = validator;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.accountSummaryService = accountSummaryService;
+        this.dailyRollupService = dailyRollupService;
+        this.transactionIdFilter = transactionIdFilter;
+        this.transactionCountService = transactionCountService;
+        this.cacheInvalidationPipeline = cacheInvalidationPipeline;
     }
 
     @Override
@@ -49,60 +105,172 @@ public class TransactionServiceImpl implements TransactionService {
         // 预处理 transactionId
         String transactionId = transactionEditRequest.getTransactionId();
         if (transactionId == null || transactionId.trim().isEmpty()) {
-            transactionId = generateTransactionId();
+            transactionId = transactionIdGenerator.nextId();
         }
         
-        // 如题意：防止重复
-        if (transactionDataMapper.existsByTransactionId(transactionId)) {
+        TransactionPO transactionPO = TransactionBeanMapper.INSTANCE.requestToPo(transactionEditRequest);
+        transactionPO.setTransactionId(transactionId);
+        // 时间戳由应用生成（截到微秒，和库里存的精度一致），插入后不用再回查
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        transactionPO.setCreatedAt(now);
+        transactionPO.setUpdatedAt(now);
+
+        int result;
+        try {
+            result = transactionStore.insert(transactionPO);
+        } catch (DuplicateKeyException e) {
+            // 如题意：防止重复，直接靠唯一索引兜底，省掉一次预查询
             log.warn("Transaction ID already exists: {}", transactionId);
             throw new BusinessException(ErrorCode.TRANSACTION_ALREADY_EXISTS);
         }
         
-        TransactionPO transactionPO = TransactionBeanMapper.INSTANCE.requestToPo(transactionEditRequest);
-        transactionPO.setTransactionId(transactionId);
-        int result = transactionDataMapper.insert(transactionPO);
-        
         if (result > 0) {
             log.info("Transaction created successfully with ID: {}", transactionPO.getId());
+            accountSummaryService.recordCreated(List.of(transactionPO));
+            dailyRollupService.recordCreated(List.of(transactionPO));
+            transactionCountService.recordChange(1);
+            // 提交前就加入：回滚了只是多一个误判，不会把刚建的交易判成不存在
+            transactionIdFilter.recordInserted(transactionId);
             
             // 确保在事务完成后执行
             if (TransactionSynchronizationManager.isSynchronizationActive()) {
                 TransactionSynchronizationManager.registerSynchronization(
-                    new CacheInvalidationCallback(cacheService, transactionId, true)
+                    new CacheInvalidationCallback(cacheInvalidationPipeline, List.of(transactionId),
+                            List.of(transactionPO.getAccountNumber()), true)
                 );
+                TransactionSynchronizationManager.registerSynchronization(recordInsertedAfterCommit(List.of(transactionId)));
             }
 
-            TransactionPO savedTransaction = transactionDataMapper.findByTransactionId(transactionId);
-            return TransactionBeanMapper.INSTANCE.poToDto(savedTransaction);
+            return TransactionBeanMapper.INSTANCE.poToDto(transactionPO);
         } else {
             log.error("Failed to create transaction for account: {}", transactionEditRequest.getAccountNumber());
             throw new BusinessException(ErrorCode.TRANSACTION_CREATE_FAILED);
         }
     }
 
+    @Override
+    @Transactional
+    public List<TransactionBatchItemResult> createTransactions(List<TransactionEditRequest> transactionEditRequests) {
+        if (transactionEditRequests == null || transactionEditRequests.isEmpty()
+                || transactionEditRequests.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                    "Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        log.info("Creating {} transactions in batch", transactionEditRequests.size());
+
+        TransactionBatchItemResult[] results = new TransactionBatchItemResult[transactionEditRequests.size()];
+        // transactionId -> 在请求里的下标，顺便去掉批内重复
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < transactionEditRequests.size(); i++) {
+            TransactionEditRequest request = transactionEditRequests.get(i);
+            String violations = validateForCreate(request);
+            if (violations != null) {
+                results[i] = rejected(i, request != null ? request.getTransactionId() : null,
+                        ErrorCode.INVALID_PARAMETER, "Validation failed: " + violations);
+                continue;
+            }
+
+            String transactionId = request.getTransactionId();
+            if (transactionId == null || transactionId.trim().isEmpty()) {
+                transactionId = transactionIdGenerator.nextId();
+            }
+            if (candidates.containsKey(transactionId)) {
+                results[i] = rejected(i, transactionId, ErrorCode.TRANSACTION_ALREADY_EXISTS,
+                        "Duplicate transaction ID in batch");
+                continue;
+            }
+            candidates.put(transactionId, i);
+        }
+
+        // 一次 IN 查询查出已存在的
+        if (!candidates.isEmpty()) {
+            for (String existingId : transactionStore.findExistingTransactionIds(candidates.keySet())) {
+                int index = candidates.remove(existingId);
+                results[index] = rejected(index, existingId, ErrorCode.TRANSACTION_ALREADY_EXISTS,
+                        ErrorCode.TRANSACTION_ALREADY_EXISTS.getMessage());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<TransactionPO> transactionPOs = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            TransactionPO transactionPO = TransactionBeanMapper.INSTANCE.requestToPo(
+                    transactionEditRequests.get(candidate.getValue()));
+            transactionPO.setTransactionId(candidate.getKey());
+            transactionPO.setCreatedAt(now);
+            transactionPO.setUpdatedAt(now);
+            transactionPOs.add(transactionPO);
+            results[candidate.getValue()] = TransactionBatchItemResult.builder()
+                    .index(candidate.getValue())
+                    .transactionId(candidate.getKey())
+                    .success(true)
+                    .build();
+        }
+
+        if (!transactionPOs.isEmpty()) {
+            try {
+                int inserted = transactionStore.insertBatch(transactionPOs);
+                log.info("Batch created {} transactions", inserted);
+                accountSummaryService.recordCreated(transactionPOs);
+                dailyRollupService.recordCreated(transactionPOs);
+                transactionCountService.recordChange(transactionPOs.size());
+                transactionPOs.forEach(transactionPO -> transactionIdFilter.recordInserted(transactionPO.getTransactionId()));
+            } catch (DuplicateKeyException e) {
+                // 查重之后被并发写入抢先了，整批回滚
+                log.warn("Transaction ID inserted concurrently during batch create: {}", e.getMessage());
+                throw new BusinessException(ErrorCode.TRANSACTION_ALREADY_EXISTS);
+            }
+
+            // 整批只失效一次
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                Set<String> accountNumbers = transactionPOs.stream()
+                        .map(TransactionPO::getAccountNumber)
+                        .collect(Collectors.toSet());
+                TransactionSynchronizationManager.registerSynchronization(
+                    new CacheInvalidationCallback(cacheInvalidationPipeline, new ArrayList<>(candidates.keySet()),
+                            accountNumbers, true)
+                );
+                TransactionSynchronizationManager.registerSynchronization(
+                    recordInsertedAfterCommit(new ArrayList<>(candidates.keySet())));
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
     @Override
     @Transactional
     public TransactionDTO updateTransaction(String transactionId, TransactionEditRequest transactionEditRequest) {
         log.info("Updating transaction with ID: {}", transactionId);
         
-        TransactionPO existingTransaction = transactionDataMapper.findByTransactionId(transactionId);
+        // 加锁读：并发修改同一笔时后来的等前一个提交，汇总的差值按真正被替换的旧值算
+        TransactionPO existingTransaction = transactionStore.findByTransactionIdForUpdate(transactionId);
         if (existingTransaction == null) {
             log.warn("Transaction not found with ID: {}", transactionId);
             throw new BusinessException(ErrorCode.TRANSACTION_NOT_FOUND);
         }
 
+        // 留一份旧值，汇总要减掉
+        TransactionPO previousTransaction = existingTransaction.toBuilder().build();
         TransactionBeanMapper.INSTANCE.updatePoFromRequest(transactionEditRequest, existingTransaction);
         existingTransaction.setTransactionId(transactionId);
+        // 账户号不能通过更新修改（update 语句也不写这一列），请求里没带时也不能被置空
+        existingTransaction.setAccountNumber(previousTransaction.getAccountNumber());
+        existingTransaction.setUpdatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         
-        int result = transactionDataMapper.update(existingTransaction);
+        int result = transactionStore.update(existingTransaction);
         
         if (result > 0) {
             log.info("Transaction updated successfully with ID: {}", transactionId);
+            accountSummaryService.recordUpdated(previousTransaction, existingTransaction);
+            dailyRollupService.recordUpdated(previousTransaction, existingTransaction);
 
             // 确保在事务完成后执行
             if (TransactionSynchronizationManager.isSynchronizationActive()) {
                 TransactionSynchronizationManager.registerSynchronization(
-                    new CacheInvalidationCallback(cacheService, transactionId, false)
+                    new CacheInvalidationCallback(cacheInvalidationPipeline, List.of(transactionId),
+                            List.of(existingTransaction.getAccountNumber()), false)
                 );
             }
             
@@ -118,21 +286,26 @@ public class TransactionServiceImpl implements TransactionService {
     public boolean deleteTransaction(String transactionId) {
         log.info("Deleting transaction with ID: {}", transactionId);
         
-        TransactionPO existingTransaction = transactionDataMapper.findByTransactionId(transactionId);
+        // 加锁读：并发修改同一笔时后来的等前一个提交，汇总的差值按真正被替换的旧值算
+        TransactionPO existingTransaction = transactionStore.findByTransactionIdForUpdate(transactionId);
         if (existingTransaction == null) {
             log.warn("Transaction not found with ID: {}", transactionId);
             throw new BusinessException(ErrorCode.TRANSACTION_NOT_FOUND);
         }
         
-        int result = transactionDataMapper.deleteByTransactionId(transactionId);
+        int result = transactionStore.deleteByTransactionId(transactionId);
         
         if (result > 0) {
             log.info("Transaction deleted successfully with ID: {}", transactionId);
+            accountSummaryService.recordDeleted(existingTransaction);
+            dailyRollupService.recordDeleted(existingTransaction);
+            transactionCountService.recordChange(-1);
 
             // 确保在事务完成后执行
             if (TransactionSynchronizationManager.isSynchronizationActive()) {
                 TransactionSynchronizationManager.registerSynchronization(
-                    new CacheInvalidationCallback(cacheService, transactionId, true)
+                    new CacheInvalidationCallback(cacheInvalidationPipeline, List.of(transactionId),
+                            List.of(existingTransaction.getAccountNumber()), true)
                 );
             }
             
@@ -146,21 +319,87 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public PageResponse<TransactionDTO> getAllTransactions(Integer page, Integer size) {
         log.debug("Getting all transactions - page: {}, size: {}", page, size);
+
+        // 先读 generation 再查库，写操作提交后 generation 加一，旧页就不会再被读到
+        String pageGeneration = cacheService.getPageGeneration();
+        if (pageGeneration != null) {
+            PageResponse<TransactionDTO> cachedPage = cacheService.getPage(pageGeneration, page, size);
+            if (cachedPage != null) {
+                return cachedPage;
+            }
+        }
         
         int offset = page * size;
         
-        List<TransactionPO> transactionPOs = transactionDataMapper.findAllWithPagination(offset, size);
+        List<TransactionPO> transactionPOs = transactionStore.findAllWithPagination(offset, size);
 
         Long totalCount = cacheService.getTotalCount();
         if (totalCount == null) {
-            totalCount = transactionDataMapper.countTotal();
-            cacheService.setTotalCount(totalCount);
-            log.debug("Total count cached: {}", totalCount);
+            totalCount = countLoads.execute(TOTAL_COUNT_FLIGHT, this::loadTotalCount);
         }
         
         List<TransactionDTO> transactionDTOs = TransactionBeanMapper.INSTANCE.poListToDtoList(transactionPOs);
+        PageResponse<TransactionDTO> pageResponse = PageResponse.of(transactionDTOs, totalCount, page, size);
+
+        if (pageGeneration != null) {
+            cacheService.setPage(pageGeneration, page, size, pageResponse);
+        }
         
-        return PageResponse.of(transactionDTOs, totalCount, page, size);
+        return pageResponse;
+    }
+
+    @Override
+    public PageResponse<TransactionDTO> getTransactionsByCursor(String cursor, Integer size) {
+        log.debug("Getting transactions by cursor - cursor: {}, size: {}", cursor, size);
+
+        if (size == null || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                    "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        PageCursor pageCursor = (cursor == null || cursor.isEmpty()) ? null : PageCursor.decode(cursor);
+
+        // 多取一条，用来判断是否还有下一页
+        List<TransactionPO> transactionPOs = transactionStore.findAllByCursor(
+                pageCursor != null ? pageCursor.getCreatedAt() : null,
+                pageCursor != null ? pageCursor.getId() : null,
+                size + 1);
+
+        return toCursorPage(transactionPOs, size, pageCursor == null);
+    }
+
+    @Override
+    public PageResponse<TransactionDTO> getAccountTransactions(String accountNumber, String cursor, Integer size) {
+        log.debug("Getting transactions of account {} - cursor: {}, size: {}", accountNumber, cursor, size);
+
+        if (size == null || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                    "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        PageCursor pageCursor = (cursor == null || cursor.isEmpty()) ? null : PageCursor.decode(cursor);
+
+        // 只缓存首页；先读账户版本号再查库，该账户有写操作提交后版本号加一，旧首页不会再被读到，也写不回去
+        String accountVersion = pageCursor == null ? cacheService.getAccountVersion(accountNumber) : null;
+        if (accountVersion != null) {
+            PageResponse<TransactionDTO> cachedPage = cacheService.getAccountFirstPage(accountVersion, accountNumber, size);
+            if (cachedPage != null) {
+                return cachedPage;
+            }
+        }
+
+        List<TransactionPO> transactionPOs = transactionStore.findByAccountNumberByCursor(accountNumber,
+                pageCursor != null ? pageCursor.getCreatedAt() : null,
+                pageCursor != null ? pageCursor.getId() : null,
+                size + 1);
+
+        PageResponse<TransactionDTO> pageResponse = toCursorPage(transactionPOs, size, pageCursor == null);
+
+        if (accountVersion != null) {
+            cacheService.setAccountFirstPage(accountVersion, accountNumber, size, pageResponse);
+        }
+
+        return pageResponse;
     }
 
     @Override
@@ -173,7 +412,67 @@ public class TransactionServiceImpl implements TransactionService {
             return cachedTransaction;
         }
 
-        TransactionPO transactionPO = transactionDataMapper.findByTransactionId(transactionId);
+        // 布隆过滤器判定不存在的直接返回，不查库
+        if (!transactionIdFilter.mightExist(transactionId)) {
+            log.debug("Transaction ID rejected by filter: {}", transactionId);
+            throw new BusinessException(ErrorCode.TRANSACTION_NOT_FOUND);
+        }
+
+        return transactionLoads.execute(transactionId, () -> loadTransaction(transactionId));
+    }
+
+    @Override
+    public List<TransactionDTO> getTransactionsByIds(List<String> transactionIds) {
+        if (transactionIds == null || transactionIds.isEmpty() || transactionIds.size() > MAX_BULK_IDS) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                    "Number of IDs must be between 1 and " + MAX_BULK_IDS);
+        }
+        log.debug("Getting {} transactions by ID", transactionIds.size());
+
+        // 去重，保持请求顺序
+        Set<String> uniqueIds = new LinkedHashSet<>(transactionIds);
+
+        // 命中的一次 MGET 拿回
+        Map<String, TransactionDTO> found = new HashMap<>(cacheService.getTransactions(uniqueIds));
+
+        // 未命中的一次 IN 查询，再一次 pipeline 回填缓存
+        List<String> missingIds = new ArrayList<>();
+        for (String transactionId : uniqueIds) {
+            if (!found.containsKey(transactionId) && transactionIdFilter.mightExist(transactionId)) {
+                missingIds.add(transactionId);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            Map<String, TransactionDTO> loaded = new HashMap<>();
+            for (TransactionPO transactionPO : transactionStore.findByTransactionIds(missingIds)) {
+                loaded.put(transactionPO.getTransactionId(), TransactionBeanMapper.INSTANCE.poToDto(transactionPO));
+            }
+            cacheService.setTransactions(loaded);
+            found.putAll(loaded);
+            log.debug("Loaded {} of {} missing transactions from database", loaded.size(), missingIds.size());
+        }
+
+        return uniqueIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean existsByTransactionId(String transactionId) {
+        log.debug("Checking if transaction exists with ID: {}", transactionId);
+
+        if (!transactionIdFilter.mightExist(transactionId)) {
+            return false;
+        }
+        return transactionStore.existsByTransactionId(transactionId);
+    }
+    
+    /**
+     * 未命中时的加载，经 SingleFlight 调用，同一个 ID 并发时只执行一次
+     */
+    private TransactionDTO loadTransaction(String transactionId) {
+        TransactionPO transactionPO = transactionStore.findByTransactionId(transactionId);
         if (transactionPO == null) {
             log.warn("Transaction not found with ID: {}", transactionId);
             throw new BusinessException(ErrorCode.TRANSACTION_NOT_FOUND);
@@ -187,20 +486,69 @@ public class TransactionServiceImpl implements TransactionService {
         return transactionDTO;
     }
 
-    @Override
-    public boolean existsByTransactionId(String transactionId) {
-        log.debug("Checking if transaction exists with ID: {}", transactionId);
-        
-        return transactionDataMapper.existsByTransactionId(transactionId);
+    // 维护的总数（16 行求和），不 COUNT(*) 全表
+    private Long loadTotalCount() {
+        Long totalCount = transactionCountService.getTotalCount();
+        cacheService.setTotalCount(totalCount);
+        log.debug("Total count cached: {}", totalCount);
+        return totalCount;
     }
-    
+
+    /**
+     * 提交后把新 ID 再加一次布隆过滤器。
+     * 提交前加入的 ID 可能赶上一次重建：重建扫描看不到未提交的行，换上去的新过滤器就没有它，
+     * 提交后再加进当前（或正在建的）过滤器才不会把已存在的交易判成不存在
+     */
+    private TransactionSynchronization recordInsertedAfterCommit(Collection<String> transactionIds) {
+        return new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                transactionIds.forEach(transactionIdFilter::recordInserted);
+            }
+        };
+    }
+
+    /**
+     * 查询时多取了一条，有多的就截掉并用本页最后一条生成下一页游标
+     */
+    private static PageResponse<TransactionDTO> toCursorPage(List<TransactionPO> transactionPOs, int size, boolean first) {
+        String nextCursor = null;
+        if (transactionPOs.size() > size) {
+            transactionPOs = transactionPOs.subList(0, size);
+            TransactionPO lastPO = transactionPOs.get(size - 1);
+            nextCursor = new PageCursor(lastPO.getCreatedAt(), lastPO.getId()).encode();
+        }
+
+        List<TransactionDTO> transactionDTOs = TransactionBeanMapper.INSTANCE.poListToDtoList(transactionPOs);
+
+        return PageResponse.ofCursor(transactionDTOs, size, first, nextCursor);
+    }
+
     /**
-     * 唯一值生成
-     * 格式: TXN + YYYYMMDD + 4位 SEQ
+     * 按新增场景校验，返回拼好的错误信息，通过时返回 null
      */
-    private String generateTransactionId() {
-        String dateStr = LocalDateTime.now().format(DATE_FORMATTER);
-        long sequence = counter.getAndIncrement();
-        return String.format("TXN%s%04d", dateStr, sequence % 10000);
+    private String validateForCreate(TransactionEditRequest request) {
+        if (request == null) {
+            return "item cannot be null";
+        }
+        Set<ConstraintViolation<TransactionEditRequest>> violations =
+                validator.validate(request, ValidationGroups.Create.class, Default.class);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining(", "));
     }
+
+    private static TransactionBatchItemResult rejected(int index, String transactionId, ErrorCode errorCode, String message) {
+        return TransactionBatchItemResult.builder()
+                .index(index)
+                .transactionId(transactionId)
+                .success(false)
+                .code(errorCode.getCode())
+                .message(message)
+                .build();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.common.MpscRingBuffer;
+import me.shenyi0828.config.IngestProperties;
+import me.shenyi0828.model.TransactionBatchItemResult;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.service.TransactionIdGenerator;
+import me.shenyi0828.service.TransactionIngestService;
+import me.shenyi0828.service.TransactionService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 写后置的批量入库
+ * 请求线程只分配交易ID、放进无锁环形队列就返回；一个写线程把队列里的请求攒成一批，
+ * 调用 {@link TransactionService#createTransactions} 在一个事务里多行 INSERT，一次提交摊到整批上。
+ * 一批在攒满 flush-size 或等满 flush-interval 时写出，空闲时写线程每个 flush-interval 醒一次，
+ * 所以一条请求从受理到落库最多约两个 flush-interval。
+ * 队列满时直接拒绝（接口返回 429），不阻塞请求线程。
+ * 持久性：受理不等于落库，进程崩溃会丢掉队列里还没写出的请求；正常关闭时会先把队列写完
+ *
+ * @author Yi
+ */
+@Slf4j
+public class WriteBehindTransactionIngestService implements TransactionIngestService {
+
+    // createTransactions 单批上限
+    private static final int MAX_FLUSH_SIZE = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private final TransactionService transactionService;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final MpscRingBuffer<TransactionEditRequest> buffer;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final long retryAfterSeconds;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter failed;
+    private final DistributionSummary batchSizes;
+
+    public WriteBehindTransactionIngestService(TransactionService transactionService,
+                                               TransactionIdGenerator transactionIdGenerator,
+                                               IngestProperties ingestProperties, MeterRegistry meterRegistry) {
+        this.transactionService = transactionService;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.buffer = new MpscRingBuffer<>(ingestProperties.getCapacity());
+        this.flushSize = Math.max(1, Math.min(ingestProperties.getFlushSize(), MAX_FLUSH_SIZE));
+        this.flushIntervalNanos = ingestProperties.getFlushInterval().toNanos();
+        // 队列满说明写线程跟不上，至少等一轮写出再来
+        this.retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(2 * flushIntervalNanos));
+
+        Gauge.builder("transaction.ingest.buffer", buffer, MpscRingBuffer::size)
+                .description("Accepted transactions not yet written")
+                .register(meterRegistry);
+        this.accepted = requestsCounter(meterRegistry, "accepted");
+        this.rejected = requestsCounter(meterRegistry, "rejected");
+        this.written = writesCounter(meterRegistry, "ok");
+        this.failed = writesCounter(meterRegistry, "failed");
+        this.batchSizes = DistributionSummary.builder("transaction.ingest.batch")
+                .description("Transactions written per database transaction")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::run, "transaction-ingest-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public String submit(TransactionEditRequest transactionEditRequest) {
+        String transactionId = transactionEditRequest.getTransactionId();
+        if (transactionId == null || transactionId.trim().isEmpty()) {
+            transactionId = transactionIdGenerator.nextId();
+            transactionEditRequest.setTransactionId(transactionId);
+        }
+
+        if (!running || !buffer.offer(transactionEditRequest)) {
+            rejected.increment();
+            return null;
+        }
+        accepted.increment();
+        // 攒够一批就叫醒写线程，不够的等它定时醒来
+        if (buffer.size() >= flushSize) {
+            LockSupport.unpark(writer);
+        }
+        return transactionId;
+    }
+
+    @Override
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * 停止受理，等写线程把队列里剩下的写完
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (!buffer.isEmpty()) {
+            log.error("Ingest writer did not finish in time, {} accepted transactions not written", buffer.size());
+        }
+    }
+
+    private void run() {
+        List<TransactionEditRequest> batch = new ArrayList<>(flushSize);
+        long deadline = 0;
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            int drained = buffer.drain(batch::add, flushSize - batch.size());
+            long now = System.nanoTime();
+            if (!batch.isEmpty() && deadline == 0) {
+                // 一批从第一条被取出时开始计时
+                deadline = now + flushIntervalNanos;
+            }
+            if (batch.size() >= flushSize || (!batch.isEmpty() && (now >= deadline || !running))) {
+                write(batch);
+                batch = new ArrayList<>(flushSize);
+                deadline = 0;
+                continue;
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(batch.isEmpty() ? flushIntervalNanos : deadline - now);
+            }
+        }
+    }
+
+    private void write(List<TransactionEditRequest> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<TransactionBatchItemResult> results = transactionService.createTransactions(batch);
+            for (TransactionBatchItemResult result : results) {
+                if (Boolean.TRUE.equals(result.getSuccess())) {
+                    written.increment();
+                } else {
+                    failed.increment();
+                    // 已经给客户端返回了受理，这里只能记下来
+                    log.warn("Ingested transaction {} rejected at write: {}", result.getTransactionId(), result.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            // 整批回滚（查重后被并发写入抢先、数据库异常等），逐条重写，只丢真正写不进去的
+            log.warn("Ingest batch of {} failed, writing one by one: {}", batch.size(), e.getMessage());
+            for (TransactionEditRequest request : batch) {
+                writeOne(request);
+            }
+        }
+    }
+
+    private void writeOne(TransactionEditRequest request) {
+        try {
+            transactionService.createTransaction(request);
+            written.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Ingested transaction {} lost: {}", request.getTransactionId(), e.getMessage());
+        }
+    }
+
+    private static Counter requestsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transaction.ingest.requests")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter writesCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transaction.ingest.writes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
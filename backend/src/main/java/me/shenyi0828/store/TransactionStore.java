@@ -0,0 +1,147 @@
+package me.shenyi0828.store;
+
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.model.TransactionTotalsPO;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transaction Store
+ * Storage SPI for the transactions table, selected by transaction.store.engine
+ * Writes made inside a Spring transaction are undone when it rolls back
+ */
+public interface TransactionStore {
+
+    /**
+     * Insert a new transaction and assign its id, timestamps must be set by the caller
+     * @param transaction transaction to insert
+     * @return number of affected rows
+     * @throws org.springframework.dao.DuplicateKeyException when the transaction ID is already taken
+     */
+    int insert(TransactionPO transaction);
+
+    /**
+     * Insert several transactions, timestamps must be set by the caller
+     * @param transactions transactions to insert
+     * @return number of affected rows
+     * @throws org.springframework.dao.DuplicateKeyException when any transaction ID is already taken
+     */
+    int insertBatch(List<TransactionPO> transactions);
+
+    /**
+     * Delete transaction by transaction ID
+     * @param transactionId transaction ID
+     * @return number of affected rows
+     */
+    int deleteByTransactionId(String transactionId);
+
+    /**
+     * Update amount, type, description and updatedAt by transaction ID, updatedAt must be set by the caller
+     * @param transaction transaction with updated data
+     * @return number of affected rows
+     */
+    int update(TransactionPO transaction);
+
+    /**
+     * Select transaction by transaction ID
+     * @param transactionId transaction ID
+     * @return transaction or null if not found
+     */
+    TransactionPO findByTransactionId(String transactionId);
+
+    /**
+     * Select transaction by transaction ID and hold a write lock on that ID until the surrounding transaction ends,
+     * so the row read is the one the following update or delete replaces. Other writers of the ID wait
+     * @param transactionId transaction ID
+     * @return transaction or null if not found
+     * @throws org.springframework.dao.CannotAcquireLockException when the lock is not granted in time
+     */
+    TransactionPO findByTransactionIdForUpdate(String transactionId);
+
+    /**
+     * Select transactions by transaction IDs
+     * @param transactionIds transaction IDs
+     * @return the found transactions, in no particular order
+     */
+    List<TransactionPO> findByTransactionIds(Collection<String> transactionIds);
+
+    /**
+     * Check if transaction exists by transaction ID
+     * @param transactionId transaction ID
+     * @return true if exists, false otherwise
+     */
+    boolean existsByTransactionId(String transactionId);
+
+    /**
+     * Find which of the given transaction IDs already exist
+     * @param transactionIds transaction IDs to check
+     * @return the existing transaction IDs
+     */
+    List<String> findExistingTransactionIds(Collection<String> transactionIds);
+
+    /**
+     * Find all transactions with pagination, newest first
+     * @param offset starting position
+     * @param limit number of records
+     * @return list of transactions
+     */
+    List<TransactionPO> findAllWithPagination(int offset, int limit);
+
+    /**
+     * Find transactions after the given (createdAt, id) position, newest first
+     * @param cursorCreatedAt createdAt of the last row of the previous page, null for the first page
+     * @param cursorId id of the last row of the previous page, null for the first page
+     * @param limit number of records
+     * @return list of transactions
+     */
+    List<TransactionPO> findAllByCursor(LocalDateTime cursorCreatedAt, Long cursorId, int limit);
+
+    /**
+     * Find transactions of one account after the given (createdAt, id) position, newest first
+     * @param accountNumber account number
+     * @param cursorCreatedAt createdAt of the last row of the previous page, null for the first page
+     * @param cursorId id of the last row of the previous page, null for the first page
+     * @param limit number of records
+     * @return list of transactions
+     */
+    List<TransactionPO> findByAccountNumberByCursor(String accountNumber, LocalDateTime cursorCreatedAt,
+                                                    Long cursorId, int limit);
+
+    /**
+     * Count total transactions
+     * @return total count
+     */
+    Long countTotal();
+
+    /**
+     * Sum income and expense per day of creation, over the transactions created in [from, to)
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     * @return one row per day that has transactions, oldest day first
+     */
+    List<TransactionTotalsPO> sumByDay(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Sum income and expense per account, over the transactions created in [from, to)
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     * @return one row per account that has transactions, ordered by account number
+     */
+    List<TransactionTotalsPO> sumByAccount(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Stream all transactions in ascending id order to the handler, one row at a time.
+     * Every engine follows the same order, so exports, snapshots and loading one engine from another are reproducible
+     * @param resultHandler receives each row, may stop the scan early
+     */
+    void exportAll(ResultHandler<TransactionPO> resultHandler);
+
+    /**
+     * Stream every transaction ID to the handler, one row at a time
+     * @param resultHandler receives each transaction ID
+     */
+    void scanTransactionIds(ResultHandler<String> resultHandler);
+}
@@ -0,0 +1,501 @@
+package me.shenyi0828.store.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.model.TransactionTotalsPO;
+import me.shenyi0828.store.TransactionStore;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * 给进程内存储加上预写日志和快照，重启后从磁盘恢复，不再重新装载 data.sql
+ * 写操作：在内存里生效的同时往当前日志段追加一条记录（同一把锁里，日志顺序就是生效顺序），事务提交前写一条提交记录并等它落盘（组提交，
+ * 见 {@link WriteAheadLog}），落盘失败则事务回滚；回滚的事务没有提交记录，恢复时跳过。数据库提交在日志之后失败时补一条作废记录。
+ * 快照：定期把全部数据写成一个快照文件，同时换一个新的日志段，之前的段和快照随后删除。做快照时持有写锁，
+ * 等进行中的写事务结束并挡住新的（事务从第一次写交易表起持有读锁），所以快照里只有已提交的数据；这段时间写操作会停顿，读不受影响。
+ * 恢复：内存映射读取最新的快照，再按顺序重放之后各段里已提交的记录；没有任何文件时从数据库装载初始数据并立即做一次快照。
+ * 账户汇总和计数在 H2 里，启动时按恢复出的数据重建
+ *
+ * @author Yi
+ */
+@Slf4j
+public class DurableTransactionStore implements TransactionStore {
+
+    private static final byte INSERT = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+    private static final byte COMMIT = 4;
+    private static final byte ABORT = 5;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    // 快照等进行中的写事务结束的最长时间。写事务可能在等别的事务持有的数据库行锁，超时就跳过这一轮，不会互相卡死
+    private static final long SNAPSHOT_LOCK_TIMEOUT_SECONDS = 10;
+
+    private final InProcessTransactionStore delegate;
+    private final Path directory;
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+    private final ReentrantLock writeOrder = new ReentrantLock();
+    private final AtomicLong transactionSequence = new AtomicLong();
+    // 换段时持有 gate 写锁，写操作持有读锁时读到的段不会变
+    private volatile WriteAheadLog writeAheadLog;
+    private long segment;
+    private boolean closed;
+
+    // Metrics
+    private final Timer syncTimer;
+    private final Counter commits;
+    private final Timer snapshotTimer;
+
+    public DurableTransactionStore(InProcessTransactionStore delegate, Path directory, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.directory = directory;
+        this.syncTimer = Timer.builder("transaction.store.wal.sync")
+                .description("Transaction log fsyncs, each one covering every commit appended before it")
+                .register(meterRegistry);
+        this.commits = Counter.builder("transaction.store.wal.commits")
+                .description("Transactions committed to the transaction log")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("transaction.store.snapshot")
+                .description("Snapshots written, writes pause while one is taken")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 从快照和日志恢复；目录里还没有快照时从 initialSource 装载并立即做一次快照
+     */
+    public void open(TransactionStore initialSource) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        // 没写完的快照
+        try (DirectoryStream<Path> temporaryFiles = Files.newDirectoryStream(directory, "*.tmp")) {
+            for (Path path : temporaryFiles) {
+                Files.delete(path);
+            }
+        }
+        TreeMap<Long, Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        TreeMap<Long, Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        // 首次装载成功后至少会留下一个快照。只有日志段没有快照，说明上次首次装载没做完快照就退出了：
+        // open 返回前不接受写入，这些段里没有数据，删掉重新从 initialSource 装载
+        boolean firstStart = snapshots.isEmpty();
+        if (firstStart) {
+            for (Path path : segments.values()) {
+                Files.delete(path);
+            }
+            segments.clear();
+        }
+
+        long rows = 0;
+        long firstSegment = 0;
+        if (!snapshots.isEmpty()) {
+            rows = StoreSnapshot.read(snapshots.lastEntry().getValue(), delegate::put);
+            firstSegment = snapshots.lastKey();
+        }
+        long records = 0;
+        for (Path path : segments.tailMap(firstSegment, true).values()) {
+            records += replay(path);
+        }
+
+        segment = Math.max(snapshots.isEmpty() ? 0 : snapshots.lastKey(),
+                segments.isEmpty() ? 0 : segments.lastKey()) + 1;
+        writeAheadLog = WriteAheadLog.create(path(SEGMENT_PREFIX, segment, SEGMENT_SUFFIX), syncTimer);
+        if (firstStart) {
+            delegate.load(initialSource);
+            snapshot();
+            log.info("Transaction store initialized from the database in {} ms, snapshot written to {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), directory);
+            return;
+        }
+        log.info("Transaction store recovered in {} ms: {} rows from snapshot, {} log records replayed",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rows, records);
+    }
+
+    /**
+     * 写快照并换新的日志段，之后删除旧的段和快照
+     */
+    public void snapshot() {
+        long start = System.nanoTime();
+        try {
+            if (!gate.writeLock().tryLock(SNAPSHOT_LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Snapshot skipped: write transactions did not finish within {} s", SNAPSHOT_LOCK_TIMEOUT_SECONDS);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long next = segment + 1;
+        long rows;
+        try {
+            WriteAheadLog previous = writeAheadLog;
+            writeAheadLog = WriteAheadLog.create(path(SEGMENT_PREFIX, next, SEGMENT_SUFFIX), syncTimer);
+            segment = next;
+            previous.close();
+            // 快照里是 next 段之前的全部数据，next 段从空开始
+            rows = StoreSnapshot.write(path(SNAPSHOT_PREFIX, next, SNAPSHOT_SUFFIX), delegate);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Failed to write transaction store snapshot", e);
+        } finally {
+            gate.writeLock().unlock();
+        }
+        snapshotTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        deleteBefore(next);
+        log.info("Transaction store snapshot {} written: {} rows in {} ms", next, rows,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 上次快照之后有写入才做
+     */
+    @Scheduled(initialDelayString = "${transaction.store.durable.snapshot-interval:PT30M}",
+            fixedDelayString = "${transaction.store.durable.snapshot-interval:PT30M}")
+    public void snapshotIfChanged() {
+        if (writeAheadLog.size() > StoreRecords.HEADER_BYTES) {
+            snapshot();
+        }
+    }
+
+    /**
+     * 关闭前做一次快照，下次启动不用重放日志
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        snapshotIfChanged();
+        writeAheadLog.close();
+    }
+
+    @Override
+    public int insert(TransactionPO transaction) {
+        lockForWrite(transaction.getTransactionId());
+        return write(() -> delegate.insert(transaction),
+                transactionId -> append(INSERT, transactionId, out -> StoreRecords.writeTransaction(out, transaction)));
+    }
+
+    @Override
+    public int insertBatch(List<TransactionPO> transactions) {
+        transactions.forEach(transaction -> lockForWrite(transaction.getTransactionId()));
+        return write(() -> delegate.insertBatch(transactions), transactionId -> {
+            for (TransactionPO transaction : transactions) {
+                append(INSERT, transactionId, out -> StoreRecords.writeTransaction(out, transaction));
+            }
+        });
+    }
+
+    @Override
+    public int deleteByTransactionId(String transactionId) {
+        lockForWrite(transactionId);
+        return write(() -> delegate.deleteByTransactionId(transactionId),
+                logId -> append(DELETE, logId, out -> StoreRecords.writeString(out, transactionId)));
+    }
+
+    @Override
+    public int update(TransactionPO transaction) {
+        lockForWrite(transaction.getTransactionId());
+        return write(() -> delegate.update(transaction), transactionId -> append(UPDATE, transactionId, out -> {
+            StoreRecords.writeString(out, transaction.getTransactionId());
+            out.putInt(transaction.getAmount());
+            out.put(transaction.getTransactionType());
+            out.putLong(StoreSupport.toMicros(transaction.getUpdatedAt()));
+            StoreRecords.writeString(out, transaction.getDescription());
+        }));
+    }
+
+    @Override
+    public TransactionPO findByTransactionId(String transactionId) {
+        return delegate.findByTransactionId(transactionId);
+    }
+
+    @Override
+    public TransactionPO findByTransactionIdForUpdate(String transactionId) {
+        return delegate.findByTransactionIdForUpdate(transactionId);
+    }
+
+    @Override
+    public List<TransactionPO> findByTransactionIds(Collection<String> transactionIds) {
+        return delegate.findByTransactionIds(transactionIds);
+    }
+
+    @Override
+    public boolean existsByTransactionId(String transactionId) {
+        return delegate.existsByTransactionId(transactionId);
+    }
+
+    @Override
+    public List<String> findExistingTransactionIds(Collection<String> transactionIds) {
+        return delegate.findExistingTransactionIds(transactionIds);
+    }
+
+    @Override
+    public List<TransactionPO> findAllWithPagination(int offset, int limit) {
+        return delegate.findAllWithPagination(offset, limit);
+    }
+
+    @Override
+    public List<TransactionPO> findAllByCursor(LocalDateTime cursorCreatedAt, Long cursorId, int limit) {
+        return delegate.findAllByCursor(cursorCreatedAt, cursorId, limit);
+    }
+
+    @Override
+    public List<TransactionPO> findByAccountNumberByCursor(String accountNumber, LocalDateTime cursorCreatedAt,
+                                                           Long cursorId, int limit) {
+        return delegate.findByAccountNumberByCursor(accountNumber, cursorCreatedAt, cursorId, limit);
+    }
+
+    @Override
+    public Long countTotal() {
+        return delegate.countTotal();
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByDay(LocalDateTime from, LocalDateTime to) {
+        return delegate.sumByDay(from, to);
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByAccount(LocalDateTime from, LocalDateTime to) {
+        return delegate.sumByAccount(from, to);
+    }
+
+    @Override
+    public void exportAll(ResultHandler<TransactionPO> resultHandler) {
+        delegate.exportAll(resultHandler);
+    }
+
+    @Override
+    public void scanTransactionIds(ResultHandler<String> resultHandler) {
+        delegate.scanTransactionIds(resultHandler);
+    }
+
+    /**
+     * 写之前先拿到 delegate 上这个 ID 的写锁：在 write 里持有 writeOrder 时等别的事务的写锁，
+     * 那个事务的下一次写又要等 writeOrder，两边都只能等到超时
+     */
+    private void lockForWrite(String transactionId) {
+        if (transactionId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            delegate.lockForWrite(transactionId);
+        }
+    }
+
+    /**
+     * 在 Spring 事务里只记录，提交前统一落盘；没有事务时自己就是一个事务，立即落盘
+     */
+    private int write(IntSupplier operation, LogWriter logWriter) {
+        TransactionLog transactionLog = TransactionSynchronizationManager.isSynchronizationActive()
+                ? joinTransaction() : null;
+        if (transactionLog == null) {
+            gate.readLock().lock();
+        }
+        try {
+            long transactionId = transactionLog != null ? transactionLog.id : transactionSequence.incrementAndGet();
+            int affected;
+            writeOrder.lock();
+            try {
+                affected = operation.getAsInt();
+                if (affected > 0) {
+                    logWriter.write(transactionId);
+                }
+            } finally {
+                writeOrder.unlock();
+            }
+            if (affected > 0) {
+                if (transactionLog != null) {
+                    transactionLog.logged = true;
+                } else {
+                    commit(transactionId);
+                }
+            }
+            return affected;
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Failed to write transaction log", e);
+        } finally {
+            if (transactionLog == null) {
+                gate.readLock().unlock();
+            }
+        }
+    }
+
+    private TransactionLog joinTransaction() {
+        TransactionLog transactionLog = (TransactionLog) TransactionSynchronizationManager.getResource(this);
+        if (transactionLog == null) {
+            gate.readLock().lock();
+            transactionLog = new TransactionLog(transactionSequence.incrementAndGet());
+            TransactionSynchronizationManager.bindResource(this, transactionLog);
+            TransactionSynchronizationManager.registerSynchronization(transactionLog);
+        }
+        return transactionLog;
+    }
+
+    private long append(byte kind, long transactionId, Consumer<ByteBuffer> content) throws IOException {
+        return writeAheadLog.append(kind, transactionId, content);
+    }
+
+    private void commit(long transactionId) throws IOException {
+        writeAheadLog.awaitDurable(append(COMMIT, transactionId, out -> {
+        }));
+        commits.increment();
+    }
+
+    /**
+     * 重放一个日志段里已提交的记录：先找出作废的事务，再按日志顺序应用有提交记录的事务
+     */
+    private long replay(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            StoreRecords.readHeader(channel, WriteAheadLog.MAGIC, path);
+            Set<Long> committed = new HashSet<>();
+            Set<Long> aborted = new HashSet<>();
+            long end = StoreRecords.read(channel, content -> {
+                byte kind = content.get(0);
+                if (kind == COMMIT) {
+                    committed.add(content.getLong(1));
+                } else if (kind == ABORT) {
+                    aborted.add(content.getLong(1));
+                }
+            });
+            committed.removeAll(aborted);
+
+            long[] applied = {0};
+            StoreRecords.read(channel, content -> {
+                byte kind = content.get();
+                if (committed.contains(content.getLong()) && kind != COMMIT && kind != ABORT) {
+                    apply(kind, content);
+                    applied[0]++;
+                }
+            });
+            if (end < channel.size()) {
+                log.warn("Ignored {} bytes of incomplete records at the end of {}", channel.size() - end, path);
+            }
+            return applied[0];
+        }
+    }
+
+    private void apply(byte kind, ByteBuffer content) {
+        switch (kind) {
+            case INSERT -> {
+                TransactionPO transaction = StoreRecords.readTransaction(content);
+                // 读未提交下，未提交的删除之后同一个 ID 可以被别的事务插入并先提交；那次删除没有提交记录，这里以后插入的为准
+                delegate.deleteByTransactionId(transaction.getTransactionId());
+                delegate.put(transaction);
+            }
+            case UPDATE -> delegate.update(TransactionPO.builder()
+                    .transactionId(StoreRecords.readString(content))
+                    .amount(content.getInt())
+                    .transactionType(content.get())
+                    .updatedAt(StoreSupport.fromMicros(content.getLong()))
+                    .description(StoreRecords.readString(content))
+                    .build());
+            case DELETE -> delegate.deleteByTransactionId(StoreRecords.readString(content));
+            default -> throw new IllegalStateException("Unknown transaction log record type " + kind);
+        }
+    }
+
+    private TreeMap<Long, Path> list(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), path);
+            }
+        }
+        return files;
+    }
+
+    private void deleteBefore(long keep) {
+        try {
+            List<Path> obsolete = new ArrayList<>(list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headMap(keep).values());
+            obsolete.addAll(list(SEGMENT_PREFIX, SEGMENT_SUFFIX).headMap(keep).values());
+            for (Path path : obsolete) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            // 留着旧文件不影响恢复，下次快照再删
+            log.warn("Failed to delete old transaction store files: {}", e.getMessage());
+        }
+    }
+
+    private Path path(String prefix, long sequence, String suffix) {
+        return directory.resolve(prefix + String.format("%020d", sequence) + suffix);
+    }
+
+    @FunctionalInterface
+    private interface LogWriter {
+
+        void write(long transactionId) throws IOException;
+    }
+
+    /**
+     * 一个 Spring 事务的日志状态。排在存储的 undo 之后（{@link InProcessTransactionStore#UNDO_ORDER}），
+     * 放开快照的读锁时内存里已经撤销完毕
+     */
+    private final class TransactionLog implements TransactionSynchronization {
+
+        private final long id;
+        private boolean logged;
+        private boolean committed;
+
+        private TransactionLog(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!logged) {
+                return;
+            }
+            try {
+                commit(id);
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Failed to commit transaction log", e);
+            }
+            committed = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (committed && status != STATUS_COMMITTED) {
+                    writeAheadLog.awaitDurable(append(ABORT, id, out -> {
+                    }));
+                }
+            } catch (IOException e) {
+                log.error("Failed to log abort of transaction {}, it will be replayed after a restart", id, e);
+            } finally {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DurableTransactionStore.this);
+                gate.readLock().unlock();
+            }
+        }
+    }
+}
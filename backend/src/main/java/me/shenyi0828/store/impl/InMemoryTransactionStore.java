@@ -0,0 +1,432 @@
+package me.shenyi0828.store.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.model.TransactionTotalsPO;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.store.impl.StoreSupport.ResultCursor;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static me.shenyi0828.store.impl.StoreSupport.fromMicros;
+import static me.shenyi0828.store.impl.StoreSupport.required;
+import static me.shenyi0828.store.impl.StoreSupport.toMicros;
+
+/**
+ * 纯内存实现，读写不经过 JDBC、SQL 解析和结果映射
+ * 索引：transactionId 上一个 ConcurrentHashMap；(createdAt, id) 倒序的跳表全表一个、每个账户一个，分页和游标都是跳表上的顺序遍历。
+ * 行是不可变的紧凑对象：金额、类型、时间（epoch 微秒，和库里 TIMESTAMP 的精度一致）都是基本类型，账户号驻留后多行共用一个 String。
+ * 修改、删除都是整行替换，同一个 transactionId 上的写在 ConcurrentHashMap 的桶锁里完成，三个索引一起改。
+ * 事务：Spring 事务里的写记 undo，回滚时倒序恢复。写同一个 transactionId 要先拿 {@link WriteIntents} 的写锁，持有到事务结束，
+ * 回滚恢复的旧行不会盖掉别的事务已提交的写；读不加锁，提交前其他线程就能读到（相当于读未提交），唯一约束在插入时立即检查。
+ * 因此总数对账可能数到还没提交的行，偏差由下一次对账纠正。
+ * 报表：在跳表的时间范围上用并行流（ForkJoinPool 公共池）扫描，按天时每个分片一个 {@link StoreTotals}，按账户时每个账户扫自己的跳表。
+ * 和其他读一样不加锁，结果可能包含扫描期间的写入。
+ * 本身不持久化，启动时从数据库装载一次初始数据；需要重启后保留数据时由 {@link DurableTransactionStore} 包装
+ *
+ * @author Yi
+ */
+@Slf4j
+public class InMemoryTransactionStore implements InProcessTransactionStore {
+
+    // 新的在前，和 ORDER BY created_at DESC, id DESC 一致
+    private static final Comparator<Position> NEWEST_FIRST = (a, b) -> {
+        int byCreatedAt = Long.compare(b.createdAt(), a.createdAt());
+        return byCreatedAt != 0 ? byCreatedAt : Long.compare(b.id(), a.id());
+    };
+
+    private final ConcurrentHashMap<String, Row> byTransactionId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Position, Row> byCreatedAt = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Position, Row>> byAccount = new ConcurrentHashMap<>();
+    // 账户号驻留表，只增不减
+    private final ConcurrentHashMap<String, String> accountNumbers = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    private final WriteIntents writeIntents = new WriteIntents();
+
+    @Override
+    public void load(TransactionStore source) {
+        source.exportAll(resultContext -> put(resultContext.getResultObject()));
+        log.info("In-memory transaction store loaded {} transactions", byTransactionId.size());
+    }
+
+    @Override
+    public void put(TransactionPO transaction) {
+        Row row = toRow(transaction, required(transaction.getId(), "id"));
+        byTransactionId.compute(row.transactionId(), (transactionId, existing) -> {
+            if (existing != null) {
+                throw new DuplicateKeyException("Duplicate transaction ID: " + transactionId);
+            }
+            index(row);
+            return row;
+        });
+        idSequence.accumulateAndGet(row.position().id(), Math::max);
+    }
+
+    @Override
+    public int insert(TransactionPO transaction) {
+        Row row = toRow(transaction, idSequence.incrementAndGet());
+        writeIntents.acquire(row.transactionId());
+        byTransactionId.compute(row.transactionId(), (transactionId, existing) -> {
+            if (existing != null) {
+                throw new DuplicateKeyException("Duplicate transaction ID: " + transactionId);
+            }
+            index(row);
+            return row;
+        });
+        transaction.setId(row.position().id());
+        recordUndo(row.transactionId(), null);
+        return 1;
+    }
+
+    @Override
+    public int insertBatch(List<TransactionPO> transactions) {
+        int inserted = 0;
+        for (TransactionPO transaction : transactions) {
+            // 中途重复时前面插入的由 undo 随事务回滚
+            inserted += insert(transaction);
+        }
+        return inserted;
+    }
+
+    @Override
+    public int deleteByTransactionId(String transactionId) {
+        writeIntents.acquire(transactionId);
+        Row[] removed = new Row[1];
+        byTransactionId.computeIfPresent(transactionId, (id, current) -> {
+            unindex(current);
+            removed[0] = current;
+            return null;
+        });
+        if (removed[0] == null) {
+            return 0;
+        }
+        recordUndo(transactionId, removed[0]);
+        return 1;
+    }
+
+    @Override
+    public int update(TransactionPO transaction) {
+        int amount = required(transaction.getAmount(), "amount");
+        byte transactionType = required(transaction.getTransactionType(), "transaction_type");
+        long updatedAt = toMicros(required(transaction.getUpdatedAt(), "updated_at"));
+
+        writeIntents.acquire(transaction.getTransactionId());
+        Row[] previous = new Row[1];
+        byTransactionId.computeIfPresent(transaction.getTransactionId(), (id, current) -> {
+            Row updated = new Row(current.position(), current.transactionId(), amount, transactionType,
+                    current.accountNumber(), current.counterpartyAccount(), transaction.getDescription(), updatedAt);
+            index(updated);
+            previous[0] = current;
+            return updated;
+        });
+        if (previous[0] == null) {
+            return 0;
+        }
+        recordUndo(transaction.getTransactionId(), previous[0]);
+        return 1;
+    }
+
+    @Override
+    public TransactionPO findByTransactionId(String transactionId) {
+        Row row = byTransactionId.get(transactionId);
+        return row != null ? row.toPo() : null;
+    }
+
+    @Override
+    public TransactionPO findByTransactionIdForUpdate(String transactionId) {
+        lockForWrite(transactionId);
+        return findByTransactionId(transactionId);
+    }
+
+    @Override
+    public void lockForWrite(String transactionId) {
+        writeIntents.acquire(transactionId);
+    }
+
+    @Override
+    public List<TransactionPO> findByTransactionIds(Collection<String> transactionIds) {
+        List<TransactionPO> found = new ArrayList<>(transactionIds.size());
+        for (String transactionId : transactionIds) {
+            Row row = byTransactionId.get(transactionId);
+            if (row != null) {
+                found.add(row.toPo());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean existsByTransactionId(String transactionId) {
+        return byTransactionId.containsKey(transactionId);
+    }
+
+    @Override
+    public List<String> findExistingTransactionIds(Collection<String> transactionIds) {
+        List<String> existing = new ArrayList<>();
+        for (String transactionId : transactionIds) {
+            if (byTransactionId.containsKey(transactionId)) {
+                existing.add(transactionId);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public List<TransactionPO> findAllWithPagination(int offset, int limit) {
+        List<TransactionPO> page = new ArrayList<>(Math.min(limit, 1000));
+        int skipped = 0;
+        for (Row row : byCreatedAt.values()) {
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(row.toPo());
+        }
+        return page;
+    }
+
+    @Override
+    public List<TransactionPO> findAllByCursor(LocalDateTime cursorCreatedAt, Long cursorId, int limit) {
+        return page(byCreatedAt, cursorCreatedAt, cursorId, limit);
+    }
+
+    @Override
+    public List<TransactionPO> findByAccountNumberByCursor(String accountNumber, LocalDateTime cursorCreatedAt,
+                                                           Long cursorId, int limit) {
+        ConcurrentSkipListMap<Position, Row> accountIndex = byAccount.get(accountNumber);
+        if (accountIndex == null) {
+            return new ArrayList<>();
+        }
+        return page(accountIndex, cursorCreatedAt, cursorId, limit);
+    }
+
+    @Override
+    public Long countTotal() {
+        return (long) byTransactionId.size();
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByDay(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        if (fromMicros >= toMicros) {
+            return new ArrayList<>();
+        }
+        long firstDay = StoreTotals.epochDay(fromMicros);
+        int days = StoreTotals.days(fromMicros, toMicros);
+        StoreTotals totals = range(byCreatedAt, fromMicros, toMicros).values().parallelStream()
+                .collect(() -> new StoreTotals(days),
+                        (partial, row) -> partial.add((int) (StoreTotals.epochDay(row.position().createdAt()) - firstDay),
+                                row.transactionType(), row.amount()),
+                        StoreTotals::merge);
+        return totals.toDays(firstDay);
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByAccount(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        if (fromMicros >= toMicros) {
+            return new ArrayList<>();
+        }
+        return byAccount.entrySet().parallelStream()
+                .map(account -> {
+                    StoreTotals totals = new StoreTotals(1);
+                    for (Row row : range(account.getValue(), fromMicros, toMicros).values()) {
+                        totals.add(0, row.transactionType(), row.amount());
+                    }
+                    if (totals.isEmpty(0)) {
+                        return null;
+                    }
+                    TransactionTotalsPO accountTotals = totals.toPo(0);
+                    accountTotals.setAccountNumber(account.getKey());
+                    return accountTotals;
+                })
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(TransactionTotalsPO::getAccountNumber))
+                .toList();
+    }
+
+    /**
+     * 按 id 升序导出：没有按 id 的索引，先把行引用拷出来排序（每行一个引用的临时数组，行本身不复制）
+     */
+    @Override
+    public void exportAll(ResultHandler<TransactionPO> resultHandler) {
+        ResultCursor<TransactionPO> cursor = new ResultCursor<>();
+        Row[] rows = byTransactionId.values().toArray(new Row[0]);
+        Arrays.sort(rows, Comparator.comparingLong(row -> row.position().id()));
+        for (Row row : rows) {
+            if (!cursor.next(row.toPo(), resultHandler)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void scanTransactionIds(ResultHandler<String> resultHandler) {
+        ResultCursor<String> cursor = new ResultCursor<>();
+        for (String transactionId : byTransactionId.keySet()) {
+            if (!cursor.next(transactionId, resultHandler)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 游标之后（比游标更旧）的最多 limit 行，和 SQL 里 created_at &lt;= ? AND (created_at &lt; ? OR id &lt; ?) 一致
+     */
+    private static List<TransactionPO> page(ConcurrentSkipListMap<Position, Row> index, LocalDateTime cursorCreatedAt,
+                                            Long cursorId, int limit) {
+        Map<Position, Row> after = cursorCreatedAt == null ? index
+                : index.tailMap(new Position(toMicros(cursorCreatedAt), cursorId != null ? cursorId : Long.MIN_VALUE), false);
+        List<TransactionPO> page = new ArrayList<>(Math.min(limit, 1000));
+        for (Row row : after.values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(row.toPo());
+        }
+        return page;
+    }
+
+    /**
+     * createdAt 在 [fromMicros, toMicros) 内的行；索引是新的在前，所以 toMicros 一端在前
+     */
+    private static Map<Position, Row> range(ConcurrentSkipListMap<Position, Row> index, long fromMicros, long toMicros) {
+        return index.subMap(new Position(toMicros, Long.MIN_VALUE), false, new Position(fromMicros, Long.MIN_VALUE), false);
+    }
+
+    // 只在持有该 transactionId 的桶锁时调用；同一位置上 put 即替换
+    private void index(Row row) {
+        byCreatedAt.put(row.position(), row);
+        byAccount.computeIfAbsent(row.accountNumber(), accountNumber -> new ConcurrentSkipListMap<>(NEWEST_FIRST))
+                .put(row.position(), row);
+    }
+
+    private void unindex(Row row) {
+        byCreatedAt.remove(row.position());
+        ConcurrentSkipListMap<Position, Row> accountIndex = byAccount.get(row.accountNumber());
+        if (accountIndex != null) {
+            accountIndex.remove(row.position());
+        }
+    }
+
+    /**
+     * 把 transactionId 恢复成 previous（null 表示不存在），回滚时使用；写锁还在本事务手里，当前行一定是本事务写的
+     */
+    private void restore(String transactionId, Row previous) {
+        byTransactionId.compute(transactionId, (id, current) -> {
+            if (current != null) {
+                unindex(current);
+            }
+            if (previous != null) {
+                index(previous);
+            }
+            return previous;
+        });
+    }
+
+    private void recordUndo(String transactionId, Row previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        UndoLog undoLog = (UndoLog) TransactionSynchronizationManager.getResource(this);
+        if (undoLog == null) {
+            undoLog = new UndoLog();
+            TransactionSynchronizationManager.bindResource(this, undoLog);
+            TransactionSynchronizationManager.registerSynchronization(undoLog);
+        }
+        undoLog.add(transactionId, previous);
+    }
+
+    private Row toRow(TransactionPO transaction, long id) {
+        return new Row(new Position(toMicros(required(transaction.getCreatedAt(), "created_at")), id),
+                required(transaction.getTransactionId(), "transaction_id"),
+                required(transaction.getAmount(), "amount"),
+                required(transaction.getTransactionType(), "transaction_type"),
+                intern(required(transaction.getAccountNumber(), "account_number")),
+                intern(transaction.getCounterpartyAccount()),
+                transaction.getDescription(),
+                toMicros(required(transaction.getUpdatedAt(), "updated_at")));
+    }
+
+    private String intern(String accountNumber) {
+        if (accountNumber == null) {
+            return null;
+        }
+        String existing = accountNumbers.putIfAbsent(accountNumber, accountNumber);
+        return existing != null ? existing : accountNumber;
+    }
+
+    /**
+     * 索引键，id 和 createdAt 在行的生命周期里不变，修改后的新行沿用同一个键
+     */
+    private record Position(long createdAt, long id) {
+    }
+
+    private record Row(Position position, String transactionId, int amount, byte transactionType,
+                       String accountNumber, String counterpartyAccount, String description, long updatedAt) {
+
+        TransactionPO toPo() {
+            return TransactionPO.builder()
+                    .id(position.id())
+                    .transactionId(transactionId)
+                    .amount(amount)
+                    .transactionType(transactionType)
+                    .accountNumber(accountNumber)
+                    .counterpartyAccount(counterpartyAccount)
+                    .description(description)
+                    .createdAt(fromMicros(position.createdAt()))
+                    .updatedAt(fromMicros(updatedAt))
+                    .build();
+        }
+    }
+
+    /**
+     * 一个事务里的写操作，回滚时倒序恢复（同一个 ID 先建后改时要先撤改再撤建）
+     */
+    private final class UndoLog implements TransactionSynchronization {
+
+        private final List<String> transactionIds = new ArrayList<>();
+        private final List<Row> previousRows = new ArrayList<>();
+
+        void add(String transactionId, Row previous) {
+            transactionIds.add(transactionId);
+            previousRows.add(previous);
+        }
+
+        @Override
+        public int getOrder() {
+            return UNDO_ORDER;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryTransactionStore.this);
+            if (status != STATUS_ROLLED_BACK) {
+                return;
+            }
+            for (int i = transactionIds.size() - 1; i >= 0; i--) {
+                restore(transactionIds.get(i), previousRows.get(i));
+            }
+            log.debug("Rolled back {} in-memory transaction writes", transactionIds.size());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.store.TransactionStore;
+import org.springframework.core.Ordered;
+
+/**
+ * A {@link TransactionStore} held in process memory, filled at startup and rolled back through an undo log
+ */
+public interface InProcessTransactionStore extends TransactionStore {
+
+    /**
+     * Order of the synchronization that undoes the writes of a rolled back transaction.
+     * Synchronizations that must see the restored state, such as releasing a snapshot gate, order after it
+     */
+    int UNDO_ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    /**
+     * Add a transaction keeping its id, for loading and recovery. Not recorded for rollback
+     *
+     * @param transaction transaction with its id set
+     * @throws org.springframework.dao.DuplicateKeyException if the transaction ID already exists
+     */
+    void put(TransactionPO transaction);
+
+    /**
+     * Take the write lock on a transaction ID, held until the surrounding Spring transaction ends.
+     * Every write takes it too; call it first when the write itself runs under another lock.
+     * Outside a Spring transaction it only waits for other holders
+     *
+     * @param transactionId transaction ID, the row does not need to exist
+     * @throws org.springframework.dao.CannotAcquireLockException when the lock is not granted in time
+     */
+    void lockForWrite(String transactionId);
+
+    /**
+     * Add every transaction of another store keeping their ids, only called at startup
+     *
+     * @param source store to copy from
+     */
+    void load(TransactionStore source);
+}
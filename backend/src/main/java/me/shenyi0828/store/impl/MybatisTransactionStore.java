@@ -0,0 +1,162 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.mapper.TransactionDataMapper;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.model.TransactionTotalsPO;
+import me.shenyi0828.store.TransactionStore;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.MyBatisExceptionTranslator;
+import org.springframework.dao.DataAccessException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 数据库实现，直接委托给 {@link TransactionDataMapper}，批量插入走 BATCH executor
+ *
+ * @author Yi
+ */
+public class MybatisTransactionStore implements TransactionStore {
+
+    // 每条 INSERT 语句带几行
+    private static final int ROWS_PER_INSERT = 100;
+
+    private final TransactionDataMapper transactionDataMapper;
+    private final SqlSessionFactory sqlSessionFactory;
+
+    public MybatisTransactionStore(TransactionDataMapper transactionDataMapper, SqlSessionFactory sqlSessionFactory) {
+        this.transactionDataMapper = transactionDataMapper;
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public int insert(TransactionPO transaction) {
+        return transactionDataMapper.insert(transaction);
+    }
+
+    /**
+     * 用 BATCH executor 多行插入，和当前 Spring 事务共用同一个连接
+     */
+    @Override
+    public int insertBatch(List<TransactionPO> transactions) {
+        try (SqlSession batchSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            TransactionDataMapper batchMapper = batchSession.getMapper(TransactionDataMapper.class);
+            for (int from = 0; from < transactions.size(); from += ROWS_PER_INSERT) {
+                batchMapper.insertBatch(transactions.subList(from, Math.min(from + ROWS_PER_INSERT, transactions.size())));
+            }
+
+            int inserted = 0;
+            for (BatchResult batchResult : batchSession.flushStatements()) {
+                for (int updateCount : batchResult.getUpdateCounts()) {
+                    inserted += updateCount;
+                }
+            }
+            return inserted;
+        } catch (PersistenceException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public int deleteByTransactionId(String transactionId) {
+        return transactionDataMapper.deleteByTransactionId(transactionId);
+    }
+
+    @Override
+    public int update(TransactionPO transaction) {
+        return transactionDataMapper.update(transaction);
+    }
+
+    @Override
+    public TransactionPO findByTransactionId(String transactionId) {
+        return transactionDataMapper.findByTransactionId(transactionId);
+    }
+
+    @Override
+    public TransactionPO findByTransactionIdForUpdate(String transactionId) {
+        return transactionDataMapper.findByTransactionIdForUpdate(transactionId);
+    }
+
+    @Override
+    public List<TransactionPO> findByTransactionIds(Collection<String> transactionIds) {
+        return transactionDataMapper.findByTransactionIds(transactionIds);
+    }
+
+    @Override
+    public boolean existsByTransactionId(String transactionId) {
+        return transactionDataMapper.existsByTransactionId(transactionId);
+    }
+
+    @Override
+    public List<String> findExistingTransactionIds(Collection<String> transactionIds) {
+        return transactionDataMapper.findExistingTransactionIds(transactionIds);
+    }
+
+    @Override
+    public List<TransactionPO> findAllWithPagination(int offset, int limit) {
+        return transactionDataMapper.findAllWithPagination(offset, limit);
+    }
+
+    @Override
+    public List<TransactionPO> findAllByCursor(LocalDateTime cursorCreatedAt, Long cursorId, int limit) {
+        return transactionDataMapper.findAllByCursor(cursorCreatedAt, cursorId, limit);
+    }
+
+    @Override
+    public List<TransactionPO> findByAccountNumberByCursor(String accountNumber, LocalDateTime cursorCreatedAt,
+                                                           Long cursorId, int limit) {
+        return transactionDataMapper.findByAccountNumberByCursor(accountNumber, cursorCreatedAt, cursorId, limit);
+    }
+
+    @Override
+    public Long countTotal() {
+        return transactionDataMapper.countTotal();
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByDay(LocalDateTime from, LocalDateTime to) {
+        return transactionDataMapper.sumByDay(from, to);
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByAccount(LocalDateTime from, LocalDateTime to) {
+        return transactionDataMapper.sumByAccount(from, to);
+    }
+
+    /**
+     * 在自己的 SqlSession 里读，开关惰性执行和查询用的是同一个连接；H2 惰性执行时边扫边返回，不先把整个结果集物化，
+     * 只对这次查询打开，结束后关掉再还给连接池
+     */
+    @Override
+    public void exportAll(ResultHandler<TransactionPO> resultHandler) {
+        try (SqlSession exportSession = sqlSessionFactory.openSession()) {
+            TransactionDataMapper exportMapper = exportSession.getMapper(TransactionDataMapper.class);
+            exportMapper.setLazyQueryExecution(true);
+            try {
+                exportMapper.exportAll(resultHandler);
+            } finally {
+                exportMapper.setLazyQueryExecution(false);
+            }
+        } catch (PersistenceException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public void scanTransactionIds(ResultHandler<String> resultHandler) {
+        transactionDataMapper.scanTransactionIds(resultHandler);
+    }
+
+    private RuntimeException translate(PersistenceException e) {
+        DataAccessException translated = new MyBatisExceptionTranslator(
+                sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(), true)
+                .translateExceptionIfPossible(e);
+        return translated != null ? translated : e;
+    }
+}
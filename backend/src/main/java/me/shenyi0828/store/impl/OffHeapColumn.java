@@ -0,0 +1,70 @@
+package me.shenyi0828.store.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * 一列定长值，按行号存取，放在一组 direct ByteBuffer 块里（每块 {@link #CHUNK_ROWS} 行）
+ * 扩容只追加新块，已有数据不搬动。不做同步，由调用方加锁
+ *
+ * @author Yi
+ */
+final class OffHeapColumn {
+
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+
+    private final int width;
+    private ByteBuffer[] chunks = new ByteBuffer[8];
+    private int chunkCount;
+
+    /**
+     * @param width 每个值的字节数：1、4 或 8
+     */
+    OffHeapColumn(int width) {
+        this.width = width;
+    }
+
+    void ensureCapacity(int rows) {
+        while ((long) chunkCount * CHUNK_ROWS < rows) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_ROWS * width).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    long getLong(int row) {
+        return chunks[row >>> CHUNK_SHIFT].getLong(offset(row));
+    }
+
+    void putLong(int row, long value) {
+        chunks[row >>> CHUNK_SHIFT].putLong(offset(row), value);
+    }
+
+    int getInt(int row) {
+        return chunks[row >>> CHUNK_SHIFT].getInt(offset(row));
+    }
+
+    void putInt(int row, int value) {
+        chunks[row >>> CHUNK_SHIFT].putInt(offset(row), value);
+    }
+
+    byte getByte(int row) {
+        return chunks[row >>> CHUNK_SHIFT].get(offset(row));
+    }
+
+    void putByte(int row, byte value) {
+        chunks[row >>> CHUNK_SHIFT].put(offset(row), value);
+    }
+
+    long sizeInBytes() {
+        return (long) chunkCount * CHUNK_ROWS * width;
+    }
+
+    private int offset(int row) {
+        return (row & CHUNK_MASK) * width;
+    }
+}
@@ -0,0 +1,82 @@
+package me.shenyi0828.store.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 变长字符串的堆外追加区，每个值是 2 字节长度 + UTF-8，地址为 (块号 &lt;&lt; 32 | 块内偏移)，null 用 {@link #NULL} 表示
+ * 只追加不回收：值被替换后旧字节一直占着，直到进程重启。不做同步，由调用方加锁
+ *
+ * @author Yi
+ */
+final class OffHeapStringHeap {
+
+    static final long NULL = -1;
+
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int MAX_LENGTH = 0xFFFF;
+
+    private ByteBuffer[] chunks = new ByteBuffer[8];
+    private int chunkCount;
+    // 当前块已用到的位置
+    private int position = CHUNK_BYTES;
+
+    long append(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Value too long for off-heap storage: " + bytes.length + " bytes");
+        }
+        if (position + 2 + bytes.length > CHUNK_BYTES) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_BYTES);
+            position = 0;
+        }
+        ByteBuffer chunk = chunks[chunkCount - 1];
+        long address = (long) (chunkCount - 1) << 32 | position;
+        chunk.putShort(position, (short) bytes.length);
+        chunk.put(position + 2, bytes);
+        position += 2 + bytes.length;
+        return address;
+    }
+
+    String get(long address) {
+        if (address == NULL) {
+            return null;
+        }
+        ByteBuffer chunk = chunks[(int) (address >>> 32)];
+        int offset = (int) address;
+        byte[] bytes = new byte[chunk.getShort(offset) & MAX_LENGTH];
+        chunk.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 和 UTF-8 字节逐个比较，不创建 String
+     */
+    boolean matches(long address, byte[] bytes) {
+        if (address == NULL) {
+            return false;
+        }
+        ByteBuffer chunk = chunks[(int) (address >>> 32)];
+        int offset = (int) address;
+        if ((chunk.getShort(offset) & MAX_LENGTH) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(offset + 2 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return (long) chunkCount * CHUNK_BYTES;
+    }
+}
@@ -0,0 +1,769 @@
+package me.shenyi0828.store.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.model.TransactionTotalsPO;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.store.impl.StoreSupport.ResultCursor;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import static me.shenyi0828.store.impl.StoreSupport.fromMicros;
+import static me.shenyi0828.store.impl.StoreSupport.required;
+import static me.shenyi0828.store.impl.StoreSupport.toMicros;
+
+/**
+ * 堆外列存实现，行数再多堆上也只有块数组、账户字典等和行数无关的元数据，GC 不用扫描行数据
+ * 每个字段一列（{@link OffHeapColumn}）：id、createdAt/updatedAt（epoch 微秒）为 long，amount 为 int，type 为 byte，
+ * 账户号和对方账户按字典编码成 int；transactionId、description 放在堆外追加区（{@link OffHeapStringHeap}），列里只存地址。
+ * 索引也在堆外：transactionId 开放寻址哈希表（槽里存行号）；按 (createdAt, id) 升序的行号数组，游标翻页时二分定位；按 id 升序的行号数组，导出用；
+ * 每行一个"同账户下一条更旧的行"指针，账户翻页从该账户最新一行沿指针走。
+ * 删除只打标记，行和索引项都保留（游标仍能定位、回滚时直接取消标记）；修改 description 时旧字节不回收。两者都到重启为止。
+ * 并发：一把读写锁，写操作串行；事务回滚、写同一个 ID 的 {@link WriteIntents} 写锁都和 {@link InMemoryTransactionStore} 一样，同样是读未提交。
+ * 报表：持读锁在 order 的时间范围上分片并行扫描（ForkJoinPool 公共池），分片数不超过并行度，每片一个 {@link StoreTotals}，
+ * 直接读列里的基本类型。扫描期间写操作等待。
+ * TransactionPO 只在返回结果时按行构造
+ *
+ * @author Yi
+ */
+@Slf4j
+public class OffHeapTransactionStore implements InProcessTransactionStore {
+
+    private static final int NO_ROW = -1;
+    private static final int INITIAL_SLOTS = 1 << 10;
+    // 报表扫描每个分片至少这么多行，行数少时不值得分片
+    private static final int MIN_SCAN_CHUNK = 1 << 16;
+    // 导出时每次持锁读取的行数，读完放锁再交给 handler，慢客户端不会挡住写
+    private static final int EXPORT_BATCH = 1000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 先拿写锁再拿 lock，等写锁时不占着 lock
+    private final WriteIntents writeIntents = new WriteIntents();
+
+    private final OffHeapColumn ids = new OffHeapColumn(Long.BYTES);
+    private final OffHeapColumn createdAts = new OffHeapColumn(Long.BYTES);
+    private final OffHeapColumn updatedAts = new OffHeapColumn(Long.BYTES);
+    private final OffHeapColumn amounts = new OffHeapColumn(Integer.BYTES);
+    private final OffHeapColumn types = new OffHeapColumn(Byte.BYTES);
+    private final OffHeapColumn accounts = new OffHeapColumn(Integer.BYTES);
+    private final OffHeapColumn counterparties = new OffHeapColumn(Integer.BYTES);
+    private final OffHeapColumn transactionIdAddresses = new OffHeapColumn(Long.BYTES);
+    private final OffHeapColumn descriptionAddresses = new OffHeapColumn(Long.BYTES);
+    private final OffHeapColumn deleted = new OffHeapColumn(Byte.BYTES);
+    private final OffHeapColumn idHashes = new OffHeapColumn(Integer.BYTES);
+    private final OffHeapColumn olderInAccount = new OffHeapColumn(Integer.BYTES);
+    // 第 i 个位置是按 (createdAt, id) 升序排第 i 的行号，包括已删除的行
+    private final OffHeapColumn order = new OffHeapColumn(Integer.BYTES);
+    // 第 i 个位置是按 id 升序排第 i 的行号，包括已删除的行；导出按它的顺序
+    private final OffHeapColumn idOrder = new OffHeapColumn(Integer.BYTES);
+    private final OffHeapColumn[] columns = {ids, createdAts, updatedAts, amounts, types, accounts, counterparties,
+            transactionIdAddresses, descriptionAddresses, deleted, idHashes, olderInAccount, order, idOrder};
+    private final OffHeapStringHeap strings = new OffHeapStringHeap();
+
+    // transactionId 哈希表，线性探测，槽里存行号 + 1，0 表示空；装载率不超过 1/2
+    private ByteBuffer slots = allocateSlots(INITIAL_SLOTS);
+    private int slotMask = INITIAL_SLOTS - 1;
+
+    // 账户字典（账户号和对方账户共用），编码即下标；每个账户最新的一行
+    private final Map<String, Integer> accountCodes = new HashMap<>();
+    private final List<String> accountNumbers = new ArrayList<>();
+    private int[] newestInAccount = new int[16];
+
+    private int rowCount;
+    private int liveCount;
+    private long idSequence;
+
+    @Override
+    public void load(TransactionStore source) {
+        source.exportAll(resultContext -> put(resultContext.getResultObject()));
+        log.info("Off-heap transaction store loaded {} transactions, {} bytes off-heap", countTotal(), sizeInBytes());
+    }
+
+    @Override
+    public void put(TransactionPO transaction) {
+        long id = required(transaction.getId(), "id");
+        lock.writeLock().lock();
+        try {
+            if (findRow(required(transaction.getTransactionId(), "transaction_id")) != NO_ROW) {
+                throw new DuplicateKeyException("Duplicate transaction ID: " + transaction.getTransactionId());
+            }
+            appendRow(transaction, id);
+            idSequence = Math.max(idSequence, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int insert(TransactionPO transaction) {
+        String transactionId = required(transaction.getTransactionId(), "transaction_id");
+        writeIntents.acquire(transactionId);
+        long id;
+        int row;
+        lock.writeLock().lock();
+        try {
+            if (findRow(transactionId) != NO_ROW) {
+                throw new DuplicateKeyException("Duplicate transaction ID: " + transactionId);
+            }
+            id = idSequence + 1;
+            row = appendRow(transaction, id);
+            idSequence = id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        transaction.setId(id);
+        recordUndo(new Undo(UndoKind.INSERTED, row, 0, (byte) 0, 0, 0));
+        return 1;
+    }
+
+    @Override
+    public int insertBatch(List<TransactionPO> transactions) {
+        int inserted = 0;
+        for (TransactionPO transaction : transactions) {
+            // 中途重复时前面插入的由 undo 随事务回滚
+            inserted += insert(transaction);
+        }
+        return inserted;
+    }
+
+    @Override
+    public int deleteByTransactionId(String transactionId) {
+        writeIntents.acquire(transactionId);
+        int row;
+        lock.writeLock().lock();
+        try {
+            row = findRow(transactionId);
+            if (row == NO_ROW) {
+                return 0;
+            }
+            deleted.putByte(row, (byte) 1);
+            liveCount--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        recordUndo(new Undo(UndoKind.DELETED, row, 0, (byte) 0, 0, 0));
+        return 1;
+    }
+
+    @Override
+    public int update(TransactionPO transaction) {
+        int amount = required(transaction.getAmount(), "amount");
+        byte transactionType = required(transaction.getTransactionType(), "transaction_type");
+        long updatedAt = toMicros(required(transaction.getUpdatedAt(), "updated_at"));
+
+        writeIntents.acquire(transaction.getTransactionId());
+        Undo undo;
+        lock.writeLock().lock();
+        try {
+            int row = findRow(transaction.getTransactionId());
+            if (row == NO_ROW) {
+                return 0;
+            }
+            undo = new Undo(UndoKind.UPDATED, row, amounts.getInt(row), types.getByte(row),
+                    descriptionAddresses.getLong(row), updatedAts.getLong(row));
+            amounts.putInt(row, amount);
+            types.putByte(row, transactionType);
+            descriptionAddresses.putLong(row, strings.append(transaction.getDescription()));
+            updatedAts.putLong(row, updatedAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        recordUndo(undo);
+        return 1;
+    }
+
+    @Override
+    public TransactionPO findByTransactionId(String transactionId) {
+        lock.readLock().lock();
+        try {
+            int row = findRow(transactionId);
+            return row != NO_ROW ? toPo(row) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TransactionPO findByTransactionIdForUpdate(String transactionId) {
+        lockForWrite(transactionId);
+        return findByTransactionId(transactionId);
+    }
+
+    @Override
+    public void lockForWrite(String transactionId) {
+        writeIntents.acquire(transactionId);
+    }
+
+    @Override
+    public List<TransactionPO> findByTransactionIds(Collection<String> transactionIds) {
+        List<TransactionPO> found = new ArrayList<>(transactionIds.size());
+        lock.readLock().lock();
+        try {
+            for (String transactionId : transactionIds) {
+                int row = findRow(transactionId);
+                if (row != NO_ROW) {
+                    found.add(toPo(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    @Override
+    public boolean existsByTransactionId(String transactionId) {
+        lock.readLock().lock();
+        try {
+            return findRow(transactionId) != NO_ROW;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> findExistingTransactionIds(Collection<String> transactionIds) {
+        List<String> existing = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String transactionId : transactionIds) {
+                if (findRow(transactionId) != NO_ROW) {
+                    existing.add(transactionId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return existing;
+    }
+
+    @Override
+    public List<TransactionPO> findAllWithPagination(int offset, int limit) {
+        List<TransactionPO> page = new ArrayList<>(Math.min(limit, 1000));
+        lock.readLock().lock();
+        try {
+            int skipped = 0;
+            for (int index = rowCount - 1; index >= 0 && page.size() < limit; index--) {
+                int row = order.getInt(index);
+                if (isDeleted(row)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                page.add(toPo(row));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return page;
+    }
+
+    @Override
+    public List<TransactionPO> findAllByCursor(LocalDateTime cursorCreatedAt, Long cursorId, int limit) {
+        List<TransactionPO> page = new ArrayList<>(Math.min(limit, 1000));
+        lock.readLock().lock();
+        try {
+            // 游标之前（更旧）的第一个位置；和 SQL 一样，cursorId 为 null 时只比较时间
+            int index = cursorCreatedAt == null ? rowCount - 1
+                    : lowerBound(toMicros(cursorCreatedAt), cursorId != null ? cursorId : Long.MIN_VALUE) - 1;
+            for (; index >= 0 && page.size() < limit; index--) {
+                int row = order.getInt(index);
+                if (!isDeleted(row)) {
+                    page.add(toPo(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return page;
+    }
+
+    @Override
+    public List<TransactionPO> findByAccountNumberByCursor(String accountNumber, LocalDateTime cursorCreatedAt,
+                                                           Long cursorId, int limit) {
+        List<TransactionPO> page = new ArrayList<>(Math.min(limit, 1000));
+        lock.readLock().lock();
+        try {
+            Integer account = accountCodes.get(accountNumber);
+            if (account == null) {
+                return page;
+            }
+            int row = cursorCreatedAt == null ? newestInAccount[account]
+                    : firstInAccountBefore(account, toMicros(cursorCreatedAt), cursorId);
+            for (; row != NO_ROW && page.size() < limit; row = olderInAccount.getInt(row)) {
+                if (!isDeleted(row)) {
+                    page.add(toPo(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return page;
+    }
+
+    @Override
+    public Long countTotal() {
+        lock.readLock().lock();
+        try {
+            return (long) liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByDay(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        if (fromMicros >= toMicros) {
+            return new ArrayList<>();
+        }
+        long firstDay = StoreTotals.epochDay(fromMicros);
+        int days = StoreTotals.days(fromMicros, toMicros);
+        lock.readLock().lock();
+        try {
+            return scan(fromMicros, toMicros, days,
+                    row -> (int) (StoreTotals.epochDay(createdAts.getLong(row)) - firstDay)).toDays(firstDay);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TransactionTotalsPO> sumByAccount(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        if (fromMicros >= toMicros) {
+            return new ArrayList<>();
+        }
+        List<TransactionTotalsPO> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            StoreTotals totals = scan(fromMicros, toMicros, accountNumbers.size(), accounts::getInt);
+            for (int account = 0; account < accountNumbers.size(); account++) {
+                if (!totals.isEmpty(account)) {
+                    TransactionTotalsPO accountTotals = totals.toPo(account);
+                    accountTotals.setAccountNumber(accountNumbers.get(account));
+                    result.add(accountTotals);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // 字典编码是首次出现的顺序
+        result.sort(Comparator.comparing(TransactionTotalsPO::getAccountNumber));
+        return result;
+    }
+
+    /**
+     * 按 id 升序导出
+     */
+    @Override
+    public void exportAll(ResultHandler<TransactionPO> resultHandler) {
+        ResultCursor<TransactionPO> cursor = new ResultCursor<>();
+        List<TransactionPO> batch = new ArrayList<>(EXPORT_BATCH);
+        for (int from = 0; ; from += EXPORT_BATCH) {
+            batch.clear();
+            lock.readLock().lock();
+            try {
+                if (from >= rowCount) {
+                    return;
+                }
+                for (int index = from; index < Math.min(from + EXPORT_BATCH, rowCount); index++) {
+                    int row = idOrder.getInt(index);
+                    if (!isDeleted(row)) {
+                        batch.add(toPo(row));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (TransactionPO transaction : batch) {
+                if (!cursor.next(transaction, resultHandler)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void scanTransactionIds(ResultHandler<String> resultHandler) {
+        ResultCursor<String> cursor = new ResultCursor<>();
+        List<String> batch = new ArrayList<>(EXPORT_BATCH);
+        for (int from = 0; ; from += EXPORT_BATCH) {
+            batch.clear();
+            lock.readLock().lock();
+            try {
+                if (from >= rowCount) {
+                    return;
+                }
+                for (int row = from; row < Math.min(from + EXPORT_BATCH, rowCount); row++) {
+                    if (!isDeleted(row)) {
+                        batch.add(strings.get(transactionIdAddresses.getLong(row)));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (String transactionId : batch) {
+                if (!cursor.next(transactionId, resultHandler)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前占用的堆外字节数（列、索引和字符串区，按已分配的块计）
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long size = strings.sizeInBytes() + slots.capacity();
+            for (OffHeapColumn column : columns) {
+                size += column.sizeInBytes();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- 以下方法都要求调用方已持有锁 ----
+
+    /**
+     * createdAt 在 [fromMicros, toMicros) 内的行按 group 分组累加。分片在公共池的线程里读列，调用方的读锁挡住了写，列不会变
+     */
+    private StoreTotals scan(long fromMicros, long toMicros, int groups, IntUnaryOperator group) {
+        int first = lowerBound(fromMicros, Long.MIN_VALUE);
+        long rows = lowerBound(toMicros, Long.MIN_VALUE) - first;
+        int chunks = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), rows / MIN_SCAN_CHUNK));
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    StoreTotals partial = new StoreTotals(groups);
+                    int end = first + (int) (rows * (chunk + 1) / chunks);
+                    for (int index = first + (int) (rows * chunk / chunks); index < end; index++) {
+                        int row = order.getInt(index);
+                        if (!isDeleted(row)) {
+                            partial.add(group.applyAsInt(row), types.getByte(row), amounts.getInt(row));
+                        }
+                    }
+                    return partial;
+                })
+                .reduce((left, right) -> {
+                    left.merge(right);
+                    return left;
+                })
+                .orElseThrow();
+    }
+
+    private int appendRow(TransactionPO transaction, long id) {
+        // 先取齐所有值再写，校验失败时不留下半行
+        String transactionId = required(transaction.getTransactionId(), "transaction_id");
+        int amount = required(transaction.getAmount(), "amount");
+        byte transactionType = required(transaction.getTransactionType(), "transaction_type");
+        long createdAt = toMicros(required(transaction.getCreatedAt(), "created_at"));
+        long updatedAt = toMicros(required(transaction.getUpdatedAt(), "updated_at"));
+        int account = encodeAccount(required(transaction.getAccountNumber(), "account_number"));
+        int counterparty = transaction.getCounterpartyAccount() != null
+                ? encodeAccount(transaction.getCounterpartyAccount()) : NO_ROW;
+        long transactionIdAddress = strings.append(transactionId);
+        long descriptionAddress = strings.append(transaction.getDescription());
+
+        int row = rowCount;
+        for (OffHeapColumn column : columns) {
+            column.ensureCapacity(row + 1);
+        }
+        ids.putLong(row, id);
+        createdAts.putLong(row, createdAt);
+        updatedAts.putLong(row, updatedAt);
+        amounts.putInt(row, amount);
+        types.putByte(row, transactionType);
+        accounts.putInt(row, account);
+        counterparties.putInt(row, counterparty);
+        transactionIdAddresses.putLong(row, transactionIdAddress);
+        descriptionAddresses.putLong(row, descriptionAddress);
+        deleted.putByte(row, (byte) 0);
+        idHashes.putInt(row, transactionId.hashCode());
+        rowCount++;
+        liveCount++;
+
+        indexTransactionId(row);
+        indexOrder(row);
+        indexIdOrder(row);
+        indexAccount(row, account);
+        return row;
+    }
+
+    private int findRow(String transactionId) {
+        int hash = transactionId.hashCode();
+        byte[] bytes = null;
+        for (int slot = spread(hash) & slotMask; ; slot = (slot + 1) & slotMask) {
+            int entry = slots.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                return NO_ROW;
+            }
+            int row = entry - 1;
+            if (idHashes.getInt(row) != hash || isDeleted(row)) {
+                continue;
+            }
+            if (bytes == null) {
+                bytes = transactionId.getBytes(StandardCharsets.UTF_8);
+            }
+            if (strings.matches(transactionIdAddresses.getLong(row), bytes)) {
+                return row;
+            }
+        }
+    }
+
+    // 已删除的行也留在表里，回滚删除时要能再找到
+    private void indexTransactionId(int row) {
+        if ((long) rowCount * 2 > slotMask + 1L) {
+            int capacity = (slotMask + 1) * 2;
+            ByteBuffer resized = allocateSlots(capacity);
+            for (int existing = 0; existing < rowCount; existing++) {
+                place(resized, capacity - 1, existing);
+            }
+            slots = resized;
+            slotMask = capacity - 1;
+        } else {
+            place(slots, slotMask, row);
+        }
+    }
+
+    private void place(ByteBuffer table, int mask, int row) {
+        int slot = spread(idHashes.getInt(row)) & mask;
+        while (table.getInt(slot * Integer.BYTES) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.putInt(slot * Integer.BYTES, row + 1);
+    }
+
+    // 新行通常是最新的，落在末尾；时间稍早的只往前挪几个位置
+    private void indexOrder(int row) {
+        int index = rowCount - 1;
+        while (index > 0 && compare(order.getInt(index - 1), row) > 0) {
+            order.putInt(index, order.getInt(index - 1));
+            index--;
+        }
+        order.putInt(index, row);
+    }
+
+    /**
+     * 新插入的 id 总是最大的，直接追加；只有恢复时按提交顺序重放的行可能比前面的小，往前挪几位
+     */
+    private void indexIdOrder(int row) {
+        long id = ids.getLong(row);
+        int index = rowCount - 1;
+        while (index > 0 && ids.getLong(idOrder.getInt(index - 1)) > id) {
+            idOrder.putInt(index, idOrder.getInt(index - 1));
+            index--;
+        }
+        idOrder.putInt(index, row);
+    }
+
+    private void indexAccount(int row, int account) {
+        int newest = newestInAccount[account];
+        if (newest == NO_ROW || compare(row, newest) > 0) {
+            olderInAccount.putInt(row, newest);
+            newestInAccount[account] = row;
+            return;
+        }
+        int previous = newest;
+        int older = olderInAccount.getInt(previous);
+        while (older != NO_ROW && compare(older, row) > 0) {
+            previous = older;
+            older = olderInAccount.getInt(previous);
+        }
+        olderInAccount.putInt(row, older);
+        olderInAccount.putInt(previous, row);
+    }
+
+    /**
+     * 账户里比游标更旧的第一行。游标行还在索引里（删除只打标记）且属于该账户时直接从它往后走，否则从最新一行往后找
+     */
+    private int firstInAccountBefore(int account, long createdAt, Long cursorId) {
+        long id = cursorId != null ? cursorId : Long.MIN_VALUE;
+        if (cursorId != null) {
+            int index = lowerBound(createdAt, id);
+            if (index < rowCount) {
+                int row = order.getInt(index);
+                if (compareTo(row, createdAt, id) == 0 && accounts.getInt(row) == account) {
+                    return olderInAccount.getInt(row);
+                }
+            }
+        }
+        int row = newestInAccount[account];
+        while (row != NO_ROW && compareTo(row, createdAt, id) >= 0) {
+            row = olderInAccount.getInt(row);
+        }
+        return row;
+    }
+
+    /**
+     * order 里第一个不小于 (createdAt, id) 的位置
+     */
+    private int lowerBound(long createdAt, long id) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareTo(order.getInt(middle), createdAt, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int row, int other) {
+        return compareTo(row, createdAts.getLong(other), ids.getLong(other));
+    }
+
+    private int compareTo(int row, long createdAt, long id) {
+        int byCreatedAt = Long.compare(createdAts.getLong(row), createdAt);
+        return byCreatedAt != 0 ? byCreatedAt : Long.compare(ids.getLong(row), id);
+    }
+
+    private boolean isDeleted(int row) {
+        return deleted.getByte(row) != 0;
+    }
+
+    private int encodeAccount(String accountNumber) {
+        Integer code = accountCodes.get(accountNumber);
+        if (code != null) {
+            return code;
+        }
+        code = accountNumbers.size();
+        accountNumbers.add(accountNumber);
+        accountCodes.put(accountNumber, code);
+        if (code == newestInAccount.length) {
+            int length = newestInAccount.length;
+            newestInAccount = Arrays.copyOf(newestInAccount, length * 2);
+            Arrays.fill(newestInAccount, length, length * 2, NO_ROW);
+        }
+        newestInAccount[code] = NO_ROW;
+        return code;
+    }
+
+    private TransactionPO toPo(int row) {
+        int counterparty = counterparties.getInt(row);
+        return TransactionPO.builder()
+                .id(ids.getLong(row))
+                .transactionId(strings.get(transactionIdAddresses.getLong(row)))
+                .amount(amounts.getInt(row))
+                .transactionType(types.getByte(row))
+                .accountNumber(accountNumbers.get(accounts.getInt(row)))
+                .counterpartyAccount(counterparty != NO_ROW ? accountNumbers.get(counterparty) : null)
+                .description(strings.get(descriptionAddresses.getLong(row)))
+                .createdAt(fromMicros(createdAts.getLong(row)))
+                .updatedAt(fromMicros(updatedAts.getLong(row)))
+                .build();
+    }
+
+    /**
+     * 撤销本事务的一次写；这个 ID 的写锁还在本事务手里，行上的值一定是本事务写的
+     */
+    private void undo(Undo undo) {
+        int row = undo.row();
+        switch (undo.kind()) {
+            case INSERTED -> {
+                if (!isDeleted(row)) {
+                    deleted.putByte(row, (byte) 1);
+                    liveCount--;
+                }
+            }
+            case UPDATED -> {
+                amounts.putInt(row, undo.amount());
+                types.putByte(row, undo.transactionType());
+                descriptionAddresses.putLong(row, undo.description());
+                updatedAts.putLong(row, undo.updatedAt());
+            }
+            case DELETED -> {
+                // 有写锁时同一个 ID 不会被别的事务重新插入，这里仍然检查，避免出现两行
+                if (isDeleted(row) && findRow(strings.get(transactionIdAddresses.getLong(row))) == NO_ROW) {
+                    deleted.putByte(row, (byte) 0);
+                    liveCount++;
+                }
+            }
+        }
+    }
+
+    private void recordUndo(Undo undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        UndoLog undoLog = (UndoLog) TransactionSynchronizationManager.getResource(this);
+        if (undoLog == null) {
+            undoLog = new UndoLog();
+            TransactionSynchronizationManager.bindResource(this, undoLog);
+            TransactionSynchronizationManager.registerSynchronization(undoLog);
+        }
+        undoLog.undos.add(undo);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static ByteBuffer allocateSlots(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private enum UndoKind {
+        INSERTED, UPDATED, DELETED
+    }
+
+    // UPDATED 时带上旧的可修改列
+    private record Undo(UndoKind kind, int row, int amount, byte transactionType, long description, long updatedAt) {
+    }
+
+    private final class UndoLog implements TransactionSynchronization {
+
+        private final List<Undo> undos = new ArrayList<>();
+
+        @Override
+        public int getOrder() {
+            return UNDO_ORDER;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OffHeapTransactionStore.this);
+            if (status != STATUS_ROLLED_BACK) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                for (int i = undos.size() - 1; i >= 0; i--) {
+                    undo(undos.get(i));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Rolled back {} off-heap transaction writes", undos.size());
+        }
+    }
+}
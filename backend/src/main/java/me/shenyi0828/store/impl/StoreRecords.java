@@ -0,0 +1,183 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.model.TransactionPO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static me.shenyi0828.store.impl.StoreSupport.fromMicros;
+import static me.shenyi0828.store.impl.StoreSupport.toMicros;
+
+/**
+ * 日志段和快照共用的文件格式
+ * 文件头 16 字节：magic、版本、一个 long（快照里是行数）；之后是一条条记录，每条是 4 字节长度 + 4 字节 CRC32C + 内容。
+ * 读到长度不合理或校验不对的记录就停下，当作崩溃时写了一半的尾部。
+ * 一行交易：id、createdAt、updatedAt（epoch 微秒）、amount、type，然后 transactionId、账户号、对方账户、描述四个字符串，
+ * 字符串是 2 字节长度（0xFFFF 表示 null）+ UTF-8
+ *
+ * @author Yi
+ */
+final class StoreRecords {
+
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int FRAME_BYTES = 8;
+    // 单条记录的上限：四个字符串各不超过 64KB，加上定长字段
+    static final int MAX_RECORD_BYTES = 1 << 19;
+
+    private static final int NULL_LENGTH = 0xFFFF;
+    // 按窗口映射，单个 MappedByteBuffer 不能超过 2GB
+    private static final long MAP_WINDOW = 1L << 30;
+
+    private StoreRecords() {
+    }
+
+    static void writeHeader(FileChannel channel, int magic, long value) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(magic).putInt(VERSION).putLong(value).flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * @return 头部里的 long
+     */
+    static long readHeader(FileChannel channel, int magic, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        int read;
+        do {
+            read = channel.read(header, header.position());
+        } while (read > 0 && header.hasRemaining());
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != magic || header.getInt() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " store file: " + path);
+        }
+        return header.getLong();
+    }
+
+    /**
+     * 在 out 里追加一条记录，content 写记录内容；out 至少要留 {@link #MAX_RECORD_BYTES}
+     */
+    static void frame(ByteBuffer out, Consumer<ByteBuffer> content) {
+        int start = out.position();
+        out.position(start + FRAME_BYTES);
+        try {
+            content.accept(out);
+        } catch (RuntimeException e) {
+            // 写了一半的记录不能留在缓冲里
+            out.position(start);
+            throw e;
+        }
+        int end = out.position();
+        CRC32C crc = new CRC32C();
+        crc.update(out.duplicate().position(start + FRAME_BYTES).limit(end));
+        out.putInt(start, end - start - FRAME_BYTES);
+        out.putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * 从头部之后逐条读出记录内容，直到文件结束或第一条不完整、校验不对的记录。内存映射读取，不经过堆上缓冲
+     *
+     * @return 最后一条有效记录结束的位置，小于文件长度说明尾部有坏记录
+     */
+    static long read(FileChannel channel, Consumer<ByteBuffer> consumer) throws IOException {
+        long size = channel.size();
+        long position = HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        while (position < size) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAP_WINDOW, size - position));
+            while (window.remaining() >= FRAME_BYTES) {
+                int start = window.position();
+                int length = window.getInt(start);
+                if (length < 0 || length > MAX_RECORD_BYTES) {
+                    return position + start;
+                }
+                if (window.remaining() < FRAME_BYTES + length) {
+                    // 跨窗口的记录从下一个窗口的开头再读
+                    break;
+                }
+                ByteBuffer content = window.slice(start + FRAME_BYTES, length);
+                crc.reset();
+                crc.update(content.duplicate());
+                if ((int) crc.getValue() != window.getInt(start + Integer.BYTES)) {
+                    return position + start;
+                }
+                consumer.accept(content);
+                window.position(start + FRAME_BYTES + length);
+            }
+            if (window.position() == 0) {
+                // 剩下的凑不成一条完整的记录
+                return position;
+            }
+            position += window.position();
+        }
+        return position;
+    }
+
+    static void writeTransaction(ByteBuffer out, TransactionPO transaction) {
+        out.putLong(transaction.getId());
+        out.putLong(toMicros(transaction.getCreatedAt()));
+        out.putLong(toMicros(transaction.getUpdatedAt()));
+        out.putInt(transaction.getAmount());
+        out.put(transaction.getTransactionType());
+        writeString(out, transaction.getTransactionId());
+        writeString(out, transaction.getAccountNumber());
+        writeString(out, transaction.getCounterpartyAccount());
+        writeString(out, transaction.getDescription());
+    }
+
+    static TransactionPO readTransaction(ByteBuffer in) {
+        return TransactionPO.builder()
+                .id(in.getLong())
+                .createdAt(fromMicros(in.getLong()))
+                .updatedAt(fromMicros(in.getLong()))
+                .amount(in.getInt())
+                .transactionType(in.get())
+                .transactionId(readString(in))
+                .accountNumber(readString(in))
+                .counterpartyAccount(readString(in))
+                .description(readString(in))
+                .build();
+    }
+
+    static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_LENGTH) {
+            throw new IllegalArgumentException("Value too long for the store log: " + bytes.length + " bytes");
+        }
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 新建、改名的文件要把目录也刷盘，目录项才算持久
+     */
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
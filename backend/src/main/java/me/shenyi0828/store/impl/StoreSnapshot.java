@@ -0,0 +1,90 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.store.TransactionStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * 快照文件：全部交易一行一条记录（格式见 {@link StoreRecords}），头部记着行数
+ * 先写临时文件、刷盘后改名，能看到的快照总是完整的；读取时内存映射，逐条解码直接交给存储
+ *
+ * @author Yi
+ */
+final class StoreSnapshot {
+
+    static final int MAGIC = 0x54534E50;
+
+    private static final int BUFFER_BYTES = 4 << 20;
+
+    private StoreSnapshot() {
+    }
+
+    /**
+     * @return 写入的行数
+     */
+    static long write(Path path, TransactionStore source) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        long[] rows = {0};
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(StoreRecords.HEADER_BYTES);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            source.exportAll(resultContext -> {
+                if (buffer.remaining() < StoreRecords.MAX_RECORD_BYTES) {
+                    flush(channel, buffer);
+                }
+                StoreRecords.frame(buffer, out -> StoreRecords.writeTransaction(out, resultContext.getResultObject()));
+                rows[0]++;
+            });
+            flush(channel, buffer);
+            StoreRecords.writeHeader(channel, MAGIC, rows[0]);
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        StoreRecords.syncDirectory(path.getParent());
+        return rows[0];
+    }
+
+    /**
+     * @return 读出的行数
+     * @throws IOException 文件损坏或行数和头部不符
+     */
+    static long read(Path path, Consumer<TransactionPO> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long expected = StoreRecords.readHeader(channel, MAGIC, path);
+            long[] rows = {0};
+            long end = StoreRecords.read(channel, content -> {
+                consumer.accept(StoreRecords.readTransaction(content));
+                rows[0]++;
+            });
+            if (end != channel.size() || rows[0] != expected) {
+                throw new IOException("Snapshot " + path + " is damaged: read " + rows[0] + " of " + expected
+                        + " rows, " + (channel.size() - end) + " trailing bytes");
+            }
+            return rows[0];
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,75 @@
+package me.shenyi0828.store.impl;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 非数据库实现共用的小工具：NOT NULL 检查、时间和 epoch 微秒互转、给 ResultHandler 用的 ResultContext
+ *
+ * @author Yi
+ */
+final class StoreSupport {
+
+    private StoreSupport() {
+    }
+
+    // 和数据库的 NOT NULL 约束对应
+    static <T> T required(T value, String column) {
+        if (value == null) {
+            throw new DataIntegrityViolationException("NULL not allowed for column " + column);
+        }
+        return value;
+    }
+
+    // 库里 TIMESTAMP 是微秒精度，这里也一样
+    static long toMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * 逐个把结果交给 ResultHandler，支持 stop()
+     */
+    static final class ResultCursor<T> implements ResultContext<T> {
+
+        private T resultObject;
+        private int resultCount;
+        private boolean stopped;
+
+        // 返回 false 表示 handler 要求停止
+        boolean next(T value, ResultHandler<T> resultHandler) {
+            resultObject = value;
+            resultCount++;
+            resultHandler.handleResult(this);
+            return !stopped;
+        }
+
+        @Override
+        public T getResultObject() {
+            return resultObject;
+        }
+
+        @Override
+        public int getResultCount() {
+            return resultCount;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.model.TransactionTotalsPO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 报表的累加器：按整数分组（相对起始日的天数、账户编码）累加收入/支出的笔数和金额。
+ * 每组四个 long 相邻放在一个数组里，逐行累加不装箱、不建对象；并行扫描时每个分片一个，扫完两两相加。
+ * 天按 epoch 微秒整除一天的长度来分，和 SQL 里 CAST(created_at AS DATE) 一致
+ *
+ * @author Yi
+ */
+final class StoreTotals {
+
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    private static final byte TYPE_INCOME = 2;
+    // 收入笔数、收入金额、支出笔数、支出金额
+    private static final int FIELDS = 4;
+
+    private final long[] values;
+
+    StoreTotals(int groups) {
+        this.values = new long[Math.multiplyExact(groups, FIELDS)];
+    }
+
+    static long epochDay(long micros) {
+        return Math.floorDiv(micros, MICROS_PER_DAY);
+    }
+
+    /**
+     * [fromMicros, toMicros) 跨越的天数，要求 fromMicros &lt; toMicros
+     */
+    static int days(long fromMicros, long toMicros) {
+        return Math.toIntExact(epochDay(toMicros - 1) - epochDay(fromMicros) + 1);
+    }
+
+    void add(int group, byte transactionType, int amount) {
+        int base = group * FIELDS + (transactionType == TYPE_INCOME ? 0 : 2);
+        values[base]++;
+        values[base + 1] += amount;
+    }
+
+    void merge(StoreTotals other) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] += other.values[i];
+        }
+    }
+
+    boolean isEmpty(int group) {
+        return values[group * FIELDS] == 0 && values[group * FIELDS + 2] == 0;
+    }
+
+    /**
+     * 第 group 组的合计，不带分组键
+     */
+    TransactionTotalsPO toPo(int group) {
+        int base = group * FIELDS;
+        return TransactionTotalsPO.builder()
+                .incomeCount(values[base])
+                .totalIncome(values[base + 1])
+                .expenseCount(values[base + 2])
+                .totalExpense(values[base + 3])
+                .build();
+    }
+
+    /**
+     * 分组是相对 firstDay 的天数时，按天从旧到新输出有交易的天
+     */
+    List<TransactionTotalsPO> toDays(long firstDay) {
+        List<TransactionTotalsPO> days = new ArrayList<>();
+        for (int group = 0; group < values.length / FIELDS; group++) {
+            if (!isEmpty(group)) {
+                TransactionTotalsPO totals = toPo(group);
+                totals.setDay(LocalDate.ofEpochDay(firstDay + group));
+                days.add(totals);
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,129 @@
+package me.shenyi0828.store.impl;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 一个日志段，格式见 {@link StoreRecords}，每条记录内容以 1 字节类型 + 8 字节事务号开头
+ * 记录先追加到堆外缓冲，提交时才写文件。组提交：同一时刻只有一个线程在 write + force，
+ * 其他提交的线程等它；它刷盘时缓冲里已有的记录（包括别的事务的提交记录）一起落盘，
+ * 所以并发提交越多，一次 fsync 覆盖的提交越多
+ *
+ * @author Yi
+ */
+final class WriteAheadLog implements Closeable {
+
+    static final int MAGIC = 0x54574C47;
+
+    private static final int BUFFER_BYTES = 4 << 20;
+
+    private final FileChannel channel;
+    private final Timer syncTimer;
+    // 以下由 this 保护
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long flushedPosition = StoreRecords.HEADER_BYTES;
+    // 以下由 syncMonitor 保护
+    private final Object syncMonitor = new Object();
+    private long durablePosition = StoreRecords.HEADER_BYTES;
+    private boolean syncing;
+
+    private WriteAheadLog(FileChannel channel, Timer syncTimer) {
+        this.channel = channel;
+        this.syncTimer = syncTimer;
+    }
+
+    static WriteAheadLog create(Path path, Timer syncTimer) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        StoreRecords.writeHeader(channel, MAGIC, 0);
+        channel.position(StoreRecords.HEADER_BYTES);
+        channel.force(true);
+        StoreRecords.syncDirectory(path.getParent());
+        return new WriteAheadLog(channel, syncTimer);
+    }
+
+    /**
+     * 追加一条记录到缓冲，不等落盘
+     *
+     * @return 记录结束的位置，交给 {@link #awaitDurable}
+     */
+    synchronized long append(byte kind, long transaction, Consumer<ByteBuffer> content) throws IOException {
+        if (buffer.remaining() < StoreRecords.MAX_RECORD_BYTES) {
+            flush();
+        }
+        StoreRecords.frame(buffer, out -> {
+            out.put(kind);
+            out.putLong(transaction);
+            content.accept(out);
+        });
+        return flushedPosition + buffer.position();
+    }
+
+    /**
+     * 等到 position 之前的记录都已落盘，必要时自己发起一次
+     */
+    void awaitDurable(long position) throws IOException {
+        synchronized (syncMonitor) {
+            while (durablePosition < position && syncing) {
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the transaction log");
+                }
+            }
+            if (durablePosition >= position) {
+                return;
+            }
+            syncing = true;
+        }
+        long synced = -1;
+        try {
+            long start = System.nanoTime();
+            long target = flush();
+            channel.force(false);
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            synced = target;
+        } finally {
+            synchronized (syncMonitor) {
+                durablePosition = Math.max(durablePosition, synced);
+                syncing = false;
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return 已追加的字节数（含文件头）
+     */
+    synchronized long size() {
+        return flushedPosition + buffer.position();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        flush();
+        channel.force(false);
+        channel.close();
+    }
+
+    private synchronized long flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushedPosition += channel.write(buffer);
+        }
+        buffer.clear();
+        return flushedPosition;
+    }
+}
@@ -0,0 +1,93 @@
+package me.shenyi0828.store.impl;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内存储的写锁，作用相当于数据库的行锁
+ * Spring 事务第一次写某个 transactionId（或 for update 读它）时登记，事务结束、undo 恢复完才释放；
+ * 别的事务要写同一个 ID 时等它结束，回滚按 undo 恢复时就不会盖掉别人已提交的写。
+ * 键是 transactionId，不要求行存在：插入和未提交的删除也互斥。
+ * 不在事务里的写（启动装载、恢复重放）只等别人的锁释放，自己不持有。
+ * 没有死锁检测，等待超时抛 {@link CannotAcquireLockException}，和数据库锁等待超时一样由调用方的事务回滚
+ *
+ * @author Yi
+ */
+final class WriteIntents {
+
+    private static final long WAIT_SECONDS = 10;
+
+    private final ConcurrentHashMap<String, Holder> holders = new ConcurrentHashMap<>();
+
+    /**
+     * 拿到 transactionId 的写锁，本事务已持有时直接返回；不能在持有存储自己的锁时调用
+     */
+    void acquire(String transactionId) {
+        Holder holder = TransactionSynchronizationManager.isSynchronizationActive() ? currentHolder() : null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (true) {
+            Holder owner = holder != null ? holders.putIfAbsent(transactionId, holder) : holders.get(transactionId);
+            if (owner == null) {
+                if (holder != null) {
+                    holder.transactionIds.add(transactionId);
+                }
+                return;
+            }
+            if (owner == holder) {
+                return;
+            }
+            await(owner, transactionId, deadline - System.nanoTime());
+        }
+    }
+
+    private static void await(Holder owner, String transactionId, long remainingNanos) {
+        try {
+            if (remainingNanos <= 0 || !owner.released.await(remainingNanos, TimeUnit.NANOSECONDS)) {
+                throw new CannotAcquireLockException("Timeout waiting for write lock on transaction " + transactionId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted waiting for write lock on transaction " + transactionId);
+        }
+    }
+
+    private Holder currentHolder() {
+        Holder holder = (Holder) TransactionSynchronizationManager.getResource(this);
+        if (holder == null) {
+            holder = new Holder();
+            TransactionSynchronizationManager.bindResource(this, holder);
+            TransactionSynchronizationManager.registerSynchronization(holder);
+        }
+        return holder;
+    }
+
+    /**
+     * 一个事务持有的写锁，排在 undo 之后释放：等待的事务看到的是已经恢复好的行
+     */
+    private final class Holder implements TransactionSynchronization {
+
+        private final List<String> transactionIds = new ArrayList<>();
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public int getOrder() {
+            return InProcessTransactionStore.UNDO_ORDER + 1;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(WriteIntents.this);
+            for (String transactionId : transactionIds) {
+                holders.remove(transactionId, this);
+            }
+            released.countDown();
+        }
+    }
+}
@@ -14,4 +14,22 @@ INSERT INTO transactions (transaction_id, amount, transaction_type, account_numb
 ('TXN202501140012', 150000, 2, '6222021234567890', '6222029999999999', 'Freelance payment'),
 ('TXN202501140013', 8500, 1, '6222021234567890', '6222020000000000', 'Coffee shop'),
 ('TXN202501140014', 60000, 1, '6222021234567890', '6222021111111112', 'Utility bills'),
-('TXN202501140015', 180000, 2, '6222021234567890', '6222022222222223', 'Consulting fee');
\ No newline at end of file
+('TXN202501140015', 180000, 2, '6222021234567890', '6222022222222223', 'Consulting fee');
+
+-- Build account summaries from the seed data
+INSERT INTO account_summary (account_number, transaction_count, total_income, total_expense, last_activity_at)
+SELECT account_number, COUNT(*),
+       SUM(CASE WHEN transaction_type = 2 THEN amount ELSE 0 END),
+       SUM(CASE WHEN transaction_type = 1 THEN amount ELSE 0 END),
+       MAX(updated_at)
+FROM transactions
+GROUP BY account_number;
+
+-- Start the maintained total count from the seed data
+UPDATE transaction_counter SET row_count = (SELECT COUNT(*) FROM transactions) WHERE slot = 0;
+
+-- Build the daily rollup from the seed data, all on slot 0
+INSERT INTO transaction_daily_rollup (rollup_day, transaction_type, slot, transaction_count, total_amount)
+SELECT CAST(created_at AS DATE), transaction_type, 0, COUNT(*), SUM(amount)
+FROM transactions
+GROUP BY CAST(created_at AS DATE), transaction_type;
@@ -1,5 +1,8 @@
 -- Drop table if exists
 DROP TABLE IF EXISTS transactions;
+DROP TABLE IF EXISTS account_summary;
+DROP TABLE IF EXISTS transaction_counter;
+DROP TABLE IF EXISTS transaction_daily_rollup;
 
 -- Create transactions table
 CREATE TABLE transactions (
@@ -16,4 +19,35 @@ CREATE TABLE transactions (
 
 -- Create indexes for better performance
 CREATE UNIQUE INDEX idx_transactions_transaction_id ON transactions(transaction_id);
-CREATE INDEX idx_transactions_created_at ON transactions(created_at DESC);
\ No newline at end of file
+-- (created_at, id) backs both offset paging and keyset cursor paging
+CREATE INDEX idx_transactions_created_at ON transactions(created_at DESC, id DESC);
+-- Per-account history, newest first
+CREATE INDEX idx_transactions_account_created_at ON transactions(account_number, created_at DESC, id DESC);
+
+-- Per-account aggregate, maintained with deltas in the same transaction as every write
+CREATE TABLE account_summary (
+    account_number VARCHAR(32) PRIMARY KEY COMMENT 'Account number',
+    transaction_count BIGINT NOT NULL DEFAULT 0 COMMENT 'Number of transactions',
+    total_income BIGINT NOT NULL DEFAULT 0 COMMENT 'Sum of INCOME amounts in cents',
+    total_expense BIGINT NOT NULL DEFAULT 0 COMMENT 'Sum of EXPENSE amounts in cents',
+    last_activity_at TIMESTAMP COMMENT 'Time of the last create, update or delete'
+);
+
+-- Total row count split over 16 slot rows; writers add to a random slot, readers SUM all slots
+CREATE TABLE transaction_counter (
+    slot INT PRIMARY KEY COMMENT 'Slot number, 0-15',
+    row_count BIGINT NOT NULL DEFAULT 0 COMMENT 'Share of the total row count held by this slot'
+);
+INSERT INTO transaction_counter (slot, row_count) SELECT X - 1, 0 FROM SYSTEM_RANGE(1, 16);
+
+-- Per-day totals by type, maintained with deltas in the same transaction as every write.
+-- Each (day, type) is split over 16 slot rows so that concurrent writers to today's totals do not queue on one row lock;
+-- readers SUM the slots
+CREATE TABLE transaction_daily_rollup (
+    rollup_day DATE NOT NULL COMMENT 'Creation date of the transactions',
+    transaction_type TINYINT NOT NULL COMMENT 'Transaction type: 1=EXPENSE, 2=INCOME',
+    slot INT NOT NULL COMMENT 'Slot number, 0-15',
+    transaction_count BIGINT NOT NULL DEFAULT 0 COMMENT 'Share of the number of transactions held by this slot',
+    total_amount BIGINT NOT NULL DEFAULT 0 COMMENT 'Share of the sum of amounts in cents held by this slot',
+    PRIMARY KEY (rollup_day, transaction_type, slot)
+);
@@ -0,0 +1,140 @@
+package me.shenyi0828.aspect;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.shenyi0828.controller.TransactionController;
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ControllerLogAspect, capturing what it writes to its logger
+ *
+ */
+class ControllerLogAspectTest {
+
+    private static final String TRANSACTION_ID = "TXN202501140001";
+
+    private final Logger aspectLogger = (Logger) LoggerFactory.getLogger(ControllerLogAspect.class);
+    private ListAppender<ILoggingEvent> appender;
+    private Level originalLevel;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        appender = new ListAppender<>();
+        appender.start();
+        aspectLogger.addAppender(appender);
+        originalLevel = aspectLogger.getLevel();
+        aspectLogger.setLevel(Level.INFO);
+
+        transactionService = mock(TransactionService.class);
+        when(transactionService.getTransactionById(TRANSACTION_ID))
+                .thenReturn(TransactionDTO.builder().transactionId(TRANSACTION_ID).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        aspectLogger.detachAppender(appender);
+        aspectLogger.setLevel(originalLevel);
+    }
+
+    @Test
+    void logControllerExecution_LogsParameterNamesAndValues() {
+        // Given
+        TransactionController controller = advisedController(1);
+
+        // When
+        controller.getTransactionById(TRANSACTION_ID);
+        controller.getTransactionById(TRANSACTION_ID);
+
+        // Then
+        assertEquals(2, appender.list.size());
+        String message = appender.list.get(0).getFormattedMessage();
+        assertTrue(message.contains("Method: TransactionController.getTransactionById"), message);
+        assertTrue(message.contains("Params: {transactionId: \"" + TRANSACTION_ID + "\"}"), message);
+        assertTrue(message.contains("Status: SUCCESS"), message);
+    }
+
+    @Test
+    void logControllerExecution_SampledSuccessesButEveryError() {
+        // Given: effectively never sample successes
+        TransactionController controller = advisedController(Integer.MAX_VALUE);
+        when(transactionService.getTransactionById("MISSING"))
+                .thenThrow(new BusinessException(ErrorCode.TRANSACTION_NOT_FOUND));
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            controller.getTransactionById(TRANSACTION_ID);
+        }
+        assertThrows(BusinessException.class, () -> controller.getTransactionById("MISSING"));
+
+        // Then
+        assertTrue(appender.list.size() <= 2);
+        ILoggingEvent last = appender.list.get(appender.list.size() - 1);
+        assertEquals(Level.ERROR, last.getLevel());
+        assertTrue(last.getFormattedMessage().contains("Status: ERROR"));
+    }
+
+    @Test
+    void logControllerExecution_LogsParametersAsReceived() {
+        // Given: the service mutates the request while handling it
+        TransactionController controller = advisedController(1);
+        TransactionEditRequest request = new TransactionEditRequest();
+        request.setAccountNumber("ACC001");
+        when(transactionService.createTransaction(request)).thenAnswer(invocation -> {
+            request.setTransactionId(TRANSACTION_ID);
+            return TransactionDTO.builder().transactionId(TRANSACTION_ID).build();
+        });
+
+        // When
+        controller.createTransaction(request);
+
+        // Then: the line shows the request as received
+        String message = appender.list.get(0).getFormattedMessage();
+        assertTrue(message.contains("\"accountNumber\":\"ACC001\""), message);
+        assertFalse(message.contains(TRANSACTION_ID), message);
+    }
+
+    @Test
+    void logControllerExecution_InfoDisabled_DoesNotRenderParameters() throws Exception {
+        // Given
+        aspectLogger.setLevel(Level.WARN);
+        ObjectMapper objectMapper = spy(new ObjectMapper());
+        TransactionController controller = advisedController(new ControllerLogAspect(objectMapper, 1));
+
+        // When
+        controller.getTransactionById(TRANSACTION_ID);
+
+        // Then
+        assertTrue(appender.list.isEmpty());
+        verify(objectMapper, never()).writeValueAsString(any());
+    }
+
+    private TransactionController advisedController(int sampleRate) {
+        return advisedController(new ControllerLogAspect(new ObjectMapper(), sampleRate));
+    }
+
+    private TransactionController advisedController(ControllerLogAspect aspect) {
+        TransactionController controller = new TransactionController();
+        ReflectionTestUtils.setField(controller, "transactionService", transactionService);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(controller);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,105 @@
+package me.shenyi0828.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.shenyi0828.model.TransactionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the versioned binary TransactionDTO cache codec
+ *
+ */
+class BinaryTransactionCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final BinaryTransactionCodec codec = new BinaryTransactionCodec();
+
+    @Test
+    void encode_RoundTripsAllFields() {
+        // Given: 负金额、多字节字符、纳秒、1970 年以前的时间
+        TransactionDTO transaction = transaction();
+        transaction.setAmount(-250000);
+        transaction.setDescription("工资 转账");
+        transaction.setCreatedAt(LocalDateTime.of(2025, 1, 14, 9, 30, 15, 123456789));
+        transaction.setUpdatedAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59));
+
+        // When
+        TransactionDTO decoded = codec.decode(codec.encode(transaction));
+
+        // Then
+        assertEquals(transaction, decoded);
+    }
+
+    @Test
+    void encode_NullFieldsStayNull() {
+        // Given
+        TransactionDTO transaction = TransactionDTO.builder()
+                .transactionId("TXN202501140001")
+                .description("")
+                .build();
+
+        // When
+        TransactionDTO decoded = codec.decode(codec.encode(transaction));
+
+        // Then
+        assertEquals(transaction, decoded);
+        assertNull(decoded.getAmount());
+        assertEquals("", decoded.getDescription());
+    }
+
+    @Test
+    void encode_SmallerThanJson() throws Exception {
+        // When
+        byte[] binary = codec.encode(transaction());
+        byte[] json = objectMapper.writeValueAsBytes(transaction());
+
+        // Then
+        assertTrue(binary.length * 2 < json.length, binary.length + " vs " + json.length);
+    }
+
+    @Test
+    void decode_OtherFormatOrVersion_ReturnsNull() throws Exception {
+        // Given
+        byte[] legacyJson = objectMapper.writeValueAsString(transaction()).getBytes(StandardCharsets.UTF_8);
+        byte[] jsonCodec = new JsonCacheCodec<>(objectMapper, TransactionDTO.class).encode(transaction());
+        byte[] nextVersion = codec.encode(transaction());
+        nextVersion[1] = BinaryTransactionCodec.VERSION + 1;
+
+        // When & Then
+        assertNull(codec.decode(legacyJson));
+        assertNull(codec.decode(jsonCodec));
+        assertNull(codec.decode(nextVersion));
+        assertNull(codec.decode(new byte[0]));
+    }
+
+    @Test
+    void decode_TruncatedOrTrailingBytes_Throws() {
+        // Given
+        byte[] bytes = codec.encode(transaction());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        byte[] trailing = Arrays.copyOf(bytes, bytes.length + 1);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(trailing));
+    }
+
+    private static TransactionDTO transaction() {
+        return TransactionDTO.builder()
+                .id(1L)
+                .transactionId("TXN202501140001")
+                .amount(100000)
+                .transactionType((byte) 2)
+                .accountNumber("6222021234567890")
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer")
+                .createdAt(LocalDateTime.of(2025, 1, 14, 9, 30))
+                .updatedAt(LocalDateTime.of(2025, 1, 14, 9, 30))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package me.shenyi0828.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lock-free bloom filter
+ *
+ */
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+
+    @Test
+    void mightContain_NoFalseNegativesAndFppNearTarget() {
+        // Given
+        BloomFilter bloomFilter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            bloomFilter.put("TXN" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = INSERTIONS; i < 2 * INSERTIONS; i++) {
+            if (bloomFilter.mightContain("TXN" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(bloomFilter.mightContain("TXN" + i));
+        }
+        double fpp = (double) falsePositives / INSERTIONS;
+        assertTrue(fpp < 0.02, "observed fpp " + fpp);
+        assertEquals(0.01, bloomFilter.expectedFpp(), 0.005);
+        // about 1.2 bytes per ID at 1%
+        assertTrue(bloomFilter.sizeInBytes() < INSERTIONS * 2L);
+    }
+
+    @Test
+    void put_ConcurrentWriters_NoLostBits() throws Exception {
+        // Given
+        BloomFilter bloomFilter = new BloomFilter(INSERTIONS, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When: eight writers interleave on the same words
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int writer = t;
+            futures.add(executor.submit(() -> {
+                for (int i = writer; i < INSERTIONS; i += 8) {
+                    bloomFilter.put("TXN" + i);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(bloomFilter.mightContain("TXN" + i), "lost TXN" + i);
+        }
+    }
+
+    @Test
+    void constructor_InvalidFpp_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    }
+}
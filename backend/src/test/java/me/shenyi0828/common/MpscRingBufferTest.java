@@ -0,0 +1,105 @@
+package me.shenyi0828.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lock-free multi-producer single-consumer ring buffer
+ *
+ */
+class MpscRingBufferTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int PER_PRODUCER = 50_000;
+
+    @Test
+    void offer_RejectsWhenFullAndDrainsInOrder() {
+        // Given: 容量向上取整到 4
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+
+        // When
+        List<Boolean> offered = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            offered.add(buffer.offer(i));
+        }
+        List<Integer> drained = new ArrayList<>();
+        int count = buffer.drain(drained::add, 10);
+
+        // Then
+        assertEquals(4, buffer.capacity());
+        assertEquals(List.of(true, true, true, true, false), offered);
+        assertEquals(4, count);
+        assertEquals(List.of(0, 1, 2, 3), drained);
+        assertTrue(buffer.isEmpty());
+        assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    void drain_StopsAtLimit() {
+        // Given
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+
+        // When
+        List<Integer> drained = new ArrayList<>();
+        buffer.drain(drained::add, 2);
+
+        // Then
+        assertEquals(List.of(0, 1), drained);
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    void offer_ConcurrentProducers_NothingLostOrDuplicated() throws Exception {
+        // Given: 队列远小于总量，生产者会反复遇到队列满
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int p = 0; p < PRODUCERS; p++) {
+            int base = p * PER_PRODUCER;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < PER_PRODUCER; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        Set<Integer> consumed = new HashSet<>();
+        int[] lastPerProducer = new int[PRODUCERS];
+        Arrays.fill(lastPerProducer, -1);
+        boolean[] ordered = {true};
+        while (consumed.size() < PRODUCERS * PER_PRODUCER) {
+            buffer.drain(value -> {
+                consumed.add(value);
+                // 同一个生产者放入的元素按顺序出来
+                int producer = value / PER_PRODUCER;
+                ordered[0] &= value % PER_PRODUCER > lastPerProducer[producer];
+                lastPerProducer[producer] = value % PER_PRODUCER;
+            }, 256);
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(PRODUCERS * PER_PRODUCER, consumed.size());
+        assertTrue(ordered[0]);
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,192 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.mapper.AccountSummaryMapper;
+import me.shenyi0828.model.AccountSummaryDTO;
+import me.shenyi0828.model.AccountSummaryPO;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.store.TransactionStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the incrementally maintained account summary
+ * Every test uses its own account: summaries read here stay in the in-process cache after the rollback
+ *
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AccountSummaryServiceTest {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountSummaryMapper accountSummaryMapper;
+
+    @Autowired
+    private TransactionStore transactionStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getAccountSummary_SeedData_MatchesFullScan() {
+        // When
+        AccountSummaryDTO summary = accountSummaryService.getAccountSummary("6222021234567890");
+
+        // Then
+        assertSummaryMatchesScan("6222021234567890", summary);
+        assertEquals(summary.getTotalIncome() - summary.getTotalExpense(), summary.getBalance().longValue());
+    }
+
+    @Test
+    void createUpdateDelete_AppliesDeltas() {
+        // Given
+        TransactionDTO income = transactionService.createTransaction(request("ACCSUM01", 10000, (byte) 2));
+        TransactionDTO expense = transactionService.createTransaction(request("ACCSUM01", 2500, (byte) 1));
+        transactionService.createTransactions(List.of(
+                request("ACCSUM01", 700, (byte) 1), request("ACCSUM02", 300, (byte) 2)));
+
+        // When: the expense becomes a bigger income, then the first income is deleted
+        TransactionEditRequest update = request(null, 4000, (byte) 2);
+        transactionService.updateTransaction(expense.getTransactionId(), update);
+        transactionService.deleteTransaction(income.getTransactionId());
+
+        // Then
+        AccountSummaryPO summary = accountSummaryMapper.findByAccountNumber("ACCSUM01");
+        assertEquals(2L, summary.getTransactionCount().longValue());
+        assertEquals(4000L, summary.getTotalIncome().longValue());
+        assertEquals(700L, summary.getTotalExpense().longValue());
+        assertNotNull(summary.getLastActivityAt());
+        assertSummaryMatchesScan("ACCSUM01", accountSummaryService.getAccountSummary("ACCSUM01"));
+        assertSummaryMatchesScan("ACCSUM02", accountSummaryService.getAccountSummary("ACCSUM02"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentUpdatesAndDelete_SummaryMatchesRecount() throws Exception {
+        // Given: 已提交的一笔，每轮两个事务同时改它，最后一轮一个改一个删
+        String transactionId = transactionService.createTransaction(request("ACCSUMRACE", 1000, (byte) 2))
+                .getTransactionId();
+
+        // When
+        for (int round = 0; round < ROUNDS; round++) {
+            int amount = 100 * (round + 1);
+            race(() -> transactionService.updateTransaction(transactionId, request(null, amount, (byte) 1)),
+                    () -> transactionService.updateTransaction(transactionId, request(null, amount + 50, (byte) 2)));
+        }
+        race(() -> transactionService.updateTransaction(transactionId, request(null, 7, (byte) 2)),
+                () -> transactionService.deleteTransaction(transactionId));
+
+        // Then: 每个差值都按真正被替换的旧值算，删完之后汇总归零
+        AccountSummaryDTO summary = accountSummaryService.getAccountSummary("ACCSUMRACE");
+        assertSummaryMatchesScan("ACCSUMRACE", summary);
+        assertEquals(0L, summary.getTransactionCount().longValue());
+    }
+
+    @Test
+    void getAccountSummary_UnknownAccount_ReturnsZeros() {
+        // When
+        AccountSummaryDTO summary = accountSummaryService.getAccountSummary("ACCSUMNONE");
+
+        // Then
+        assertEquals("ACCSUMNONE", summary.getAccountNumber());
+        assertEquals(0L, summary.getTransactionCount().longValue());
+        assertEquals(0L, summary.getBalance().longValue());
+        assertNull(summary.getLastActivityAt());
+    }
+
+    @Test
+    void rebuild_ReplacesTableWithAggregatesOfStore() {
+        // Given: 汇总表和交易对不上，还多了一个没有交易的账户
+        transactionService.createTransaction(request("ACCSUM03", 1200, (byte) 2));
+        jdbcTemplate.update("UPDATE account_summary SET total_income = 0, transaction_count = 99");
+        jdbcTemplate.update("INSERT INTO account_summary (account_number, transaction_count) VALUES ('ACCSUMSTALE', 5)");
+
+        // When
+        accountSummaryService.rebuild(transactionStore);
+
+        // Then
+        AccountSummaryPO rebuilt = accountSummaryMapper.findByAccountNumber("ACCSUM03");
+        assertEquals(1L, rebuilt.getTransactionCount().longValue());
+        assertEquals(1200L, rebuilt.getTotalIncome().longValue());
+        assertEquals(0L, rebuilt.getTotalExpense().longValue());
+        assertNull(accountSummaryMapper.findByAccountNumber("ACCSUMSTALE"));
+        Long seedIncome = jdbcTemplate.queryForObject("SELECT SUM(amount) FROM transactions "
+                + "WHERE account_number = '6222021234567890' AND transaction_type = 2", Long.class);
+        assertEquals(seedIncome, accountSummaryMapper.findByAccountNumber("6222021234567890").getTotalIncome());
+    }
+
+    /**
+     * 各个写操作在自己的线程和事务里同时开始；后到的改动发现交易已被删除时按正常结果处理
+     */
+    private static void race(Runnable... writes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writes.length);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable write : writes) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        write.run();
+                    } catch (BusinessException e) {
+                        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), e.getCode());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertSummaryMatchesScan(String accountNumber, AccountSummaryDTO summary) {
+        Map<String, Object> scan = jdbcTemplate.queryForMap("SELECT COUNT(*) AS cnt, "
+                + "COALESCE(SUM(CASE WHEN transaction_type = 2 THEN amount ELSE 0 END), 0) AS income, "
+                + "COALESCE(SUM(CASE WHEN transaction_type = 1 THEN amount ELSE 0 END), 0) AS expense "
+                + "FROM transactions WHERE account_number = ?", accountNumber);
+        assertEquals(((Number) scan.get("CNT")).longValue(), summary.getTransactionCount().longValue());
+        assertEquals(((Number) scan.get("INCOME")).longValue(), summary.getTotalIncome().longValue());
+        assertEquals(((Number) scan.get("EXPENSE")).longValue(), summary.getTotalExpense().longValue());
+    }
+
+    private static TransactionEditRequest request(String accountNumber, int amount, byte transactionType) {
+        TransactionEditRequest request = new TransactionEditRequest();
+        request.setAccountNumber(accountNumber);
+        request.setAmount(amount);
+        request.setTransactionType(transactionType);
+        request.setCounterpartyAccount("ACC999999");
+        request.setDescription("Summary test");
+        return request;
+    }
+}
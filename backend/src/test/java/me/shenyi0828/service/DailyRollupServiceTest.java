@@ -0,0 +1,170 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.mapper.DailyRollupMapper;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.model.TransactionTotalsPO;
+import me.shenyi0828.store.TransactionStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the daily rollup maintained on every write: its summed slots must equal the GROUP BY over the transactions
+ *
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class DailyRollupServiceTest {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DailyRollupMapper dailyRollupMapper;
+
+    @Autowired
+    private TransactionStore transactionStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seedData_MatchesGroupBy() {
+        assertRollupMatchesGroupBy(LocalDate.now().minusDays(1), LocalDate.now());
+    }
+
+    @Test
+    void createUpdateDelete_AppliesDeltas() {
+        // Given
+        LocalDate today = LocalDate.now();
+        TransactionTotalsPO before = rollupOf(today);
+        TransactionDTO income = transactionService.createTransaction(request("ACCROLL01", 10000, (byte) 2));
+        TransactionDTO expense = transactionService.createTransaction(request("ACCROLL01", 2500, (byte) 1));
+        transactionService.createTransactions(List.of(
+                request("ACCROLL01", 700, (byte) 1), request("ACCROLL02", 300, (byte) 2)));
+
+        // When: the expense becomes a bigger income, then the first income is deleted
+        transactionService.updateTransaction(expense.getTransactionId(), request(null, 4000, (byte) 2));
+        transactionService.deleteTransaction(income.getTransactionId());
+
+        // Then
+        TransactionTotalsPO after = rollupOf(today);
+        assertEquals(before.getIncomeCount() + 2, after.getIncomeCount());
+        assertEquals(before.getTotalIncome() + 4300, after.getTotalIncome());
+        assertEquals(before.getExpenseCount() + 1, after.getExpenseCount());
+        assertEquals(before.getTotalExpense() + 700, after.getTotalExpense());
+        assertRollupMatchesGroupBy(today, today);
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction_daily_rollup WHERE rollup_day = ?", Integer.class, today);
+        assertTrue(rows <= 32, "at most 16 slots per type, got " + rows);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentUpdatesAndDelete_RollupMatchesGroupBy() throws Exception {
+        // Given: 已提交的一笔，每轮两个事务同时改它，最后一轮一个改一个删
+        String transactionId = transactionService.createTransaction(request("ACCROLLRACE", 1000, (byte) 2))
+                .getTransactionId();
+
+        // When
+        for (int round = 0; round < ROUNDS; round++) {
+            int amount = 100 * (round + 1);
+            race(() -> transactionService.updateTransaction(transactionId, request(null, amount, (byte) 1)),
+                    () -> transactionService.updateTransaction(transactionId, request(null, amount + 50, (byte) 2)));
+        }
+        race(() -> transactionService.updateTransaction(transactionId, request(null, 7, (byte) 2)),
+                () -> transactionService.deleteTransaction(transactionId));
+
+        // Then: 每个差值都按真正被替换的旧值算，删完之后汇总和 GROUP BY 一致
+        assertNull(transactionStore.findByTransactionId(transactionId));
+        assertRollupMatchesGroupBy(LocalDate.now().minusDays(1), LocalDate.now());
+    }
+
+    @Test
+    void rebuild_ReplacesTableWithAggregatesOfStore() {
+        // Given: 汇总表和交易对不上，还多了一天没有交易的
+        transactionService.createTransaction(request("ACCROLL03", 1200, (byte) 2));
+        jdbcTemplate.update("UPDATE transaction_daily_rollup SET total_amount = 0, transaction_count = 99");
+        jdbcTemplate.update("INSERT INTO transaction_daily_rollup (rollup_day, transaction_type, slot, "
+                + "transaction_count, total_amount) VALUES (DATE '2000-01-01', 2, 0, 5, 500)");
+
+        // When
+        dailyRollupService.rebuild(transactionStore);
+
+        // Then
+        assertRollupMatchesGroupBy(LocalDate.of(2000, 1, 1), LocalDate.now());
+    }
+
+    private TransactionTotalsPO rollupOf(LocalDate day) {
+        List<TransactionTotalsPO> days = dailyRollupMapper.sumByDay(day, day);
+        return days.isEmpty() ? new TransactionTotalsPO(day, null, 0L, 0L, 0L, 0L) : days.get(0);
+    }
+
+    /**
+     * 所有写同时开始，删掉之后的写会报交易不存在
+     */
+    private static void race(Runnable... writes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writes.length);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable write : writes) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        write.run();
+                    } catch (BusinessException e) {
+                        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), e.getCode());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertRollupMatchesGroupBy(LocalDate from, LocalDate to) {
+        List<TransactionTotalsPO> scanned = transactionStore.sumByDay(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        assertFalse(scanned.isEmpty());
+        assertEquals(scanned, dailyRollupMapper.sumByDay(from, to));
+    }
+
+    private static TransactionEditRequest request(String accountNumber, int amount, byte transactionType) {
+        TransactionEditRequest request = new TransactionEditRequest();
+        request.setAccountNumber(accountNumber);
+        request.setAmount(amount);
+        request.setTransactionType(transactionType);
+        request.setCounterpartyAccount("ACC999999");
+        request.setDescription("Rollup test");
+        return request;
+    }
+}
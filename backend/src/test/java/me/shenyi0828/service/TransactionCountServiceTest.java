@@ -0,0 +1,86 @@
+package me.shenyi0828.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the maintained total count
+ *
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TransactionCountServiceTest {
+
+    @Autowired
+    private TransactionCountService transactionCountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getTotalCount_FollowsEveryWrite() {
+        // Given
+        long initial = transactionCountService.getTotalCount();
+        assertEquals(countRows(), initial);
+
+        // When
+        TransactionDTO created = transactionService.createTransaction(request());
+        transactionService.createTransactions(List.of(request(), request(), request()));
+        transactionService.deleteTransaction(created.getTransactionId());
+
+        // Then
+        assertEquals(initial + 3, transactionCountService.getTotalCount());
+        assertEquals(countRows(), transactionCountService.getTotalCount());
+    }
+
+    @Test
+    void reconcile_RowsWrittenAroundTheService_Corrected() {
+        // Given: rows inserted directly are not counted
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, amount, transaction_type, account_number, "
+                + "description) SELECT 'COUNTDRIFT' || X, 100, 1, 'ACC0001', 'Generated' FROM SYSTEM_RANGE(1, 25)");
+        assertEquals(countRows() - 25, transactionCountService.getTotalCount());
+        double driftsBefore = meterRegistry.get("transaction.count.reconciliations")
+                .tag("outcome", "drift").counter().count();
+
+        // When
+        long reconciled = transactionCountService.reconcile();
+
+        // Then
+        assertEquals(countRows(), reconciled);
+        assertEquals(countRows(), transactionCountService.getTotalCount());
+        assertEquals(driftsBefore + 1, meterRegistry.get("transaction.count.reconciliations")
+                .tag("outcome", "drift").counter().count());
+    }
+
+    private long countRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+    }
+
+    private static TransactionEditRequest request() {
+        TransactionEditRequest request = new TransactionEditRequest();
+        request.setAccountNumber("ACCCOUNT01");
+        request.setAmount(1000);
+        request.setTransactionType((byte) 1);
+        request.setCounterpartyAccount("ACC999999");
+        request.setDescription("Count test");
+        return request;
+    }
+}
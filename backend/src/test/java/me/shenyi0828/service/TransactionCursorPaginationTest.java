@@ -0,0 +1,125 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.model.TransactionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for keyset (cursor) pagination
+ *
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TransactionCursorPaginationTest {
+
+    private static final int GENERATED_ROWS = 20000;
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Given: ten rows share each second, so the id tie-breaker is exercised
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, amount, transaction_type, account_number, "
+                + "counterparty_account, description, created_at, updated_at) "
+                + "SELECT 'CURSOR' || X, 100 + X, MOD(X, 2) + 1, 'ACC' || MOD(X, 50), 'ACC999999', 'Generated', "
+                + "DATEADD('SECOND', X / 10, TIMESTAMP '2020-01-01 00:00:00'), "
+                + "DATEADD('SECOND', X / 10, TIMESTAMP '2020-01-01 00:00:00') "
+                + "FROM SYSTEM_RANGE(1, ?)", GENERATED_ROWS);
+    }
+
+    @Test
+    void getTransactionsByCursor_WalksAllRowsWithoutGapsOrDuplicates() {
+        // When
+        List<String> cursors = walkAllPages();
+
+        // Then
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+        assertEquals((int) Math.ceil((double) total / PAGE_SIZE), cursors.size());
+    }
+
+    @Test
+    void getTransactionsByCursor_LatencyDoesNotGrowWithPageDepth() {
+        // Given
+        List<String> cursors = walkAllPages();
+        String shallowCursor = cursors.get(1);
+        String deepCursor = cursors.get(cursors.size() - 1);
+
+        // warm up both paths
+        measureNanos(shallowCursor, 50);
+        measureNanos(deepCursor, 50);
+
+        // When
+        long shallowNanos = measureNanos(shallowCursor, 200);
+        long deepNanos = measureNanos(deepCursor, 200);
+
+        // Then: the deepest page is not meaningfully slower than the second page
+        assertTrue(deepNanos < shallowNanos * 5 + 2_000_000L,
+                "deep page took " + deepNanos + "ns vs shallow page " + shallowNanos + "ns");
+    }
+
+    @Test
+    void getTransactionsByCursor_InvalidCursor_ThrowsException() {
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            transactionService.getTransactionsByCursor("not-a-cursor", PAGE_SIZE);
+        });
+        assertEquals(ErrorCode.INVALID_PARAMETER.getCode(), exception.getCode());
+    }
+
+    /**
+     * Walk every page and check ordering and uniqueness, returning the cursor used for each page
+     */
+    private List<String> walkAllPages() {
+        List<String> cursors = new ArrayList<>();
+        Set<Long> seenIds = new HashSet<>();
+        TransactionDTO previous = null;
+        String cursor = "";
+
+        while (cursor != null) {
+            cursors.add(cursor);
+            PageResponse<TransactionDTO> page = transactionService.getTransactionsByCursor(cursor, PAGE_SIZE);
+            assertEquals(cursors.size() == 1, page.getFirst().booleanValue());
+
+            for (TransactionDTO current : page.getContent()) {
+                assertTrue(seenIds.add(current.getId()), "duplicate row " + current.getId());
+                if (previous != null) {
+                    int byTime = previous.getCreatedAt().compareTo(current.getCreatedAt());
+                    assertTrue(byTime > 0 || (byTime == 0 && previous.getId() > current.getId()),
+                            "rows out of order at " + current.getId());
+                }
+                previous = current;
+            }
+            cursor = page.getNextCursor();
+        }
+        return cursors;
+    }
+
+    private long measureNanos(String cursor, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            transactionService.getTransactionsByCursor(cursor, PAGE_SIZE);
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+}
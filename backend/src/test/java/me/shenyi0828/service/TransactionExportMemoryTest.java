@@ -0,0 +1,100 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.common.ExportFormat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Exports a million rows on a small heap
+ * Runs in the separate memory-tests surefire execution (-Xmx160m), the rows alone would not fit.
+ * Uses the production datasource URL with the database moved to a file, an in-memory database would hold the rows on the heap;
+ * lazy execution comes from the export itself, not from the URL.
+ * Background compaction is off: H2 rewrote chunks the long lazy export was still reading ("Chunk not found")
+ *
+ */
+@SpringBootTest(properties = "DB_LOCATION=file:./target/export-memory-test/transaction_db;AUTO_COMPACT_FILL_RATE=0")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionExportMemoryTest {
+
+    private static final int GENERATED_ROWS = 1_000_000;
+    private static final int INSERT_CHUNK = 100_000;
+    private static final long MAX_HEAP_BYTES = 256L * 1024 * 1024;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void setUp() {
+        assumeTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES, "run with the memory-tests execution");
+
+        // Given: schema.sql recreates the table on startup, so the file database starts from the seed data.
+        // Seeded once for the class: the context and the file database are shared by both tests
+        for (int start = 1; start <= GENERATED_ROWS; start += INSERT_CHUNK) {
+            jdbcTemplate.update("INSERT INTO transactions (transaction_id, amount, transaction_type, account_number, "
+                    + "counterparty_account, description) "
+                    + "SELECT 'MEMORY' || X, 100 + MOD(X, 1000), MOD(X, 2) + 1, 'ACC' || MOD(X, 500), 'ACC999999', "
+                    + "'Generated, row ' || X FROM SYSTEM_RANGE(?, ?)", start, start + INSERT_CHUNK - 1);
+        }
+    }
+
+    @Test
+    void exportTransactions_MillionRows_Ndjson() throws IOException {
+        assertExportsEveryRow(ExportFormat.NDJSON, 0);
+    }
+
+    @Test
+    void exportTransactions_MillionRows_Csv() throws IOException {
+        assertExportsEveryRow(ExportFormat.CSV, 1);
+    }
+
+    private void assertExportsEveryRow(ExportFormat format, long headerLines) throws IOException {
+        // When
+        LineCountingOutputStream outputStream = new LineCountingOutputStream();
+        long exported = transactionExportService.exportTransactions(format, outputStream);
+
+        // Then
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+        assertTrue(total > GENERATED_ROWS);
+        assertEquals(total.longValue(), exported);
+        assertEquals(exported + headerLines, outputStream.lines);
+    }
+
+    /**
+     * 只数换行符，不保留内容
+     */
+    private static class LineCountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
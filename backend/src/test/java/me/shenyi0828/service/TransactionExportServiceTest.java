@@ -0,0 +1,110 @@
+package me.shenyi0828.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.shenyi0828.common.ExportFormat;
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the streaming export
+ *
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TransactionExportServiceTest {
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        // Given: a description that needs CSV quoting
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, amount, transaction_type, account_number, "
+                + "counterparty_account, description) VALUES ('EXPORT0001', 1234, 1, 'ACC0001', NULL, ?)",
+                "Lunch, \"team\" treat");
+    }
+
+    @Test
+    void exportTransactions_Ndjson_OneParsableObjectPerRow() throws IOException {
+        // When
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long exported = transactionExportService.exportTransactions(ExportFormat.NDJSON, outputStream);
+
+        // Then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(totalRows(), exported);
+        assertEquals(exported, lines.length);
+        JsonNode last = objectMapper.readTree(lines[lines.length - 1]);
+        assertEquals("EXPORT0001", last.get("transactionId").asText());
+        assertEquals("Lunch, \"team\" treat", last.get("description").asText());
+    }
+
+    @Test
+    void exportTransactions_Csv_HeaderAndQuotedFields() throws IOException {
+        // When
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long exported = transactionExportService.exportTransactions(ExportFormat.CSV, outputStream);
+
+        // Then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(totalRows(), exported);
+        assertEquals(exported + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,transactionId,amount"));
+        assertTrue(lines[lines.length - 1].contains(",EXPORT0001,1234,1,ACC0001,,\"Lunch, \"\"team\"\" treat\","),
+                lines[lines.length - 1]);
+    }
+
+    @Test
+    void exportTransactions_ClientGone_StopsAndRethrows() {
+        // Given: the client disconnects on the first write
+        OutputStream brokenStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then: NDJSON buffers internally, so write enough rows to force a flush
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, amount, transaction_type, account_number, "
+                + "description) SELECT 'EXPORTBULK' || X, 100, 1, 'ACC0002', 'Generated' FROM SYSTEM_RANGE(1, 2000)");
+        assertThrows(IOException.class,
+                () -> transactionExportService.exportTransactions(ExportFormat.NDJSON, brokenStream));
+    }
+
+    @Test
+    void exportFormat_Unknown_ThrowsInvalidParameter() {
+        BusinessException exception = assertThrows(BusinessException.class, () -> ExportFormat.of("xml"));
+        assertEquals(ErrorCode.INVALID_PARAMETER.getCode(), exception.getCode());
+    }
+
+    private long totalRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+    }
+}
@@ -0,0 +1,127 @@
+package me.shenyi0828.service;
+
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.model.TransactionTotalsDTO;
+import me.shenyi0828.model.TransactionTotalsPO;
+import me.shenyi0828.store.TransactionStore;
+import me.shenyi0828.store.impl.InMemoryTransactionStore;
+import me.shenyi0828.store.impl.OffHeapTransactionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the report endpoints' service: the database GROUP BY and the in-process scans must agree
+ *
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TransactionReportServiceTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private TransactionReportService transactionReportService;
+
+    @Autowired
+    private TransactionStore transactionStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // 种子数据是启动当天的，这里的都在 2024 年；含零点和一天最后一微秒两个边界
+        insert("TXNRPT01", 1000, 2, "ACCRPT01", DAY1.atStartOfDay());
+        insert("TXNRPT02", 250, 1, "ACCRPT01", DAY1.atTime(23, 59, 59, 999_999_000));
+        insert("TXNRPT03", 4000, 2, "ACCRPT02", DAY1.atTime(12, 0));
+        insert("TXNRPT04", 700, 1, "ACCRPT02", DAY1.plusDays(1).atStartOfDay());
+        insert("TXNRPT05", 900, 2, "ACCRPT03", DAY1.plusDays(3).atTime(8, 30));
+        insert("TXNRPT06", 5000, 2, "ACCRPT01", DAY1.plusDays(4).atStartOfDay());
+    }
+
+    @Test
+    void inProcessScans_MatchDatabaseGroupBy() {
+        // Given
+        InMemoryTransactionStore inMemoryStore = new InMemoryTransactionStore();
+        inMemoryStore.load(transactionStore);
+        OffHeapTransactionStore offHeapStore = new OffHeapTransactionStore();
+        offHeapStore.load(transactionStore);
+        LocalDateTime from = DAY1.atStartOfDay();
+        LocalDateTime to = DAY1.plusDays(4).atStartOfDay();
+
+        // When
+        List<TransactionTotalsPO> days = transactionStore.sumByDay(from, to);
+        List<TransactionTotalsPO> accounts = transactionStore.sumByAccount(from, to);
+
+        // Then
+        assertEquals(3, days.size());
+        assertEquals(new TransactionTotalsPO(DAY1, null, 2L, 5000L, 1L, 250L), days.get(0));
+        assertEquals(List.of("ACCRPT01", "ACCRPT02", "ACCRPT03"),
+                accounts.stream().map(TransactionTotalsPO::getAccountNumber).toList());
+        assertEquals(days, inMemoryStore.sumByDay(from, to));
+        assertEquals(days, offHeapStore.sumByDay(from, to));
+        assertEquals(accounts, inMemoryStore.sumByAccount(from, to));
+        assertEquals(accounts, offHeapStore.sumByAccount(from, to));
+    }
+
+    @Test
+    void getDailyTotals_InclusiveDatesWithNet() {
+        // When
+        List<TransactionTotalsDTO> report = transactionReportService.getDailyTotals(DAY1, DAY1.plusDays(1));
+
+        // Then
+        assertEquals(List.of(DAY1, DAY1.plusDays(1)), report.stream().map(TransactionTotalsDTO::getDay).toList());
+        TransactionTotalsDTO first = report.get(0);
+        assertEquals(3L, first.getTransactionCount());
+        assertEquals(4750L, first.getNet());
+        assertEquals(-700L, report.get(1).getNet());
+    }
+
+    @Test
+    void getAccountTotals_SumsOverRange() {
+        // When
+        List<TransactionTotalsDTO> report = transactionReportService.getAccountTotals(DAY1, DAY1.plusDays(4));
+
+        // Then
+        TransactionTotalsDTO account = report.stream()
+                .filter(totals -> "ACCRPT01".equals(totals.getAccountNumber()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3L, account.getTransactionCount());
+        assertEquals(6000L, account.getTotalIncome());
+        assertEquals(250L, account.getTotalExpense());
+        assertNull(account.getDay());
+    }
+
+    @Test
+    void getDailyTotals_InvalidRange_ThrowsBusinessException() {
+        assertThrows(BusinessException.class,
+                () -> transactionReportService.getDailyTotals(DAY1.plusDays(1), DAY1));
+        assertThrows(BusinessException.class,
+                () -> transactionReportService.getDailyTotals(DAY1, DAY1.plusDays(366)));
+        assertThrows(BusinessException.class,
+                () -> transactionReportService.getAccountTotals(DAY1.plusDays(1), DAY1));
+        assertThrows(BusinessException.class,
+                () -> transactionReportService.getDailyRollup(DAY1.plusDays(1), DAY1));
+        assertThrows(BusinessException.class,
+                () -> transactionReportService.getDailyRollup(DAY1, DAY1.plusDays(366)));
+    }
+
+    private void insert(String transactionId, int amount, int type, String accountNumber, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, amount, transaction_type, account_number, "
+                        + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                transactionId, amount, type, accountNumber, createdAt, createdAt);
+    }
+}
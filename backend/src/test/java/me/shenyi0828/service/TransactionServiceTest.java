@@ -3,8 +3,11 @@ package me.shenyi0828.service;
 import me.shenyi0828.common.PageResponse;
 import me.shenyi0828.exception.BusinessException;
 import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.model.TransactionBatchItemResult;
 import me.shenyi0828.model.TransactionEditRequest;
 import me.shenyi0828.model.TransactionDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +15,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -26,6 +31,9 @@ class TransactionServiceTest {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private TransactionEditRequest transactionEditRequest;
 
     @BeforeEach
@@ -91,6 +99,39 @@ class TransactionServiceTest {
          assertEquals(ErrorCode.TRANSACTION_ALREADY_EXISTS.getCode(), exception.getCode());
     }
 
+    @Test
+    void createTransactions_ReportsPerItemResults() {
+        // Given
+        transactionEditRequest.setTransactionId("BATCH_EXISTING");
+        transactionService.createTransaction(transactionEditRequest);
+
+        TransactionEditRequest generatedId = copyOf(transactionEditRequest, null);
+        TransactionEditRequest existing = copyOf(transactionEditRequest, "BATCH_EXISTING");
+        TransactionEditRequest invalid = copyOf(transactionEditRequest, "BATCH_INVALID");
+        invalid.setAmount(null);
+        TransactionEditRequest custom = copyOf(transactionEditRequest, "BATCH_CUSTOM");
+        TransactionEditRequest repeated = copyOf(transactionEditRequest, "BATCH_CUSTOM");
+
+        // When
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(
+                List.of(generatedId, existing, invalid, custom, repeated));
+
+        // Then
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).getSuccess());
+        assertNotNull(results.get(0).getTransactionId());
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_EXISTS.getCode(), results.get(1).getCode());
+        assertEquals(ErrorCode.INVALID_PARAMETER.getCode(), results.get(2).getCode());
+        assertTrue(results.get(3).getSuccess());
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_EXISTS.getCode(), results.get(4).getCode());
+
+        TransactionDTO created = transactionService.getTransactionById("BATCH_CUSTOM");
+        assertEquals(10000, created.getAmount());
+        assertNotNull(created.getCreatedAt());
+        assertTrue(transactionService.existsByTransactionId(results.get(0).getTransactionId()));
+        assertFalse(transactionService.existsByTransactionId("BATCH_INVALID"));
+    }
+
     @Test
     void updateTransaction_Success() {
         // Given
@@ -227,4 +268,75 @@ class TransactionServiceTest {
         // Then
         assertFalse(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAccountTransactions_PagesThroughOneAccountNewestFirst() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            TransactionEditRequest request = copyOf(transactionEditRequest, null);
+            request.setAccountNumber("ACCPAGE01");
+            transactionService.createTransaction(request);
+        }
+        transactionService.createTransaction(transactionEditRequest);
+
+        // When
+        PageResponse<TransactionDTO> firstPage = transactionService.getAccountTransactions("ACCPAGE01", null, 2);
+        PageResponse<TransactionDTO> secondPage = transactionService.getAccountTransactions(
+                "ACCPAGE01", firstPage.getNextCursor(), 2);
+
+        // Then
+        assertEquals(2, firstPage.getContent().size());
+        assertTrue(firstPage.getHasNext().booleanValue());
+        assertEquals(1, secondPage.getContent().size());
+        assertFalse(secondPage.getHasNext().booleanValue());
+        assertTrue(firstPage.getContent().get(0).getId() > firstPage.getContent().get(1).getId());
+        assertTrue(firstPage.getContent().get(1).getId() > secondPage.getContent().get(0).getId());
+        assertTrue(secondPage.getContent().stream().allMatch(t -> "ACCPAGE01".equals(t.getAccountNumber())));
+    }
+
+    @Test
+    void getTransactionById_RecordsServiceAndMapperTimers() {
+        // Given
+        TransactionDTO created = transactionService.createTransaction(transactionEditRequest);
+
+        // When
+        transactionService.getTransactionById(created.getTransactionId());
+
+        // Then
+        assertTrue(meterRegistry.get("transaction.service")
+                .tag("method", "getTransactionById").timer().count() >= 1);
+        assertTrue(meterRegistry.get("transaction.mapper")
+                .tags("statement", "TransactionDataMapper.insert", "outcome", "success").timer().count() >= 1);
+    }
+
+    @Test
+    void getTransactionById_UnknownId_AnsweredWithoutQuery() {
+        // Given
+        long queriesBefore = findByTransactionIdQueries();
+
+        // When & Then
+        assertThrows(BusinessException.class, () -> transactionService.getTransactionById("NEVER_CREATED_ID"));
+        assertFalse(transactionService.existsByTransactionId("NEVER_CREATED_ID"));
+        assertEquals(queriesBefore, findByTransactionIdQueries());
+        assertTrue(meterRegistry.get("transaction.bloom.checks").tag("result", "absent").counter().count() >= 2);
+    }
+
+    private long findByTransactionIdQueries() {
+        return meterRegistry.find("transaction.mapper")
+                .tag("statement", "TransactionDataMapper.findByTransactionId")
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private static TransactionEditRequest copyOf(TransactionEditRequest source, String transactionId) {
+        TransactionEditRequest copy = new TransactionEditRequest();
+        copy.setTransactionId(transactionId);
+        copy.setAccountNumber(source.getAccountNumber());
+        copy.setAmount(source.getAmount());
+        copy.setTransactionType(source.getTransactionType());
+        copy.setCounterpartyAccount(source.getCounterpartyAccount());
+        copy.setDescription(source.getDescription());
+        return copy;
+    }
+}
@@ -0,0 +1,144 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.service.CacheService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchingCacheInvalidationPipeline with the cache service mocked
+ *
+ */
+class BatchingCacheInvalidationPipelineTest {
+
+    private static final long TIMEOUT_MILLIS = 2000;
+
+    private CacheService cacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheProperties cacheProperties;
+    private BatchingCacheInvalidationPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = mock(CacheService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cacheProperties = new CacheProperties();
+        cacheProperties.getInvalidation().setWindow(Duration.ofMillis(100));
+        cacheProperties.getInvalidation().setRetryBackoff(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void submit_EvictsLocalTierOnCallerThread() {
+        // Given
+        pipeline = newPipeline();
+
+        // When
+        pipeline.submit(List.of("TXN1"), List.of("ACC1"), false);
+
+        // Then: 提交即返回，L1 已经删掉
+        verify(cacheService).evictLocal(List.of("TXN1"), List.of("ACC1"));
+    }
+
+    @Test
+    void submit_DuplicatesWithinWindowCoalescedIntoOneRedisCall() throws InterruptedException {
+        // Given
+        pipeline = newPipeline();
+
+        // When
+        pipeline.submit(List.of("TXN1"), List.of("ACC1"), false);
+        pipeline.submit(List.of("TXN1", "TXN2"), List.of("ACC1"), false);
+        pipeline.submit(null, null, true);
+
+        // Then
+        verify(cacheService, timeout(TIMEOUT_MILLIS)).invalidateRemote(Set.of("TXN1", "TXN2"), Set.of("ACC1"), true);
+        pipeline.shutdown();
+        verify(cacheService, times(1)).invalidateRemote(anyCollection(), anyCollection(), anyBoolean());
+        assertEquals(4.0, meterRegistry.get("transaction.cache.invalidation.batch").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("transaction.cache.invalidation.lag").timer().count());
+    }
+
+    @Test
+    void submit_FailedBatchRetriedWithBackoff() throws InterruptedException {
+        // Given
+        doThrow(new IllegalStateException("connection refused"))
+                .doNothing()
+                .when(cacheService).invalidateRemote(anyCollection(), anyCollection(), anyBoolean());
+        pipeline = newPipeline();
+
+        // When
+        pipeline.submit(List.of("TXN1"), null, false);
+
+        // Then
+        verify(cacheService, timeout(TIMEOUT_MILLIS).times(2)).invalidateRemote(Set.of("TXN1"), Set.of(), false);
+        pipeline.shutdown();
+        assertEquals(1.0, flushes("retry"));
+        assertEquals(1.0, flushes("ok"));
+    }
+
+    @Test
+    void submit_GivesUpOnceOlderThanMaxStaleness() {
+        // Given
+        cacheProperties.getInvalidation().setMaxStaleness(Duration.ofMillis(150));
+        doThrow(new IllegalStateException("connection refused"))
+                .when(cacheService).invalidateRemote(anyCollection(), anyCollection(), anyBoolean());
+        pipeline = newPipeline();
+
+        // When
+        pipeline.submit(List.of("TXN1"), null, false);
+
+        // Then
+        verify(cacheService, timeout(TIMEOUT_MILLIS).atLeast(2)).invalidateRemote(anyCollection(), anyCollection(), anyBoolean());
+        verify(cacheService, after(300).atMost(3)).invalidateRemote(anyCollection(), anyCollection(), anyBoolean());
+        assertEquals(1.0, flushes("dropped"));
+    }
+
+    @Test
+    void submit_QueueFull_InvalidatesInline() throws InterruptedException {
+        // Given: 队列只能放一条，worker 卡在第一批的 Redis 调用上
+        cacheProperties.getInvalidation().setQueueCapacity(1);
+        cacheProperties.getInvalidation().setWindow(Duration.ZERO);
+        CountDownLatch redisStuck = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            redisStuck.await();
+            return null;
+        }).when(cacheService).invalidateRemote(eq(Set.of("TXN1")), anyCollection(), anyBoolean());
+        pipeline = newPipeline();
+        pipeline.submit(List.of("TXN1"), null, false);
+        verify(cacheService, timeout(TIMEOUT_MILLIS)).invalidateRemote(eq(Set.of("TXN1")), anyCollection(), anyBoolean());
+        pipeline.submit(List.of("TXN2"), null, false);
+
+        // When
+        pipeline.submit(List.of("TXN3"), null, false);
+
+        // Then
+        verify(cacheService).invalidateRemote(Set.of("TXN3"), Set.of(), false);
+        assertEquals(1.0, flushes("inline"));
+        redisStuck.countDown();
+        verify(cacheService, timeout(TIMEOUT_MILLIS)).invalidateRemote(Set.of("TXN2"), Set.of(), false);
+    }
+
+    private BatchingCacheInvalidationPipeline newPipeline() {
+        return new BatchingCacheInvalidationPipeline(cacheService, cacheProperties, meterRegistry);
+    }
+
+    private double flushes(String outcome) {
+        return meterRegistry.get("transaction.cache.invalidation.flushes").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,100 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.service.CacheEvictionBus;
+import me.shenyi0828.store.TransactionStore;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BloomTransactionIdFilter: a miss only counts for IDs the last rebuild must have scanned
+ *
+ */
+class BloomTransactionIdFilterTest {
+
+    private static final long REBUILD_MILLIS = SnowflakeTransactionIdGenerator.EPOCH_MILLIS + 3_600_000;
+
+    private final AtomicLong clock = new AtomicLong(REBUILD_MILLIS);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CacheEvictionBus cacheEvictionBus;
+    private BloomTransactionIdFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionStore transactionStore = mock(TransactionStore.class);
+        doAnswer(invocation -> {
+            ResultHandler<String> handler = invocation.getArgument(0);
+            ResultContext<String> context = mock(ResultContext.class);
+            when(context.getResultObject()).thenReturn("TXN202501140001");
+            handler.handleResult(context);
+            return null;
+        }).when(transactionStore).scanTransactionIds(any());
+        cacheEvictionBus = mock(CacheEvictionBus.class);
+        filter = new BloomTransactionIdFilter(transactionStore, new CacheProperties(), cacheEvictionBus, meterRegistry,
+                clock::get);
+        filter.rebuild();
+    }
+
+    @Test
+    void mightExist_OldOrExternalIdMissing_Absent() {
+        // Then: 重建一分钟以前生成的交易号、看不出时间的外部交易号，没扫到就是不存在
+        assertTrue(filter.mightExist("TXN202501140001"));
+        assertFalse(filter.mightExist(generatedAt(REBUILD_MILLIS - 120_000)));
+        assertFalse(filter.mightExist("TXN202501149999"));
+        assertEquals(2.0, checks("absent"));
+    }
+
+    @Test
+    void mightExist_IdGeneratedNearRebuild_GoesToStore() {
+        // Then: 扫描时可能还没提交，别的实例的广播也可能还没到
+        assertTrue(filter.mightExist(generatedAt(REBUILD_MILLIS - 30_000)));
+        assertTrue(filter.mightExist(generatedAt(REBUILD_MILLIS + 60_000)));
+        assertEquals(2.0, checks("unverified"));
+    }
+
+    @Test
+    void mightExist_AfterBroadcastGap_GoesToStoreUntilNextRebuild() {
+        // Given
+        ArgumentCaptor<Runnable> gap = ArgumentCaptor.forClass(Runnable.class);
+        verify(cacheEvictionBus).subscribeGaps(gap.capture());
+
+        // When: 重建之后广播出现缺口
+        clock.addAndGet(1_000);
+        gap.getValue().run();
+
+        // Then: 缺口期间别的实例新增的 ID 可能没收到，都查库；重建之后恢复
+        assertTrue(filter.mightExist("TXN202501149999"));
+        assertTrue(filter.mightExist(generatedAt(REBUILD_MILLIS - 120_000)));
+        clock.addAndGet(1_000);
+        filter.rebuild();
+        assertFalse(filter.mightExist("TXN202501149999"));
+    }
+
+    @Test
+    void timestampMillis_OnlyForGeneratedIds() {
+        // Then
+        assertEquals(REBUILD_MILLIS, SnowflakeTransactionIdGenerator.timestampMillis(generatedAt(REBUILD_MILLIS)));
+        assertEquals(-1, SnowflakeTransactionIdGenerator.timestampMillis("TXN202501140001"));
+        assertEquals(-1, SnowflakeTransactionIdGenerator.timestampMillis("TXN9999999999999999999"));
+        assertEquals(-1, SnowflakeTransactionIdGenerator.timestampMillis("ABC0000000000000000001"));
+    }
+
+    private static String generatedAt(long millis) {
+        return new SnowflakeTransactionIdGenerator(3, () -> millis).nextId();
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("transaction.bloom.checks").tag("result", result).counter().count();
+    }
+}
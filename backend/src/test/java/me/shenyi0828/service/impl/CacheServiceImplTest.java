@@ -0,0 +1,303 @@
+package me.shenyi0828.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.common.BinaryTransactionCodec;
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionTotalsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the two-tier CacheServiceImpl, with Redis mocked and an in-memory eviction bus
+ *
+ */
+class CacheServiceImplTest {
+
+    private static final String TRANSACTION_ID = "TXN202501140001";
+    private static final String TRANSACTION_KEY = "transaction:data:" + TRANSACTION_ID;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final BinaryTransactionCodec codec = new BinaryTransactionCodec();
+
+    private StringRedisTemplate stringRedisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private ValueOperations<String, byte[]> binaryValueOperations;
+    private LocalCacheEvictionBus cacheEvictionBus;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        binaryRedisTemplate = mock(RedisTemplate.class);
+        binaryValueOperations = mock(ValueOperations.class);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(binaryValueOperations);
+        when(binaryValueOperations.get(TRANSACTION_KEY)).thenReturn(codec.encode(transaction()));
+
+        cacheEvictionBus = new LocalCacheEvictionBus();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void getTransaction_SecondReadServedFromLocalTier() {
+        // Given
+        CacheServiceImpl cacheService = newCacheService();
+
+        // When
+        TransactionDTO first = cacheService.getTransaction(TRANSACTION_ID);
+        TransactionDTO second = cacheService.getTransaction(TRANSACTION_ID);
+
+        // Then
+        assertEquals(TRANSACTION_ID, first.getTransactionId());
+        assertSame(first, second);
+        verify(binaryValueOperations, times(1)).get(TRANSACTION_KEY);
+        assertEquals(1.0, gets("local", "hit"));
+        assertEquals(1.0, gets("local", "miss"));
+        assertEquals(1.0, gets("remote", "hit"));
+    }
+
+    @Test
+    void getTransaction_RedisFailure_FallsBackToMiss() {
+        // Given
+        when(binaryValueOperations.get(TRANSACTION_KEY)).thenThrow(new IllegalStateException("connection refused"));
+        CacheServiceImpl cacheService = newCacheService();
+
+        // When & Then
+        assertNull(cacheService.getTransaction(TRANSACTION_ID));
+        assertEquals(1.0, meterRegistry.get("transaction.cache.errors")
+                .tags("cache", "transaction", "operation", "get").counter().count());
+    }
+
+    @Test
+    void getTransaction_LegacyJsonValue_TreatedAsMiss() throws Exception {
+        // Given: 切换编码前写入的 JSON 字符串
+        when(binaryValueOperations.get(TRANSACTION_KEY))
+                .thenReturn(objectMapper.writeValueAsString(transaction()).getBytes(StandardCharsets.UTF_8));
+        CacheServiceImpl cacheService = newCacheService();
+
+        // When & Then: 不算错误，回源后会被新格式覆盖
+        assertNull(cacheService.getTransaction(TRANSACTION_ID));
+        assertEquals(1.0, gets("remote", "miss"));
+        assertTrue(meterRegistry.find("transaction.cache.errors").counters().isEmpty());
+    }
+
+    @Test
+    void setTransaction_StoresCodecBytes() {
+        // Given
+        CacheServiceImpl cacheService = newCacheService();
+
+        // When
+        cacheService.setTransaction(TRANSACTION_ID, transaction());
+
+        // Then
+        verify(binaryValueOperations).set(eq(TRANSACTION_KEY), argThat(bytes -> bytes[0] == 'B'),
+                longThat(ttl -> ttl >= 540 && ttl <= 660), eq(TimeUnit.SECONDS));
+        verify(valueOperations, never()).set(anyString(), anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void setPage_OnlyFirstPagesAreCachedUnderTheirGeneration() {
+        // Given
+        CacheServiceImpl cacheService = newCacheService();
+
+        // When
+        String generation = cacheService.getPageGeneration();
+        cacheService.setPage(generation, 0, 10, PageResponse.empty(0, 10));
+        cacheService.setPage(generation, 5, 10, PageResponse.empty(5, 10));
+
+        // Then
+        assertEquals("0", generation);
+        verify(valueOperations).set(eq("transaction:page:0:0:10"), anyString(),
+                longThat(ttl -> ttl >= 54 && ttl <= 66), eq(TimeUnit.SECONDS));
+        verify(valueOperations, never()).set(eq("transaction:page:0:5:10"), anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void setDailyRollup_RoundTripsUnderItsVersion() {
+        // Given
+        CacheServiceImpl cacheService = newCacheService();
+        when(valueOperations.get("transaction:rollup:version")).thenReturn("7");
+        LocalDate day = LocalDate.of(2025, 1, 14);
+        List<TransactionTotalsDTO> totals = List.of(TransactionTotalsDTO.builder()
+                .day(day).transactionCount(2L).incomeCount(1L).totalIncome(100000L)
+                .expenseCount(1L).totalExpense(50050L).net(49950L).build());
+
+        // When
+        String version = cacheService.getRollupVersion();
+        cacheService.setDailyRollup(version, day, day.plusDays(1), totals);
+
+        // Then: 值按版本号存，读回来和写进去的一样；别的版本读不到
+        String key = "transaction:rollup:7:2025-01-14:2025-01-15";
+        ArgumentCaptor<String> value = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(key), value.capture(), longThat(ttl -> ttl >= 270 && ttl <= 330),
+                eq(TimeUnit.SECONDS));
+        when(valueOperations.get(key)).thenReturn(value.getValue());
+        assertEquals(totals, cacheService.getDailyRollup("7", day, day.plusDays(1)));
+        assertNull(cacheService.getDailyRollup("8", day, day.plusDays(1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void accountFirstPage_KeyedByAccountVersion() throws Exception {
+        // Given
+        CacheServiceImpl cacheService = newCacheService();
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(valueOperations.get("transaction:account:version:ACC123456")).thenReturn("3");
+        PageResponse<TransactionDTO> page = PageResponse.ofCursor(List.of(transaction()), 10, true, null);
+        when(hashOperations.get("transaction:account:first-page:ACC123456:3", "10"))
+                .thenReturn(objectMapper.writeValueAsString(page));
+
+        // When
+        String version = cacheService.getAccountVersion("ACC123456");
+        cacheService.setAccountFirstPage(version, "ACC123456", 10, page);
+
+        // Then: 按版本号读；写入交给脚本，版本号比对、HSET 和 EXPIRE 一起执行
+        assertEquals("3", version);
+        assertEquals(page, cacheService.getAccountFirstPage(version, "ACC123456", 10));
+        assertNull(cacheService.getAccountFirstPage("4", "ACC123456", 10));
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+                eq(List.of("transaction:account:version:ACC123456", "transaction:account:first-page:ACC123456:3")),
+                eq("3"), eq("10"), anyString(), argThat(ttl -> Long.parseLong((String) ttl) >= 54
+                        && Long.parseLong((String) ttl) <= 66), eq("120"));
+        verify(hashOperations, never()).put(anyString(), any(), any());
+        verify(stringRedisTemplate, never()).expire(anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void getTransactions_LocalHitsSkipped_RemoteInOneMget() {
+        // Given: TRANSACTION_ID already in L1, the other two only in Redis / nowhere
+        CacheServiceImpl cacheService = newCacheService();
+        cacheService.getTransaction(TRANSACTION_ID);
+        TransactionDTO other = transaction();
+        other.setTransactionId("TXN202501140002");
+        when(binaryValueOperations.multiGet(List.of("transaction:data:TXN202501140002", "transaction:data:TXN202501140003")))
+                .thenReturn(Arrays.asList(codec.encode(other), null));
+
+        // When
+        Map<String, TransactionDTO> found = cacheService.getTransactions(
+                List.of(TRANSACTION_ID, "TXN202501140002", "TXN202501140003"));
+
+        // Then
+        assertEquals(Set.of(TRANSACTION_ID, "TXN202501140002"), found.keySet());
+        verify(binaryValueOperations, times(1)).multiGet(anyList());
+        verify(binaryValueOperations, times(1)).get(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setTransactions_OnePipelineAndFillsLocalTier() {
+        // Given
+        CacheServiceImpl cacheService = newCacheService();
+        TransactionDTO other = transaction();
+        other.setTransactionId("TXN202501140002");
+
+        // When
+        cacheService.setTransactions(Map.of("TXN202501140002", other));
+
+        // Then
+        verify(binaryRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertSame(other, cacheService.getTransaction("TXN202501140002"));
+        verify(binaryValueOperations, never()).get("transaction:data:TXN202501140002");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidateRemote_OnePipelineThenBroadcastToEveryInstance() {
+        // Given: two instances sharing Redis and the eviction bus
+        CacheServiceImpl instanceA = newCacheService();
+        CacheServiceImpl instanceB = newCacheService();
+        instanceA.getTransaction(TRANSACTION_ID);
+        instanceB.getTransaction(TRANSACTION_ID);
+        when(binaryValueOperations.get(TRANSACTION_KEY)).thenReturn(null);
+
+        // When
+        instanceA.invalidateRemote(List.of(TRANSACTION_ID), List.of("6222021234567890"), true);
+
+        // Then: DEL 和 generation 加一在一个 pipeline 里，广播删掉两个实例的 L1
+        verify(stringRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(stringRedisTemplate, never()).delete(anyString());
+        assertNull(instanceA.getTransaction(TRANSACTION_ID));
+        assertNull(instanceB.getTransaction(TRANSACTION_ID));
+        assertEquals(2.0, meterRegistry.get("transaction.cache.evictions")
+                .tags("tier", "local", "cause", "explicit").counter().count());
+        assertEquals(1.0, meterRegistry.get("transaction.cache.evictions")
+                .tags("tier", "remote", "cause", "explicit").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidateRemote_RedisFailure_Thrown() {
+        // Given
+        CacheServiceImpl cacheService = newCacheService();
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        // When & Then: 交给调用方重试
+        assertThrows(IllegalStateException.class,
+                () -> cacheService.invalidateRemote(List.of(TRANSACTION_ID), List.of(), false));
+    }
+
+    @Test
+    void jittered_SpreadsTtlWithinTenPercent() {
+        // When
+        Set<Long> ttls = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            ttls.add(CacheServiceImpl.jittered(600));
+        }
+
+        // Then
+        assertTrue(ttls.stream().allMatch(ttl -> ttl >= 540 && ttl <= 660), ttls.toString());
+        assertTrue(ttls.size() > 10);
+    }
+
+    private CacheServiceImpl newCacheService() {
+        return new CacheServiceImpl(stringRedisTemplate, binaryRedisTemplate, codec, objectMapper, cacheEvictionBus,
+                new CacheProperties(), meterRegistry);
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.get("transaction.cache.gets")
+                .tags("cache", "transaction", "tier", tier, "result", result).counter().count();
+    }
+
+    private static TransactionDTO transaction() {
+        return TransactionDTO.builder()
+                .id(1L)
+                .transactionId(TRANSACTION_ID)
+                .amount(100000)
+                .transactionType((byte) 2)
+                .accountNumber("6222021234567890")
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer")
+                .createdAt(LocalDateTime.of(2025, 1, 14, 9, 30))
+                .updatedAt(LocalDateTime.of(2025, 1, 14, 9, 30))
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package me.shenyi0828.service.impl;
+
+import me.shenyi0828.mapper.DailyRollupMapper;
+import me.shenyi0828.service.CacheService;
+import me.shenyi0828.store.impl.InMemoryTransactionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DailyRollupServiceImpl with the mapper and cache mocked: a rebuild must retire the cached rollup
+ *
+ */
+class DailyRollupServiceImplTest {
+
+    private final DailyRollupMapper dailyRollupMapper = mock(DailyRollupMapper.class);
+    private final CacheService cacheService = mock(CacheService.class);
+    private final DailyRollupServiceImpl dailyRollupService = new DailyRollupServiceImpl(dailyRollupMapper, cacheService);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuild_BumpsRollupVersionAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        dailyRollupService.rebuild(new InMemoryTransactionStore());
+
+        // Then: 提交前不加，提交后加一次
+        verify(dailyRollupMapper).deleteAll();
+        verify(cacheService, never()).bumpRollupVersion();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(cacheService, times(1)).bumpRollupVersion();
+    }
+
+    @Test
+    void rebuild_WithoutTransaction_BumpsRollupVersionAfterReplacingTable() {
+        // When
+        dailyRollupService.rebuild(new InMemoryTransactionStore());
+
+        // Then
+        InOrder inOrder = inOrder(dailyRollupMapper, cacheService);
+        inOrder.verify(dailyRollupMapper).deleteAll();
+        inOrder.verify(cacheService).bumpRollupVersion();
+    }
+}
@@ -0,0 +1,111 @@
+package me.shenyi0828.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uniqueness and ordering tests for SnowflakeTransactionIdGenerator
+ *
+ */
+class SnowflakeTransactionIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 250_000;
+
+    @Test
+    void nextLong_ConcurrentCallers_AllUniqueAndMonotonicPerThread() throws Exception {
+        // Given
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(1);
+        long[][] ids = new long[THREADS][IDS_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            long[] out = ids[t];
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = generator.nextLong();
+                }
+            });
+            threads[t].start();
+        }
+
+        // When: 吞吐量见 benchmarks 模块的 TransactionIdGeneratorBenchmark
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 1; i < IDS_PER_THREAD; i++) {
+                assertTrue(ids[t][i] > ids[t][i - 1], "ids must increase within a thread");
+            }
+            System.arraycopy(ids[t], 0, all, t * IDS_PER_THREAD, IDS_PER_THREAD);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "duplicate id");
+        }
+    }
+
+    @Test
+    void nextLong_DifferentNodesSameMillisecond_NeverCollide() {
+        // Given: a frozen clock, so both nodes draw from the same millisecond and overflow into the next ones
+        long now = System.currentTimeMillis();
+        SnowflakeTransactionIdGenerator nodeA = new SnowflakeTransactionIdGenerator(1, () -> now);
+        SnowflakeTransactionIdGenerator nodeB = new SnowflakeTransactionIdGenerator(2, () -> now);
+
+        // When
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(nodeA.nextLong());
+            ids.add(nodeB.nextLong());
+        }
+
+        // Then
+        assertEquals(20_000, ids.size());
+    }
+
+    @Test
+    void nextId_ClockMovesBackwards_StaysOrdered() {
+        // Given
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(0, clock::get);
+
+        // When
+        String before = generator.nextId();
+        clock.addAndGet(-5_000);
+        String after = generator.nextId();
+
+        // Then
+        assertEquals(22, before.length());
+        assertTrue(before.startsWith("TXN"));
+        assertTrue(after.compareTo(before) > 0);
+    }
+
+    @Test
+    void constructor_NodeIdOutOfRange_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeTransactionIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeTransactionIdGenerator(-1));
+    }
+
+    @Test
+    void format_FixedWidthSoStringOrderMatchesNumericOrder() {
+        assertEquals("TXN0000000000000000042", SnowflakeTransactionIdGenerator.format(42));
+        assertTrue(SnowflakeTransactionIdGenerator.format(999).compareTo(SnowflakeTransactionIdGenerator.format(1000)) < 0);
+    }
+}
@@ -0,0 +1,331 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import me.shenyi0828.common.PageCursor;
+import me.shenyi0828.common.PageResponse;
+import me.shenyi0828.config.CacheProperties;
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.model.TransactionDTO;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.service.AccountSummaryService;
+import me.shenyi0828.service.CacheEvictionBus;
+import me.shenyi0828.service.CacheInvalidationPipeline;
+import me.shenyi0828.service.CacheService;
+import me.shenyi0828.service.DailyRollupService;
+import me.shenyi0828.service.TransactionCountService;
+import me.shenyi0828.service.TransactionIdFilter;
+import me.shenyi0828.store.TransactionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionServiceImpl with the store mocked, counting the statements each call issues
+ *
+ */
+class TransactionServiceImplTest {
+
+    private static final int CONCURRENT_CALLERS = 16;
+
+    private TransactionStore transactionStore;
+    private CacheService cacheService;
+    private TransactionIdFilter transactionIdFilter;
+    private TransactionCountService transactionCountService;
+    private TransactionServiceImpl transactionService;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionStore = mock(TransactionStore.class);
+        cacheService = mock(CacheService.class);
+        transactionIdFilter = mock(TransactionIdFilter.class);
+        when(transactionIdFilter.mightExist(anyString())).thenReturn(true);
+        transactionCountService = mock(TransactionCountService.class);
+        transactionService = new TransactionServiceImpl(transactionStore, cacheService,
+                mock(Validator.class), new SnowflakeTransactionIdGenerator(0),
+                mock(AccountSummaryService.class), mock(DailyRollupService.class), transactionIdFilter,
+                transactionCountService, mock(CacheInvalidationPipeline.class));
+    }
+
+    @Test
+    void createTransaction_IssuesSingleStatement() {
+        // Given
+        when(transactionStore.insert(any(TransactionPO.class))).thenAnswer(invocation -> {
+            invocation.<TransactionPO>getArgument(0).setId(42L);
+            return 1;
+        });
+
+        // When
+        TransactionDTO result = transactionService.createTransaction(request());
+
+        // Then: no existence pre-check and no read-after-write
+        verify(transactionStore).insert(any(TransactionPO.class));
+        verifyNoMoreInteractions(transactionStore);
+        assertEquals(42L, result.getId());
+        assertNotNull(result.getCreatedAt());
+        assertEquals(result.getCreatedAt(), result.getUpdatedAt());
+    }
+
+    @Test
+    void createTransaction_UniqueIndexViolation_ThrowsAlreadyExists() {
+        // Given
+        when(transactionStore.insert(any(TransactionPO.class)))
+                .thenThrow(new DuplicateKeyException("idx_transactions_transaction_id"));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            transactionService.createTransaction(request());
+        });
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_EXISTS.getCode(), exception.getCode());
+    }
+
+    @Test
+    void createTransaction_BloomRebuildBeforeCommit_IdStillPresentAfterCommit() {
+        // Given: 真实的布隆过滤器；重建扫描看不到还没提交的行
+        BloomTransactionIdFilter bloomFilter = new BloomTransactionIdFilter(transactionStore, new CacheProperties(),
+                mock(CacheEvictionBus.class), new SimpleMeterRegistry());
+        TransactionServiceImpl service = new TransactionServiceImpl(transactionStore, cacheService,
+                mock(Validator.class), new SnowflakeTransactionIdGenerator(0),
+                mock(AccountSummaryService.class), mock(DailyRollupService.class), bloomFilter,
+                transactionCountService, mock(CacheInvalidationPipeline.class));
+        when(transactionStore.insert(any(TransactionPO.class))).thenReturn(1);
+        bloomFilter.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When: 插入之后、提交之前完成一次重建；调用方自带的交易号看不出生成时间，过滤器的判定只看重建
+        TransactionEditRequest request = request();
+        request.setTransactionId("TXNCLIENT0001");
+        String transactionId = service.createTransaction(request).getTransactionId();
+        bloomFilter.rebuild();
+        assertFalse(bloomFilter.mightExist(transactionId), "rebuild swapped in a filter without the uncommitted ID");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertTrue(bloomFilter.mightExist(transactionId));
+    }
+
+    @Test
+    void getTransactionsByIds_CacheMissesLoadedWithOneQuery() {
+        // Given: TXN1 cached, TXN2 in the database, TXN3 unknown
+        TransactionDTO cached = TransactionDTO.builder().transactionId("TXN1").build();
+        when(cacheService.getTransactions(anyCollection())).thenReturn(Map.of("TXN1", cached));
+        when(transactionStore.findByTransactionIds(List.of("TXN3", "TXN2")))
+                .thenReturn(List.of(TransactionPO.builder().id(2L).transactionId("TXN2").build()));
+
+        // When
+        List<TransactionDTO> result = transactionService.getTransactionsByIds(List.of("TXN3", "TXN1", "TXN2", "TXN1"));
+
+        // Then: request order, duplicates and unknown IDs dropped
+        assertEquals(List.of("TXN1", "TXN2"), result.stream().map(TransactionDTO::getTransactionId).toList());
+        verify(transactionStore).findByTransactionIds(List.of("TXN3", "TXN2"));
+        verifyNoMoreInteractions(transactionStore);
+        verify(cacheService).setTransactions(argThat(loaded -> loaded.keySet().equals(Set.of("TXN2"))));
+    }
+
+    @Test
+    void getAccountTransactions_FirstPageFromCache_NoQuery() {
+        // Given
+        PageResponse<TransactionDTO> cachedPage = PageResponse.ofCursor(List.of(), 10, true, null);
+        when(cacheService.getAccountVersion("ACC123456")).thenReturn("3");
+        when(cacheService.getAccountFirstPage("3", "ACC123456", 10)).thenReturn(cachedPage);
+
+        // When
+        PageResponse<TransactionDTO> result = transactionService.getAccountTransactions("ACC123456", null, 10);
+
+        // Then
+        assertSame(cachedPage, result);
+        verifyNoInteractions(transactionStore);
+    }
+
+    @Test
+    void getAccountTransactions_LaterPagesBypassCache() {
+        // Given
+        String cursor = new PageCursor(LocalDateTime.of(2025, 1, 14, 9, 30), 42L).encode();
+
+        // When
+        transactionService.getAccountTransactions("ACC123456", cursor, 10);
+
+        // Then
+        verify(transactionStore).findByAccountNumberByCursor("ACC123456", LocalDateTime.of(2025, 1, 14, 9, 30), 42L, 11);
+        verify(cacheService, never()).getAccountVersion(anyString());
+        verify(cacheService, never()).getAccountFirstPage(anyString(), anyString(), anyInt());
+        verify(cacheService, never()).setAccountFirstPage(anyString(), anyString(), anyInt(), any());
+    }
+
+    @Test
+    void getTransactionById_FilteredUnknownId_NoQuery() {
+        // Given
+        when(transactionIdFilter.mightExist("UNKNOWN")).thenReturn(false);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> transactionService.getTransactionById("UNKNOWN"));
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), exception.getCode());
+        assertFalse(transactionService.existsByTransactionId("UNKNOWN"));
+        verifyNoInteractions(transactionStore);
+    }
+
+    @Test
+    void getTransactionsByIds_TooManyIds_Rejected() {
+        List<String> transactionIds = IntStream.range(0, 101).mapToObj(i -> "TXN" + i).toList();
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> transactionService.getTransactionsByIds(transactionIds));
+        assertEquals(ErrorCode.INVALID_PARAMETER.getCode(), exception.getCode());
+    }
+
+    @Test
+    void cursorPages_SizeOutOfRange_RejectedWithoutQuery() {
+        // size + 1 不能溢出，也不能一次取太多
+        for (Integer size : new Integer[]{null, 0, 101, Integer.MAX_VALUE}) {
+            BusinessException all = assertThrows(BusinessException.class,
+                    () -> transactionService.getTransactionsByCursor(null, size));
+            BusinessException account = assertThrows(BusinessException.class,
+                    () -> transactionService.getAccountTransactions("ACC123456", null, size));
+            assertEquals(ErrorCode.INVALID_PARAMETER.getCode(), all.getCode());
+            assertEquals(ErrorCode.INVALID_PARAMETER.getCode(), account.getCode());
+        }
+        verifyNoInteractions(transactionStore, cacheService);
+    }
+
+    @Test
+    void getTransactionById_ConcurrentMisses_SingleQuery() throws Exception {
+        // Given: the query only finishes after every caller has missed the cache
+        CountDownLatch missed = new CountDownLatch(CONCURRENT_CALLERS);
+        AtomicInteger queries = new AtomicInteger();
+        when(cacheService.getTransaction("TXN1")).thenAnswer(invocation -> {
+            missed.countDown();
+            return null;
+        });
+        when(transactionStore.findByTransactionId("TXN1")).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            awaitOthers(missed);
+            return TransactionPO.builder().id(1L).transactionId("TXN1").build();
+        });
+
+        // When
+        List<Future<TransactionDTO>> results = runConcurrently(() -> transactionService.getTransactionById("TXN1"));
+
+        // Then
+        assertEquals(1, queries.get());
+        verify(cacheService, times(1)).setTransaction(eq("TXN1"), any(TransactionDTO.class));
+        for (Future<TransactionDTO> result : results) {
+            assertEquals("TXN1", result.get().getTransactionId());
+        }
+    }
+
+    @Test
+    void getTransactionById_ConcurrentMissesForUnknownId_SingleQueryAndAllFail() throws Exception {
+        // Given
+        CountDownLatch missed = new CountDownLatch(CONCURRENT_CALLERS);
+        AtomicInteger queries = new AtomicInteger();
+        when(cacheService.getTransaction("UNKNOWN")).thenAnswer(invocation -> {
+            missed.countDown();
+            return null;
+        });
+        when(transactionStore.findByTransactionId("UNKNOWN")).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            awaitOthers(missed);
+            return null;
+        });
+
+        // When
+        List<Future<TransactionDTO>> results = runConcurrently(() -> transactionService.getTransactionById("UNKNOWN"));
+
+        // Then: every caller sees the not-found error of the one query
+        assertEquals(1, queries.get());
+        for (Future<TransactionDTO> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+            assertEquals(ErrorCode.TRANSACTION_NOT_FOUND.getCode(), ((BusinessException) exception.getCause()).getCode());
+        }
+    }
+
+    @Test
+    void getAllTransactions_ConcurrentCountMisses_SingleCountQuery() throws Exception {
+        // Given
+        CountDownLatch missed = new CountDownLatch(CONCURRENT_CALLERS);
+        AtomicInteger queries = new AtomicInteger();
+        when(cacheService.getTotalCount()).thenAnswer(invocation -> {
+            missed.countDown();
+            return null;
+        });
+        when(transactionCountService.getTotalCount()).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            awaitOthers(missed);
+            return 42L;
+        });
+
+        // When
+        List<Future<PageResponse<TransactionDTO>>> results = runConcurrently(
+                () -> transactionService.getAllTransactions(0, 10));
+
+        // Then: one read of the maintained count, never a full-table COUNT(*)
+        assertEquals(1, queries.get());
+        verify(cacheService, times(1)).setTotalCount(42L);
+        verify(transactionStore, never()).countTotal();
+        for (Future<PageResponse<TransactionDTO>> result : results) {
+            assertEquals(42L, result.get().getTotalElements().longValue());
+        }
+    }
+
+    private static <T> List<Future<T>> runConcurrently(Callable<T> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CALLERS);
+        try {
+            List<Future<T>> futures = new ArrayList<>(CONCURRENT_CALLERS);
+            for (int i = 0; i < CONCURRENT_CALLERS; i++) {
+                futures.add(executor.submit(call));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            return futures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // 等所有调用方都未命中，再留一点时间让它们走到 SingleFlight 里
+    private static void awaitOthers(CountDownLatch missed) throws InterruptedException {
+        assertTrue(missed.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+    }
+
+    private static TransactionEditRequest request() {
+        TransactionEditRequest request = new TransactionEditRequest();
+        request.setAccountNumber("ACC123456");
+        request.setAmount(10000);
+        request.setTransactionType((byte) 1);
+        request.setCounterpartyAccount("ACC789012");
+        request.setDescription("Test transaction");
+        return request;
+    }
+}
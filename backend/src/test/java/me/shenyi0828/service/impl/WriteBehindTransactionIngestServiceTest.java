@@ -0,0 +1,182 @@
+package me.shenyi0828.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.config.IngestProperties;
+import me.shenyi0828.exception.BusinessException;
+import me.shenyi0828.exception.ErrorCode;
+import me.shenyi0828.model.TransactionBatchItemResult;
+import me.shenyi0828.model.TransactionEditRequest;
+import me.shenyi0828.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WriteBehindTransactionIngestService with the transaction service mocked
+ *
+ */
+class WriteBehindTransactionIngestServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 2000;
+
+    private TransactionService transactionService;
+    private SimpleMeterRegistry meterRegistry;
+    private IngestProperties ingestProperties;
+    private WriteBehindTransactionIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        when(transactionService.createTransactions(anyList())).thenAnswer(invocation -> succeeded(invocation.getArgument(0)));
+        meterRegistry = new SimpleMeterRegistry();
+        ingestProperties = new IngestProperties();
+        ingestProperties.setFlushSize(3);
+        ingestProperties.setFlushInterval(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ingestService != null) {
+            ingestService.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_AssignsIdAndWritesFullBatchInOneCall() throws InterruptedException {
+        // Given
+        ingestService = newIngestService();
+
+        // When
+        List<String> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            transactionIds.add(ingestService.submit(request()));
+        }
+
+        // Then
+        ArgumentCaptor<List<TransactionEditRequest>> batch = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, timeout(TIMEOUT_MILLIS)).createTransactions(batch.capture());
+        assertEquals(transactionIds, batch.getValue().stream().map(TransactionEditRequest::getTransactionId).toList());
+        assertTrue(transactionIds.stream().allMatch(id -> id.startsWith("TXN")));
+        ingestService.shutdown();
+        assertEquals(3.0, writes("ok"));
+    }
+
+    @Test
+    void submit_PartialBatchWrittenAfterFlushInterval() {
+        // Given
+        ingestService = newIngestService();
+
+        // When
+        String transactionId = ingestService.submit(request());
+
+        // Then
+        verify(transactionService, after(20).never()).createTransactions(anyList());
+        verify(transactionService, timeout(TIMEOUT_MILLIS)).createTransactions(
+                argThat(batch -> batch.size() == 1 && batch.get(0).getTransactionId().equals(transactionId)));
+    }
+
+    @Test
+    void submit_BufferFull_ReturnsNull() throws InterruptedException {
+        // Given: 写线程卡在第一批上，容量 2 的队列被填满
+        ingestProperties.setCapacity(2);
+        ingestProperties.setFlushSize(1);
+        CountDownLatch databaseStuck = new CountDownLatch(1);
+        when(transactionService.createTransactions(anyList())).thenAnswer(invocation -> {
+            databaseStuck.await();
+            return succeeded(invocation.getArgument(0));
+        });
+        ingestService = newIngestService();
+        ingestService.submit(request());
+        verify(transactionService, timeout(TIMEOUT_MILLIS)).createTransactions(anyList());
+        assertNotNull(ingestService.submit(request()));
+        assertNotNull(ingestService.submit(request()));
+
+        // When
+        String rejected = ingestService.submit(request());
+
+        // Then
+        assertNull(rejected);
+        assertEquals(1.0, meterRegistry.get("transaction.ingest.requests").tag("outcome", "rejected").counter().count());
+        assertTrue(ingestService.retryAfterSeconds() >= 1);
+        databaseStuck.countDown();
+    }
+
+    @Test
+    void write_BatchRolledBack_RetriedOneByOne() throws InterruptedException {
+        // Given: 整批因为并发插入同一ID回滚，逐条重写时只有那一条失败
+        when(transactionService.createTransactions(anyList()))
+                .thenThrow(new BusinessException(ErrorCode.TRANSACTION_ALREADY_EXISTS));
+        TransactionEditRequest duplicate = request();
+        duplicate.setTransactionId("TXN_TAKEN");
+        when(transactionService.createTransaction(argThat(request -> "TXN_TAKEN".equals(request.getTransactionId()))))
+                .thenThrow(new BusinessException(ErrorCode.TRANSACTION_ALREADY_EXISTS));
+        ingestService = newIngestService();
+
+        // When
+        ingestService.submit(request());
+        ingestService.submit(duplicate);
+        ingestService.submit(request());
+
+        // Then
+        verify(transactionService, timeout(TIMEOUT_MILLIS).times(3)).createTransaction(any(TransactionEditRequest.class));
+        ingestService.shutdown();
+        assertEquals(2.0, writes("ok"));
+        assertEquals(1.0, writes("failed"));
+    }
+
+    @Test
+    void shutdown_WritesEverythingAccepted() throws InterruptedException {
+        // Given: 间隔很长，只有关闭能触发写出
+        ingestProperties.setFlushInterval(Duration.ofMinutes(1));
+        ingestService = newIngestService();
+        ingestService.submit(request());
+
+        // When
+        ingestService.shutdown();
+
+        // Then
+        verify(transactionService).createTransactions(argThat(batch -> batch.size() == 1));
+        assertNull(ingestService.submit(request()));
+    }
+
+    private WriteBehindTransactionIngestService newIngestService() {
+        return new WriteBehindTransactionIngestService(transactionService, new SnowflakeTransactionIdGenerator(0),
+                ingestProperties, meterRegistry);
+    }
+
+    private double writes(String outcome) {
+        return meterRegistry.get("transaction.ingest.writes").tag("outcome", outcome).counter().count();
+    }
+
+    private static List<TransactionBatchItemResult> succeeded(List<TransactionEditRequest> batch) {
+        List<TransactionBatchItemResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            results.add(TransactionBatchItemResult.builder()
+                    .index(i)
+                    .transactionId(batch.get(i).getTransactionId())
+                    .success(true)
+                    .build());
+        }
+        return results;
+    }
+
+    private static TransactionEditRequest request() {
+        return TransactionEditRequest.builder()
+                .amount(100000)
+                .transactionType((byte) 2)
+                .accountNumber("6222021234567890")
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer")
+                .build();
+    }
+}
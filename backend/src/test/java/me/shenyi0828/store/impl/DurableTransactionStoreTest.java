@@ -0,0 +1,276 @@
+package me.shenyi0828.store.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.shenyi0828.model.TransactionPO;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the durable store: recovery from snapshot and log, rolled back transactions and torn log tails
+ *
+ */
+class DurableTransactionStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 14, 9, 30);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void open_FirstStartLoadsSourceAndWritesSnapshot() throws IOException {
+        // Given
+        InMemoryTransactionStore source = new InMemoryTransactionStore();
+        source.insert(transaction("TXN1", "ACC1", T0));
+        source.insert(transaction("TXN2", "ACC1", T0.plusSeconds(1)));
+
+        // When
+        DurableTransactionStore store = open(new InMemoryTransactionStore(), source);
+
+        // Then: 初始数据已写进快照，第一个日志段已删除
+        assertEquals(2L, store.countTotal());
+        assertEquals(List.of("snapshot-00000000000000000002.dat", "wal-00000000000000000002.log"), files());
+        InMemoryTransactionStore recovered = new InMemoryTransactionStore();
+        open(recovered, failingSource());
+        assertEquals(2L, recovered.findByTransactionId("TXN2").getId());
+    }
+
+    @Test
+    void open_CrashBeforeFirstSnapshotLoadsSourceAgain() throws IOException {
+        // Given: 首次启动建好了第一个日志段，还没写快照进程就退出了
+        InMemoryTransactionStore source = new InMemoryTransactionStore();
+        source.insert(transaction("TXN1", "ACC1", T0));
+        Files.write(directory.resolve("wal-00000000000000000001.log"), new byte[0]);
+
+        // When
+        DurableTransactionStore store = open(new InMemoryTransactionStore(), source);
+
+        // Then: 不会恢复成空的，重新从数据库装载
+        assertEquals(1L, store.countTotal());
+        assertEquals(List.of("snapshot-00000000000000000002.dat", "wal-00000000000000000002.log"), files());
+        InMemoryTransactionStore recovered = new InMemoryTransactionStore();
+        open(recovered, failingSource());
+        assertNotNull(recovered.findByTransactionId("TXN1"));
+    }
+
+    @Test
+    void open_AfterCrashReplaysCommittedWrites() throws IOException {
+        // Given: 写完不关闭，相当于进程被杀
+        DurableTransactionStore store = open(new InMemoryTransactionStore(), new InMemoryTransactionStore());
+        store.insert(transaction("TXN1", "ACC1", T0));
+        store.insertBatch(List.of(transaction("TXN2", "ACC2", T0.plusSeconds(1)),
+                transaction("TXN3", "ACC2", T0.plusSeconds(2))));
+        TransactionPO changed = transaction("TXN2", "ACC2", T0.plusSeconds(1));
+        changed.setAmount(999);
+        changed.setDescription("Changed");
+        changed.setUpdatedAt(T0.plusMinutes(5));
+        store.update(changed);
+        store.deleteByTransactionId("TXN3");
+
+        // When
+        InMemoryTransactionStore recovered = new InMemoryTransactionStore();
+        open(recovered, failingSource());
+
+        // Then
+        assertEquals(List.of("TXN2", "TXN1"), ids(recovered.findAllByCursor(null, null, 10)));
+        TransactionPO txn2 = recovered.findByTransactionId("TXN2");
+        assertEquals(999, txn2.getAmount());
+        assertEquals("Changed", txn2.getDescription());
+        assertEquals(T0.plusMinutes(5), txn2.getUpdatedAt());
+        assertEquals(2L, txn2.getId());
+        TransactionPO next = transaction("TXN4", "ACC1", T0);
+        recovered.insert(next);
+        assertEquals(4L, next.getId());
+    }
+
+    @Test
+    void open_SkipsRolledBackTransactions() throws IOException {
+        // Given: 一个事务提交，一个事务回滚
+        InMemoryTransactionStore delegate = new InMemoryTransactionStore();
+        DurableTransactionStore store = open(delegate, new InMemoryTransactionStore());
+        inTransaction(() -> store.insert(transaction("TXN1", "ACC1", T0)), TransactionSynchronization.STATUS_COMMITTED);
+        inTransaction(() -> {
+            store.insert(transaction("TXN2", "ACC1", T0.plusSeconds(1)));
+            store.deleteByTransactionId("TXN1");
+        }, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // When
+        InMemoryTransactionStore recovered = new InMemoryTransactionStore();
+        open(recovered, failingSource());
+
+        // Then: 回滚的事务在内存和恢复结果里都不存在
+        assertEquals(List.of("TXN1"), ids(delegate.findAllByCursor(null, null, 10)));
+        assertEquals(List.of("TXN1"), ids(recovered.findAllByCursor(null, null, 10)));
+    }
+
+    @Test
+    void rollback_AfterOtherTransactionCommittedSameRow_MemoryAndLogAgree() throws Exception {
+        // Given: T1 改了 TXN1 还没结束
+        InMemoryTransactionStore delegate = new InMemoryTransactionStore();
+        DurableTransactionStore store = open(delegate, new InMemoryTransactionStore());
+        store.insert(transaction("TXN1", "ACC1", T0));
+        TransactionPO first = transaction("TXN1", "ACC1", T0);
+        first.setAmount(200);
+        TransactionPO second = transaction("TXN1", "ACC1", T0);
+        second.setAmount(300);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TransactionSynchronizationManager.initSynchronization();
+            store.update(first);
+
+            // When: T2 改同一笔并提交，等到 T1 回滚之后才能写
+            Future<?> other = executor.submit(
+                    () -> inTransaction(() -> store.update(second), TransactionSynchronization.STATUS_COMMITTED));
+            assertThrows(TimeoutException.class, () -> other.get(200, TimeUnit.MILLISECONDS));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            TransactionSynchronizationManager.clearSynchronization();
+            other.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        InMemoryTransactionStore recovered = new InMemoryTransactionStore();
+        open(recovered, failingSource());
+        assertEquals(300, delegate.findByTransactionId("TXN1").getAmount());
+        assertEquals(300, recovered.findByTransactionId("TXN1").getAmount());
+    }
+
+    @Test
+    void open_IgnoresTornLogTail() throws IOException {
+        // Given: 日志末尾有一条写了一半的记录
+        DurableTransactionStore store = open(new InMemoryTransactionStore(), new InMemoryTransactionStore());
+        store.insert(transaction("TXN1", "ACC1", T0));
+        Path segment = directory.resolve("wal-00000000000000000002.log");
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // When
+        InMemoryTransactionStore recovered = new InMemoryTransactionStore();
+        open(recovered, failingSource());
+
+        // Then
+        assertEquals(1L, recovered.countTotal());
+        assertNotNull(recovered.findByTransactionId("TXN1"));
+    }
+
+    @Test
+    void snapshot_StartsNewSegmentAndRecoversFromBoth() throws IOException {
+        // Given
+        DurableTransactionStore store = open(new InMemoryTransactionStore(), new InMemoryTransactionStore());
+        store.insert(transaction("TXN1", "ACC1", T0));
+        store.snapshot();
+        store.insert(transaction("TXN2", "ACC1", T0.plusSeconds(1)));
+
+        // When
+        InMemoryTransactionStore recovered = new InMemoryTransactionStore();
+        open(recovered, failingSource());
+
+        // Then: 只留下最新的快照和它之后的日志段（加上这次恢复新开的段）
+        assertEquals(List.of("TXN2", "TXN1"), ids(recovered.findAllByCursor(null, null, 10)));
+        assertEquals(List.of("snapshot-00000000000000000003.dat", "wal-00000000000000000003.log",
+                "wal-00000000000000000004.log"), files());
+    }
+
+    @Test
+    void close_WritesSnapshotSoNothingIsReplayed() throws IOException {
+        // Given
+        DurableTransactionStore store = open(new OffHeapTransactionStore(), new InMemoryTransactionStore());
+        store.insert(transaction("TXN1", "ACC1", T0));
+
+        // When
+        store.close();
+        store.close();
+
+        // Then
+        assertEquals(List.of("snapshot-00000000000000000003.dat", "wal-00000000000000000003.log"), files());
+        assertEquals(StoreRecords.HEADER_BYTES, Files.size(directory.resolve("wal-00000000000000000003.log")));
+        OffHeapTransactionStore recovered = new OffHeapTransactionStore();
+        open(recovered, failingSource());
+        assertEquals("ACC1", recovered.findByTransactionId("TXN1").getAccountNumber());
+    }
+
+    private DurableTransactionStore open(InProcessTransactionStore delegate, InMemoryTransactionStore initialSource)
+            throws IOException {
+        DurableTransactionStore store = new DurableTransactionStore(delegate, directory, new SimpleMeterRegistry());
+        store.open(initialSource);
+        return store;
+    }
+
+    /**
+     * 按 Spring 事务管理器的顺序调用同步回调
+     */
+    private static void inTransaction(Runnable writes, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writes.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            }
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * 已有文件时不应再从数据库装载
+     */
+    private static InMemoryTransactionStore failingSource() {
+        return new InMemoryTransactionStore() {
+            @Override
+            public void exportAll(ResultHandler<TransactionPO> resultHandler) {
+                fail("Initial source must not be read when store files exist");
+            }
+        };
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static List<String> ids(List<TransactionPO> transactions) {
+        return transactions.stream().map(TransactionPO::getTransactionId).toList();
+    }
+
+    private static TransactionPO transaction(String transactionId, String accountNumber, LocalDateTime createdAt) {
+        return TransactionPO.builder()
+                .transactionId(transactionId)
+                .amount(100000)
+                .transactionType((byte) 2)
+                .accountNumber(accountNumber)
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,251 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.model.TransactionTotalsPO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the off-heap transaction store: columns, off-heap indexes, paging order and rollback
+ *
+ */
+class OffHeapTransactionStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 14, 9, 30);
+
+    private final OffHeapTransactionStore store = new OffHeapTransactionStore();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void insert_RoundTripsEveryColumnAndRejectsDuplicates() {
+        // Given
+        TransactionPO first = transaction("TXN1", "ACC1", T0.plusNanos(2_000));
+        first.setCounterpartyAccount(null);
+        first.setDescription("工资 transfer");
+        TransactionPO second = transaction("TXN2", "ACC1", T0);
+
+        // When
+        store.insert(first);
+        store.insert(second);
+
+        // Then
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        assertEquals(first, store.findByTransactionId("TXN1"));
+        assertEquals(second, store.findByTransactionId("TXN2"));
+        assertThrows(DuplicateKeyException.class, () -> store.insert(transaction("TXN1", "ACC2", T0)));
+        TransactionPO missingAmount = transaction("TXN3", "ACC1", T0);
+        missingAmount.setAmount(null);
+        assertThrows(DataIntegrityViolationException.class, () -> store.insert(missingAmount));
+        assertEquals(2L, store.countTotal());
+        assertEquals(List.of("TXN2"), store.findExistingTransactionIds(List.of("TXN2", "TXN3")));
+    }
+
+    @Test
+    void findAllByCursor_NewestFirstWithIdTieBreakAndOutOfOrderInserts() {
+        // Given: TXN2 和 TXN3 时间相同，id 大的在前；TXN4 插入时间在中间
+        store.insert(transaction("TXN1", "ACC1", T0));
+        store.insert(transaction("TXN2", "ACC2", T0.plusSeconds(1)));
+        store.insert(transaction("TXN3", "ACC1", T0.plusSeconds(1)));
+        store.insert(transaction("TXN4", "ACC2", T0.plusNanos(2_000)));
+
+        // When
+        List<TransactionPO> firstPage = store.findAllByCursor(null, null, 2);
+        TransactionPO last = firstPage.get(1);
+        List<TransactionPO> secondPage = store.findAllByCursor(last.getCreatedAt(), last.getId(), 2);
+
+        // Then
+        assertEquals(List.of("TXN3", "TXN2"), ids(firstPage));
+        assertEquals(List.of("TXN4", "TXN1"), ids(secondPage));
+        assertEquals(List.of("TXN4", "TXN1"), ids(store.findAllByCursor(T0.plusSeconds(1), null, 10)));
+        assertEquals(List.of("TXN2", "TXN4"), ids(store.findAllWithPagination(1, 2)));
+        assertEquals(List.of("TXN3", "TXN1"), ids(store.findByAccountNumberByCursor("ACC1", null, null, 10)));
+        assertEquals(List.of("TXN2", "TXN4"), ids(store.findByAccountNumberByCursor("ACC2", null, null, 10)));
+    }
+
+    @Test
+    void findByAccountNumberByCursor_CursorFromDeletedOrOtherAccountRow() {
+        // Given
+        store.insert(transaction("TXN1", "ACC1", T0));
+        store.insert(transaction("TXN2", "ACC2", T0.plusSeconds(1)));
+        store.insert(transaction("TXN3", "ACC1", T0.plusSeconds(2)));
+        store.insert(transaction("TXN4", "ACC1", T0.plusSeconds(3)));
+        TransactionPO cursor = store.findByTransactionId("TXN3");
+        TransactionPO otherAccount = store.findByTransactionId("TXN2");
+
+        // When: 游标所在行被删掉后继续翻页
+        store.deleteByTransactionId("TXN3");
+
+        // Then
+        assertEquals(List.of("TXN1"),
+                ids(store.findByAccountNumberByCursor("ACC1", cursor.getCreatedAt(), cursor.getId(), 10)));
+        assertEquals(List.of("TXN1"),
+                ids(store.findByAccountNumberByCursor("ACC1", otherAccount.getCreatedAt(), otherAccount.getId(), 10)));
+        assertEquals(List.of("TXN4", "TXN1"), ids(store.findByAccountNumberByCursor("ACC1", null, null, 10)));
+        assertTrue(store.findByAccountNumberByCursor("ACC9", null, null, 10).isEmpty());
+    }
+
+    @Test
+    void updateAndDelete_ThenReinsertSameId() {
+        // Given
+        store.insert(transaction("TXN1", "ACC1", T0));
+        store.insert(transaction("TXN2", "ACC1", T0.plusSeconds(1)));
+        TransactionPO changed = transaction("TXN1", "ACC1", T0);
+        changed.setAmount(999);
+        changed.setDescription("Changed");
+        changed.setUpdatedAt(T0.plusMinutes(5));
+
+        // When
+        int updated = store.update(changed);
+        int deleted = store.deleteByTransactionId("TXN2");
+        TransactionPO reinserted = transaction("TXN2", "ACC1", T0.plusSeconds(2));
+        store.insert(reinserted);
+
+        // Then
+        assertEquals(1, updated);
+        assertEquals(1, deleted);
+        TransactionPO fromPage = store.findByAccountNumberByCursor("ACC1", null, null, 10).get(1);
+        assertEquals(999, fromPage.getAmount());
+        assertEquals("Changed", fromPage.getDescription());
+        assertEquals(T0.plusMinutes(5), fromPage.getUpdatedAt());
+        assertEquals(3L, store.findByTransactionId("TXN2").getId());
+        assertEquals(List.of("TXN2", "TXN1"), ids(store.findAllWithPagination(0, 10)));
+        assertEquals(2L, store.countTotal());
+    }
+
+    @Test
+    void rollback_UndoesWritesInReverseOrder() {
+        // Given
+        store.insert(transaction("TXN1", "ACC1", T0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When: 同一个事务里新建后修改 TXN2、修改并删除 TXN1，然后回滚
+        store.insert(transaction("TXN2", "ACC2", T0.plusSeconds(1)));
+        TransactionPO changed = transaction("TXN1", "ACC1", T0);
+        changed.setAmount(1);
+        changed.setDescription("Changed");
+        store.update(changed);
+        store.deleteByTransactionId("TXN1");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        // undo 和写锁各一个，不随写的次数增加
+        assertEquals(2, synchronizations.size());
+        assertNull(store.findByTransactionId("TXN2"));
+        TransactionPO restored = store.findByTransactionId("TXN1");
+        assertEquals(100000, restored.getAmount());
+        assertEquals("Salary transfer", restored.getDescription());
+        assertTrue(store.findByAccountNumberByCursor("ACC2", null, null, 10).isEmpty());
+        assertEquals(1L, store.countTotal());
+    }
+
+    @Test
+    void insert_GrowsPastOneChunkAndHashResize() {
+        // Given: 超过一个列块的行数，相邻两行时间对调，每隔一行就要挪动一次时间序索引
+        int rows = OffHeapColumn.CHUNK_ROWS + 10;
+        for (int i = 0; i < rows; i++) {
+            store.insert(transaction("TXN" + i, "ACC" + i % 7, T0.plusSeconds(i ^ 1)));
+        }
+
+        // When
+        List<String> exported = new ArrayList<>();
+        store.scanTransactionIds(resultContext -> exported.add(resultContext.getResultObject()));
+
+        // Then
+        assertEquals(rows, exported.size());
+        assertEquals((long) rows, store.countTotal());
+        assertEquals("TXN" + (rows - 1), store.findByTransactionId("TXN" + (rows - 1)).getTransactionId());
+        assertEquals(List.of("TXN" + (rows - 2), "TXN" + (rows - 1)), ids(store.findAllByCursor(null, null, 2)));
+        assertEquals(List.of("TXN1"), ids(store.findAllWithPagination(rows - 1, 10)));
+        assertEquals(List.of("TXN65544", "TXN65537"), ids(store.findByAccountNumberByCursor("ACC3", null, null, 2)));
+        assertTrue(store.sizeInBytes() > 0);
+    }
+
+    @Test
+    void load_KeepsIdsExportsInIdOrderAndContinuesSequence() {
+        // Given
+        InMemoryTransactionStore source = new InMemoryTransactionStore();
+        source.insert(transaction("TXN1", "ACC1", T0.plusSeconds(1)));
+        source.insert(transaction("TXN2", "ACC1", T0));
+
+        // When
+        store.load(source);
+        TransactionPO next = transaction("TXN3", "ACC1", T0);
+        store.insert(next);
+        List<String> exported = new ArrayList<>();
+        store.exportAll(resultContext -> {
+            exported.add(resultContext.getResultObject().getTransactionId());
+            if (resultContext.getResultCount() == 2) {
+                resultContext.stop();
+            }
+        });
+
+        // Then
+        assertEquals(2L, store.findByTransactionId("TXN2").getId());
+        assertEquals(3L, next.getId());
+        assertEquals(List.of("TXN1", "TXN2"), exported);
+    }
+
+    @Test
+    void sumByDayAndAccount_HalfOpenRangeSkipsDeletedRows() {
+        // Given: 第一天一收一支，第二天一收，范围外一笔，一笔已删除
+        LocalDateTime day1 = LocalDateTime.of(2025, 1, 14, 0, 0);
+        store.insert(transaction("TXN1", "ACC2", day1));
+        TransactionPO expense = transaction("TXN2", "ACC1", day1.plusDays(1).minusNanos(1_000));
+        expense.setTransactionType((byte) 1);
+        expense.setAmount(300);
+        store.insert(expense);
+        store.insert(transaction("TXN3", "ACC1", day1.plusDays(1)));
+        store.insert(transaction("TXN4", "ACC1", day1.plusDays(2)));
+        store.insert(transaction("TXN5", "ACC1", day1.plusHours(1)));
+        store.deleteByTransactionId("TXN5");
+
+        // When
+        List<TransactionTotalsPO> days = store.sumByDay(day1, day1.plusDays(2));
+        List<TransactionTotalsPO> accounts = store.sumByAccount(day1, day1.plusDays(2));
+
+        // Then
+        assertEquals(List.of(
+                new TransactionTotalsPO(LocalDate.of(2025, 1, 14), null, 1L, 100000L, 1L, 300L),
+                new TransactionTotalsPO(LocalDate.of(2025, 1, 15), null, 1L, 100000L, 0L, 0L)), days);
+        assertEquals(List.of(
+                new TransactionTotalsPO(null, "ACC1", 1L, 100000L, 1L, 300L),
+                new TransactionTotalsPO(null, "ACC2", 1L, 100000L, 0L, 0L)), accounts);
+        assertTrue(store.sumByDay(day1, day1).isEmpty());
+    }
+
+    private static List<String> ids(List<TransactionPO> transactions) {
+        return transactions.stream().map(TransactionPO::getTransactionId).toList();
+    }
+
+    private static TransactionPO transaction(String transactionId, String accountNumber, LocalDateTime createdAt) {
+        return TransactionPO.builder()
+                .transactionId(transactionId)
+                .amount(100000)
+                .transactionType((byte) 2)
+                .accountNumber(accountNumber)
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.model.TransactionPO;
+import me.shenyi0828.store.TransactionStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cross-engine test of the exportAll contract: every in-process engine exports in ascending id order,
+ * whatever the creation times and the order the rows were put in, so loading one engine from another keeps that order.
+ * The database engine gets the same order from ORDER BY id
+ *
+ */
+class TransactionStoreExportOrderTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 14, 9, 30);
+
+    private static final List<Supplier<InProcessTransactionStore>> ENGINES = List.of(
+            InMemoryTransactionStore::new, OffHeapTransactionStore::new);
+
+    @Test
+    void exportAll_AscendingIdInEveryEngine() {
+        for (Supplier<InProcessTransactionStore> engine : ENGINES) {
+            // Given: 创建时间和 id 的顺序相反；4 号在 5 号之后放入，相当于恢复时按提交顺序重放；3 号被删除
+            InProcessTransactionStore store = engine.get();
+            store.put(transaction(1L, "TXN1", T0.plusSeconds(5)));
+            store.put(transaction(2L, "TXN2", T0.plusSeconds(4)));
+            store.put(transaction(3L, "TXN3", T0.plusSeconds(3)));
+            store.put(transaction(5L, "TXN5", T0.plusSeconds(1)));
+            store.put(transaction(4L, "TXN4", T0.plusSeconds(2)));
+            store.insert(transaction(null, "TXN6", T0));
+            store.deleteByTransactionId("TXN3");
+
+            // When
+            List<Long> exported = ids(store);
+            List<List<Long>> loaded = new ArrayList<>();
+            for (Supplier<InProcessTransactionStore> target : ENGINES) {
+                InProcessTransactionStore copy = target.get();
+                copy.load(store);
+                loaded.add(ids(copy));
+            }
+
+            // Then
+            String name = store.getClass().getSimpleName();
+            assertEquals(List.of(1L, 2L, 4L, 5L, 6L), exported, name);
+            loaded.forEach(copy -> assertEquals(exported, copy, name + " loaded into another engine"));
+        }
+    }
+
+    private static List<Long> ids(TransactionStore store) {
+        List<Long> ids = new ArrayList<>();
+        store.exportAll(resultContext -> ids.add(resultContext.getResultObject().getId()));
+        return ids;
+    }
+
+    private static TransactionPO transaction(Long id, String transactionId, LocalDateTime createdAt) {
+        return TransactionPO.builder()
+                .id(id)
+                .transactionId(transactionId)
+                .amount(100000)
+                .transactionType((byte) 2)
+                .accountNumber("6222021234567890")
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+}
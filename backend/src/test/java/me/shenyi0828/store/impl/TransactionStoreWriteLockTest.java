@@ -0,0 +1,146 @@
+package me.shenyi0828.store.impl;
+
+import me.shenyi0828.model.TransactionPO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cross-engine test of the per transaction ID write lock: a second writer waits until the first transaction ends,
+ * so rolling the first one back never undoes what the second one committed
+ *
+ */
+class TransactionStoreWriteLockTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 14, 9, 30);
+
+    private static final List<Supplier<InProcessTransactionStore>> ENGINES = List.of(
+            InMemoryTransactionStore::new, OffHeapTransactionStore::new);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rollback_AfterOtherTransactionUpdatedAndCommitted_KeepsCommittedUpdate() throws Exception {
+        for (Supplier<InProcessTransactionStore> engine : ENGINES) {
+            InProcessTransactionStore store = engine.get();
+            store.put(transaction(1L, "TXN1", 100));
+
+            // T1 改了 TXN1 还没结束，T2 改同一笔并提交，然后 T1 回滚
+            int committed = interleave(store, first -> first.update(transaction(null, "TXN1", 200)),
+                    second -> second.update(transaction(null, "TXN1", 300)));
+
+            assertEquals(1, committed, name(store));
+            assertEquals(300, store.findByTransactionId("TXN1").getAmount(), name(store));
+        }
+    }
+
+    @Test
+    void rollback_AfterOtherTransactionDeletedAndCommitted_RowStaysDeleted() throws Exception {
+        for (Supplier<InProcessTransactionStore> engine : ENGINES) {
+            InProcessTransactionStore store = engine.get();
+            store.put(transaction(1L, "TXN1", 100));
+
+            int committed = interleave(store, first -> first.update(transaction(null, "TXN1", 200)),
+                    second -> second.deleteByTransactionId("TXN1"));
+
+            assertEquals(1, committed, name(store));
+            assertNull(store.findByTransactionId("TXN1"), name(store));
+            assertEquals(0L, store.countTotal(), name(store));
+        }
+    }
+
+    @Test
+    void rollback_OfInsert_OtherTransactionSeesNoRowToUpdate() throws Exception {
+        for (Supplier<InProcessTransactionStore> engine : ENGINES) {
+            InProcessTransactionStore store = engine.get();
+
+            // T2 等 T1 结束，T1 的插入回滚后就没有可改的行
+            int committed = interleave(store, first -> first.insert(transaction(null, "TXN2", 100)),
+                    second -> second.update(transaction(null, "TXN2", 300)));
+
+            assertEquals(0, committed, name(store));
+            assertNull(store.findByTransactionId("TXN2"), name(store));
+        }
+    }
+
+    /**
+     * 本线程的事务先写，另一个线程的事务写同一个 ID 并提交；确认它在等，再把本线程的事务回滚
+     *
+     * @return 另一个事务写到的行数
+     */
+    private static int interleave(InProcessTransactionStore store, Function<InProcessTransactionStore, Integer> first,
+                                  Function<InProcessTransactionStore, Integer> second) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TransactionSynchronizationManager.initSynchronization();
+            first.apply(store);
+            Future<Integer> other = executor.submit(
+                    () -> inTransaction(() -> second.apply(store), TransactionSynchronization.STATUS_COMMITTED));
+            assertThrows(TimeoutException.class, () -> other.get(200, TimeUnit.MILLISECONDS),
+                    "second writer must wait for the first transaction");
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+            TransactionSynchronizationManager.clearSynchronization();
+            return other.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T inTransaction(Supplier<T> writes, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = writes.get();
+            complete(status);
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * 按 Spring 事务管理器的顺序调用同步回调
+     */
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static String name(InProcessTransactionStore store) {
+        return store.getClass().getSimpleName();
+    }
+
+    private static TransactionPO transaction(Long id, String transactionId, int amount) {
+        return TransactionPO.builder()
+                .id(id)
+                .transactionId(transactionId)
+                .amount(amount)
+                .transactionType((byte) 2)
+                .accountNumber("6222021234567890")
+                .counterpartyAccount("6222028765432109")
+                .description("Salary transfer")
+                .createdAt(T0)
+                .updatedAt(T0.plusSeconds(amount))
+                .build();
+    }
+}